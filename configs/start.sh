@@ -264,6 +264,13 @@ if [ ! "$valid_appodb_password" -eq "0" ]; then
   exit 1
 fi
 
+validate_var_not_empty "$TOKEN_ENCRYPTION_KEY"
+valid_token_encryption_key="$?"
+if [ ! "$valid_token_encryption_key" -eq "0" ]; then
+  echo "token encryption key not set, TOKEN_ENCRYPTION_KEY is required"
+  exit 1
+fi
+
 if [ ! -z "$INVENTORY_ENDPOINT" ]; then
   validate_host_name "$INVENTORY_ENDPOINT"
   valid_inventory_endpoint_name="$?"
@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.apihandler;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.servicecomb.provider.rest.common.RestSchema;
+import org.edgegallery.mecm.appo.apihandler.filter.AdmissionControlInterceptor;
+import org.edgegallery.mecm.appo.service.CircuitBreakerRegistry;
+import org.edgegallery.mecm.appo.service.PackageStagingJanitor;
+import org.edgegallery.mecm.appo.service.RestClientHelper;
+import org.edgegallery.mecm.appo.utils.ApplicationDescriptorCache;
+import org.edgegallery.mecm.appo.utils.AppoResponse;
+import org.edgegallery.mecm.appo.utils.MepmEndpointCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Application orchestrator administration API handler, service wide and not scoped to a tenant.
+ */
+@RestSchema(schemaId = "appo-admin")
+@Api(value = "Application orchestrator administration api system")
+@RequestMapping("/appo/v1/admin")
+@RestController
+public class AppoAdminHandler {
+
+    private final AdmissionControlInterceptor admissionControl;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    private final MepmEndpointCache mepmEndpointCache;
+
+    private final ApplicationDescriptorCache descriptorCache;
+
+    private final PackageStagingJanitor packageStagingJanitor;
+
+    /**
+     * Constructor to create AppoAdminHandler.
+     */
+    @Autowired
+    public AppoAdminHandler(AdmissionControlInterceptor admissionControl,
+                            PoolingHttpClientConnectionManager connectionManager,
+                            CircuitBreakerRegistry circuitBreakers, MepmEndpointCache mepmEndpointCache,
+                            ApplicationDescriptorCache descriptorCache,
+                            PackageStagingJanitor packageStagingJanitor) {
+        this.admissionControl = admissionControl;
+        this.connectionManager = connectionManager;
+        this.circuitBreakers = circuitBreakers;
+        this.mepmEndpointCache = mepmEndpointCache;
+        this.descriptorCache = descriptorCache;
+        this.packageStagingJanitor = packageStagingJanitor;
+    }
+
+    /**
+     * Queries orchestration executor metrics of this instance.
+     *
+     * @return job executor pool statistics and admission counters, outbound http connection pool statistics,
+     *         circuit breaker states, MEPM endpoint cache and application descriptor cache statistics, package
+     *         store and staging storage usage
+     */
+    @ApiOperation(value = "Queries orchestration executor metrics", response = AppoResponse.class)
+    @GetMapping(path = "/orchestration_metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "request success", response = AppoResponse.class)
+    })
+    @PreAuthorize("hasRole('MECM_ADMIN')")
+    public ResponseEntity<AppoResponse> queryOrchestrationMetrics(
+            @ApiParam(value = "access token") @RequestHeader("access_token") String accessToken) {
+        Map<String, Object> metrics = new LinkedHashMap<>(admissionControl.getMetrics());
+        metrics.put("http_client_pool", RestClientHelper.getPoolStats(connectionManager));
+        metrics.put("circuit_breakers", circuitBreakers.getStates());
+        metrics.put("mepm_cache", mepmEndpointCache.getStats());
+        metrics.put("descriptor_cache", descriptorCache.getStats());
+        metrics.put("package_storage", packageStagingJanitor.getStats());
+        return new ResponseEntity<>(new AppoResponse(metrics), HttpStatus.OK);
+    }
+}
@@ -26,8 +26,12 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 import org.apache.servicecomb.provider.rest.common.RestSchema;
@@ -38,8 +42,10 @@ import org.edgegallery.mecm.appo.apihandler.dto.SyncUpdatedAppInstanceDto;
 import org.edgegallery.mecm.appo.exception.AppoException;
 import org.edgegallery.mecm.appo.model.AppInstanceInfo;
 import org.edgegallery.mecm.appo.service.AppInstanceInfoService;
+import org.edgegallery.mecm.appo.service.InventorySnapshot;
 import org.edgegallery.mecm.appo.service.impl.RestServiceImpl;
 import org.edgegallery.mecm.appo.utils.AppoResponse;
+import org.edgegallery.mecm.appo.utils.MepmEndpointCache;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -82,6 +88,12 @@ public class AppoSyncHandler {
     @Autowired
     private AppInstanceInfoService appInstanceInfoService;
 
+    @Autowired
+    private MepmEndpointCache mepmEndpointCache;
+
+    @Autowired
+    private InventorySnapshot inventorySnapshot;
+
     /**
      * Synchronizes application instance info form all edges.
      *
@@ -104,26 +116,40 @@ public class AppoSyncHandler {
         logger.info("Sync application instance infos from edge");
         try {
             Set<String> mepms = getInventoryMecHostsCfg(tenantId, accessToken);
+            // Host topology is read again, cached MEPM endpoints and inventory snapshot of the tenant are refreshed
+            // on next use
+            mepmEndpointCache.invalidateTenant(tenantId);
+            inventorySnapshot.invalidate(tenantId);
+            Map<String, CompletableFuture<ResponseEntity<SyncDeletedAppInstanceDto>>> staleRecords =
+                    new LinkedHashMap<>();
+            Map<String, CompletableFuture<ResponseEntity<SyncUpdatedAppInstanceDto>>> updatedRecords =
+                    new LinkedHashMap<>();
+            // Requests to all edges are sent together, records are updated as responses are collected
             for (String mepm: mepms) {
                 logger.info("Sync application instance infos from edge {}", mepm);
                 String mepmEndPoint = getInventoryMepmCfg(mepm, accessToken);
+                String uri = new StringBuilder(mepmEndPoint).append("/lcmcontroller/v2/tenants/").append(tenantId)
+                        .append("/app_instances").toString();
 
-                getSyncAppInstanceStaleRecords(mepmEndPoint, tenantId, accessToken);
-                getSyncAppInstanceUpdateRecords(mepmEndPoint, tenantId, accessToken);
+                staleRecords.put(mepmEndPoint, syncService.syncRecordsAsync(uri + "/sync_deleted",
+                        SyncDeletedAppInstanceDto.class, accessToken));
+                updatedRecords.put(mepmEndPoint, syncService.syncRecordsAsync(uri + "/sync_updated",
+                        SyncUpdatedAppInstanceDto.class, accessToken));
+            }
+
+            for (String mepmEndPoint: staleRecords.keySet()) {
+                getSyncAppInstanceStaleRecords(tenantId, staleRecords.get(mepmEndPoint));
+                getSyncAppInstanceUpdateRecords(mepmEndPoint, tenantId, updatedRecords.get(mepmEndPoint));
             }
         } catch (AppoException ex) {
             throw new AppoException("failed to synchronize app instance info from edge:" + ex.getMessage());
         }
     }
 
-    private void getSyncAppInstanceUpdateRecords(String appLcmEndPoint, String tenantId, String accessToken) {
+    private void getSyncAppInstanceUpdateRecords(String appLcmEndPoint, String tenantId,
+            CompletableFuture<ResponseEntity<SyncUpdatedAppInstanceDto>> response) {
         try {
-            StringBuilder sb = new StringBuilder(appLcmEndPoint);
-            String uri = sb.append("/lcmcontroller/v2/tenants/").append(tenantId)
-                            .append("/app_instances/sync_updated").toString();
-
-            ResponseEntity<SyncUpdatedAppInstanceDto> updateResponse = syncService.syncRecords(uri,
-                    SyncUpdatedAppInstanceDto.class, accessToken);
+            ResponseEntity<SyncUpdatedAppInstanceDto> updateResponse = join(response);
             SyncUpdatedAppInstanceDto syncUpdatedAppInstDto = updateResponse.getBody();
             // Update table
             String[] mecmIp = appLcmEndPoint.split(":");
@@ -137,14 +163,10 @@ public class AppoSyncHandler {
         }
     }
 
-    private void getSyncAppInstanceStaleRecords(String mepmEndPoint, String tenantId, String accessToken) {
+    private void getSyncAppInstanceStaleRecords(String tenantId,
+            CompletableFuture<ResponseEntity<SyncDeletedAppInstanceDto>> response) {
         try {
-            StringBuilder sb = new StringBuilder(mepmEndPoint);
-            String uri = sb.append("/lcmcontroller/v2/tenants/").append(tenantId).append("/app_instances"
-                    + "/sync_deleted").toString();
-
-            ResponseEntity<SyncDeletedAppInstanceDto> updateResponse = syncService.syncRecords(uri,
-                    SyncDeletedAppInstanceDto.class, accessToken);
+            ResponseEntity<SyncDeletedAppInstanceDto> updateResponse = join(response);
             SyncDeletedAppInstanceDto syncDeletedAppInstDto = updateResponse.getBody();
             // Update table
             if (syncDeletedAppInstDto != null && syncDeletedAppInstDto.getAppInstanceDeletedRecs() != null) {
@@ -157,6 +179,17 @@ public class AppoSyncHandler {
         }
     }
 
+    private static <T> T join(CompletableFuture<T> response) {
+        try {
+            return response.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new AppoException(ex.getMessage());
+        }
+    }
+
     private void updateSyncAppInstanceRecords(String tenantId, String mecmIp, AppInstanceInfoDto updatedRecord) {
         ModelMapper mapper = new ModelMapper();
         updatedRecord.setMepmHost(mecmIp);
@@ -47,6 +47,8 @@ public class AccessTokenFilter extends OncePerRequestFilter {
     private static final String INVALID_TOKEN_MESSAGE = "Invalid access token";
     private static final String INVALID_USER_MESSAGE = "Invalid user";
     public static final String HEALTH_URI = "/appo/v1/health";
+    // Not tenant scoped, authorized by role
+    public static final String ADMIN_URI_PREFIX = "/appo/v1/admin/";
 
     @Autowired
     TokenStore jwtTokenStore;
@@ -78,18 +80,20 @@ public class AccessTokenFilter extends OncePerRequestFilter {
                 return;
             }
 
-            String userIdFromRequest = getTenantId(request.getRequestURI());
-            String userIdFromToken = additionalInfoMap.get("userId").toString();
-            if (userIdFromRequest == null || userIdFromToken == null) {
-                LOGGER.error("User ID is invalid.");
-                response.sendError(HttpStatus.UNAUTHORIZED.value(), INVALID_USER_MESSAGE);
-                return;
-            }
+            if (!request.getRequestURI().startsWith(ADMIN_URI_PREFIX)) {
+                String userIdFromRequest = getTenantId(request.getRequestURI());
+                String userIdFromToken = additionalInfoMap.get("userId").toString();
+                if (userIdFromRequest == null || userIdFromToken == null) {
+                    LOGGER.error("User ID is invalid.");
+                    response.sendError(HttpStatus.UNAUTHORIZED.value(), INVALID_USER_MESSAGE);
+                    return;
+                }
 
-            if (!userIdFromRequest.equals(userIdFromToken)) {
-                LOGGER.error("Illegal tenant ID");
-                response.sendError(HttpStatus.UNAUTHORIZED.value(), "Illegal tenant ID");
-                return;
+                if (!userIdFromRequest.equals(userIdFromToken)) {
+                    LOGGER.error("Illegal tenant ID");
+                    response.sendError(HttpStatus.UNAUTHORIZED.value(), "Illegal tenant ID");
+                    return;
+                }
             }
 
             SecurityContextHolder.getContext().setAuthentication(auth);
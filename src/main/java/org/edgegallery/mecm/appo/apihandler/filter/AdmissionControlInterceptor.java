@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.apihandler.filter;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.edgegallery.mecm.appo.config.ProcessflowJobExecutor;
+import org.edgegallery.mecm.appo.utils.AppoResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admission control for requests which start an asynchronous process flow. Requests are rejected with
+ * 429 too many requests, before any record is persisted, when the job executor pool of the external call bounding
+ * the process flow has no free capacity: APM pool for package download on create, MEPM pool for instantiate and
+ * terminate, default pool for other requests. Jobs executing or queued in the pool, jobs of the pool pending in the
+ * process engine database and requests being handled are counted as occupied capacity, as each of the requests
+ * submits a process flow.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdmissionControlInterceptor.class);
+
+    private static final String ADMITTED = AdmissionControlInterceptor.class.getName() + ".admitted";
+
+    private static final String APP_INSTANCES = "/appo/v1/tenants/*/app_instances";
+
+    // Method, path pattern and job executor pool, first match applies
+    private static final String[][] REQUEST_POOLS = {
+        {"POST", APP_INSTANCES, ProcessflowJobExecutor.APM_POOL},
+        {"POST", APP_INSTANCES + "/batch_create", ProcessflowJobExecutor.APM_POOL},
+        {"POST", APP_INSTANCES + "/batch_instantiate", ProcessflowJobExecutor.MEPM_POOL},
+        {"POST", APP_INSTANCES + "/batch_terminate", ProcessflowJobExecutor.MEPM_POOL},
+        {"POST", APP_INSTANCES + "/*", ProcessflowJobExecutor.MEPM_POOL},
+        {"DELETE", APP_INSTANCES + "/*", ProcessflowJobExecutor.MEPM_POOL}
+    };
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final ProcessflowJobExecutor jobExecutor;
+
+    private final Map<String, Integer> admittedRequests = new LinkedHashMap<>();
+
+    private long rejectedRequests;
+
+    @Value("${appo.admission.retry-after:5}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    public AdmissionControlInterceptor(ProcessflowJobExecutor jobExecutor) {
+        this.jobExecutor = jobExecutor;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+
+        String pool = getPool(request);
+        if (!tryAdmit(pool)) {
+            LOGGER.warn("Job executor pool {} saturated, request {} {} rejected", pool, request.getMethod(),
+                    request.getRequestURI());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(new Gson().toJson(
+                    new AppoResponse("job executor busy, retry after " + retryAfterSeconds + "s")));
+            return false;
+        }
+        request.setAttribute(ADMITTED, pool);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object pool = request.getAttribute(ADMITTED);
+        if (pool != null) {
+            request.removeAttribute(ADMITTED);
+            release((String) pool);
+        }
+    }
+
+    /**
+     * Returns job executor metrics.
+     *
+     * @return job executor pool metrics, requests being handled by pool and rejected requests
+     */
+    public synchronized Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("job_executor_pools", jobExecutor.getMetrics());
+        metrics.put("admitted_requests", new LinkedHashMap<>(admittedRequests));
+        metrics.put("rejected_requests", rejectedRequests);
+        return metrics;
+    }
+
+    private String getPool(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String[] requestPool : REQUEST_POOLS) {
+            if (requestPool[0].equals(request.getMethod()) && pathMatcher.match(requestPool[1], path)) {
+                return requestPool[2];
+            }
+        }
+        return ProcessflowJobExecutor.DEFAULT_POOL;
+    }
+
+    private boolean tryAdmit(String pool) {
+        // Pending jobs may be read from database, not while holding the lock
+        int pendingJobs = jobExecutor.getPendingJobs(pool);
+        synchronized (this) {
+            int admitted = admittedRequests.getOrDefault(pool, 0);
+            if (jobExecutor.getBacklog(pool) + pendingJobs + admitted >= jobExecutor.getCapacity(pool)) {
+                rejectedRequests++;
+                return false;
+            }
+            admittedRequests.put(pool, admitted + 1);
+            return true;
+        }
+    }
+
+    private synchronized void release(String pool) {
+        admittedRequests.merge(pool, -1, Integer::sum);
+    }
+}
@@ -19,22 +19,29 @@ package org.edgegallery.mecm.appo.bpmn.tasks;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Enumeration;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
-import org.apache.commons.io.FileUtils;
+import java.util.zip.ZipInputStream;
+import org.apache.http.conn.ConnectionReleaseTrigger;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.edgegallery.mecm.appo.exception.AppoException;
+import org.edgegallery.mecm.appo.service.ApplicationPackageStore;
+import org.edgegallery.mecm.appo.service.RequestDeadline;
 import org.edgegallery.mecm.appo.utils.Constants;
 import org.edgegallery.mecm.appo.utils.UrlUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
@@ -47,6 +54,7 @@ public class Apm extends ProcessflowAbstractTask {
 
     static final int TOO_MANY = 1024;
     static final int TOO_BIG = 104857600;
+    private static final int BUFFER_SIZE = 8192;
     private static final Logger LOGGER = LoggerFactory.getLogger(Apm.class);
     private static final String FAILED_TO_CREATE_DIR = "failed to create local directory";
     private static final String FAILED_TO_GET_PATH = "failed to get local directory path";
@@ -56,17 +64,21 @@ public class Apm extends ProcessflowAbstractTask {
     private final String baseUrl;
     private final String appPkgBasePath;
     private final RestTemplate restTemplate;
+    private final ApplicationPackageStore packageStore;
     private String protocol = HTTPS_PROTO;
 
     /**
      * Constructor for APM.
      *
      * @param delegateExecution  delegate execution
+     * @param isSslEnabled       whether apm is reached over https
+     * @param appPkgsBasePath    application packages base path
      * @param servicePort        apm end point
      * @param restClientTemplate rest client template
+     * @param packageStore       application package store
      */
     public Apm(DelegateExecution delegateExecution, boolean isSslEnabled, String appPkgsBasePath, String servicePort,
-               RestTemplate restClientTemplate) {
+               RestTemplate restClientTemplate, ApplicationPackageStore packageStore) {
         execution = delegateExecution;
         if (!isSslEnabled) {
             protocol = "http://";
@@ -74,9 +86,32 @@ public class Apm extends ProcessflowAbstractTask {
         restTemplate = restClientTemplate;
         baseUrl = servicePort;
         appPkgBasePath = appPkgsBasePath;
+        this.packageStore = packageStore;
         this.operation = (String) delegateExecution.getVariable("operationType");
     }
 
+    /**
+     * Constructor for APM outside of a process flow, used to prefetch application packages.
+     *
+     * @param isSslEnabled       whether apm is reached over https
+     * @param appPkgsBasePath    application packages base path
+     * @param servicePort        apm end point
+     * @param restClientTemplate rest client template
+     * @param packageStore       application package store
+     */
+    Apm(boolean isSslEnabled, String appPkgsBasePath, String servicePort, RestTemplate restClientTemplate,
+        ApplicationPackageStore packageStore) {
+        execution = null;
+        operation = null;
+        if (!isSslEnabled) {
+            protocol = "http://";
+        }
+        restTemplate = restClientTemplate;
+        baseUrl = servicePort;
+        appPkgBasePath = appPkgsBasePath;
+        this.packageStore = packageStore;
+    }
+
     /**
      * Creates directory to save config file.
      *
@@ -117,15 +152,12 @@ public class Apm extends ProcessflowAbstractTask {
         try {
             String tenantId = (String) delegateExecution.getVariable(Constants.TENANT_ID);
             String appPkgId = (String) delegateExecution.getVariable(Constants.APP_PACKAGE_ID);
-
-            UrlUtil urlUtil = new UrlUtil();
-            urlUtil.addParams(Constants.TENANT_ID, tenantId);
-            urlUtil.addParams(Constants.APP_PACKAGE_ID, appPkgId);
-            String downloadUrl = protocol + baseUrl + urlUtil.getUrl(Constants.APM_DOWNLOAD_URI);
+            String downloadUrl = getDownloadUrl(tenantId, appPkgId);
 
             String appInstanceId = (String) delegateExecution.getVariable(Constants.APP_INSTANCE_ID);
 
-            downloadPackage(downloadUrl, appPkgId, appInstanceId);
+            String digest = downloadPackage(tenantId, downloadUrl, appPkgId, appInstanceId);
+            delegateExecution.setVariable(Constants.APP_PACKAGE_DIGEST, digest);
 
             setProcessflowResponseAttributes(delegateExecution, Constants.SUCCESS, Constants.PROCESS_FLOW_SUCCESS);
 
@@ -134,32 +166,69 @@ public class Apm extends ProcessflowAbstractTask {
         }
     }
 
-    void downloadPackage(String url, String appPackageId, String appInstanceId) {
+    private String getDownloadUrl(String tenantId, String appPkgId) {
+        UrlUtil urlUtil = new UrlUtil();
+        urlUtil.addParams(Constants.TENANT_ID, tenantId);
+        urlUtil.addParams(Constants.APP_PACKAGE_ID, appPkgId);
+        return protocol + baseUrl + urlUtil.getUrl(Constants.APM_DOWNLOAD_URI);
+    }
+
+    /**
+     * Downloads application package to the package store ahead of the download step of the process flow.
+     *
+     * @param tenantId     tenant ID
+     * @param appPackageId application package ID
+     * @param accessToken  access token
+     * @param deadline     deadline of the process flow in epoch milliseconds
+     * @throws AppoException if package could not be downloaded
+     */
+    void prefetchPackage(String tenantId, String appPackageId, String accessToken, Long deadline) {
+        String url = getDownloadUrl(tenantId, appPackageId);
+        packageStore.prefetch(tenantId, appPackageId,
+            target -> requestPackage(url, appPackageId, target, accessToken, deadline));
+    }
+
+    /**
+     * Downloads application package of an application instance, package already stored or being downloaded for
+     * another instance of the tenant is shared.
+     *
+     * @param tenantId      tenant ID
+     * @param url           download url
+     * @param appPackageId  application package ID
+     * @param appInstanceId application instance ID
+     * @return SHA-256 digest of the package
+     */
+    String downloadPackage(String tenantId, String url, String appPackageId, String appInstanceId) {
         LOGGER.info("Download application package {}", appPackageId);
 
-        String accessToken = (String) execution.getVariable(Constants.ACCESS_TOKEN);
+        String localDirPath = createDir(appPkgBasePath + appInstanceId);
+        Path appPackage = Paths.get(localDirPath, appPackageId + Constants.APP_PKG_EXT);
+        String accessToken = ProcessflowVariables.getAccessToken(execution);
+        Long deadline = ProcessflowVariables.getDeadline(execution);
+        return packageStore.acquire(tenantId, appPackageId, appInstanceId, appPackage, deadline,
+            target -> requestPackage(url, appPackageId, target, accessToken, deadline));
+    }
 
-        ResponseEntity<Resource> response;
-        Resource responseBody;
+    private String requestPackage(String url, String appPackageId, Path appPackage, String accessToken,
+                                  Long deadline) {
+        if (deadline != null && deadline <= System.currentTimeMillis()) {
+            LOGGER.error("request deadline exceeded, application package {} not downloaded", appPackageId);
+            throw new AppoException("Request deadline exceeded before application package download");
+        }
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set(Constants.ACCESS_TOKEN, accessToken);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
             LOGGER.info("Download application package from APM: {}", url);
-            response = restTemplate.exchange(url, HttpMethod.GET, entity, Resource.class);
-
-            responseBody = response.getBody();
-            if (!HttpStatus.OK.equals(response.getStatusCode()) || responseBody == null) {
-                LOGGER.error(Constants.CSAR_DOWNLOAD_FAILED, appPackageId);
-                throw new AppoException("Application package download failed");
-            }
-            InputStream ipStream = responseBody.getInputStream();
-
-            String appPackage = copyApplicationPackage(appInstanceId, appPackageId, ipStream);
-
-            validateApplicationPackage(appPackage);
+            RequestDeadline.setDeadline(deadline);
+            // Response body is streamed to the package file instead of being read into a resource
+            return restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().set(Constants.ACCESS_TOKEN, accessToken),
+                response -> {
+                    if (!HttpStatus.OK.equals(response.getStatusCode())) {
+                        LOGGER.error(Constants.CSAR_DOWNLOAD_FAILED, appPackageId);
+                        throw new AppoException("Application package download failed");
+                    }
+                    return receiveApplicationPackage(appPackage, appPackageId, response.getBody());
+                });
 
         } catch (ResourceAccessException ex) {
             LOGGER.error(Constants.FAILED_TO_CONNECT_APM);
@@ -167,17 +236,31 @@ public class Apm extends ProcessflowAbstractTask {
         } catch (HttpServerErrorException | HttpClientErrorException ex) {
             LOGGER.error(Constants.APM_RETURN_FAILURE, ex.getResponseBodyAsString());
             throw new AppoException("Application package download failed: " + ex.getResponseBodyAsString());
+        } catch (PackageStorageException e) {
+            // Local failure, package itself may be valid
+            LOGGER.error("{}: {}", e.getMessage(), e.getCause().getMessage());
+            throw e;
         } catch (AppoException e) {
             LOGGER.error("Downloaded package is not valid");
             throw new AppoException("Downloaded package is not valid");
-        } catch (IOException e) {
-            LOGGER.error(Constants.GET_INPUTSTREAM_FAILED, appPackageId);
-            throw new AppoException("failed to get input stream from app store response for package " + appPackageId);
+        } finally {
+            RequestDeadline.clear();
         }
     }
 
-    private String copyApplicationPackage(String appInstanceId, String appPackageId,
-                                          InputStream resourceStream) {
+    /**
+     * Receives application package, package is validated while it is written. Package is written to a temporary
+     * file moved to the package path once received, a file left at the package path is replaced.
+     *
+     * @param appPackage     application package file to be created
+     * @param appPackageId   application package ID
+     * @param resourceStream response body
+     * @return SHA-256 digest of the package
+     * @throws IOException if response could not be read
+     * @throws PackageStorageException if package could not be written locally
+     */
+    private String receiveApplicationPackage(Path appPackage, String appPackageId,
+                                             InputStream resourceStream) throws IOException {
 
         LOGGER.info("Copy application package {}", appPackageId);
         if (resourceStream == null) {
@@ -185,18 +268,103 @@ public class Apm extends ProcessflowAbstractTask {
             throw new AppoException("Failed to read input stream from app store for package id" + appPackageId);
         }
 
-        String localDirPath = createDir(appPkgBasePath + appInstanceId);
-        String appPackagePath = localDirPath + Constants.SLASH + appPackageId + Constants.APP_PKG_EXT;
-        File appPackage = new File(appPackagePath);
+        Path tmpFile;
+        try {
+            tmpFile = Files.createTempFile(appPackage.toAbsolutePath().getParent(), appPackageId, ".tmp");
+        } catch (IOException e) {
+            throw new PackageStorageException(appPackageId, e);
+        }
+
+        boolean isReceived = false;
+        try {
+            String digest = writeApplicationPackage(tmpFile, appPackageId, resourceStream);
+            try {
+                Files.move(tmpFile, appPackage, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new PackageStorageException(appPackageId, e);
+            }
+            isReceived = true;
+            return digest;
+        } finally {
+            if (!isReceived) {
+                abort(resourceStream);
+                Files.deleteIfExists(tmpFile);
+            }
+        }
+    }
 
+    private String writeApplicationPackage(Path file, String appPackageId,
+                                           InputStream resourceStream) throws IOException {
+        FileChannel channel;
         try {
-            FileUtils.copyInputStreamToFile(resourceStream, appPackage);
-            LOGGER.info("app package {} downloaded from APM successfully", appPackageId);
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
         } catch (IOException e) {
-            LOGGER.info("Failed to copy application package {}", appPackageId);
-            throw new AppoException("Failed to copy application package " + appPackageId);
+            throw new PackageStorageException(appPackageId, e);
+        }
+        try (FileChannel packageChannel = channel) {
+            ApplicationPackageStream packageStream = new ApplicationPackageStream(resourceStream, packageChannel);
+            boolean isValidated = validatePackageStream(packageStream);
+            packageStream.drain();
+            if (!isValidated) {
+                validateApplicationPackage(file.toString());
+            }
+            String digest = packageStream.getDigest();
+            LOGGER.info("app package {} of {} bytes downloaded from APM successfully, sha256 {}", appPackageId,
+                    packageStream.getSize(), digest);
+            return digest;
+        } catch (UncheckedIOException e) {
+            throw new PackageStorageException(appPackageId, e.getCause());
+        }
+    }
+
+    /**
+     * Aborts package download, rest of the response is not read.
+     *
+     * @param resourceStream response body
+     */
+    private static void abort(InputStream resourceStream) throws IOException {
+        if (resourceStream instanceof ConnectionReleaseTrigger) {
+            ((ConnectionReleaseTrigger) resourceStream).abortConnection();
+        }
+    }
+
+    /**
+     * Validates application package as it is received, package download is aborted once a limit is exceeded.
+     *
+     * @param packageStream application package stream
+     * @return true if validated, false if package can not be read as a stream and must be validated once stored
+     * @throws IOException if response could not be read
+     */
+    private boolean validatePackageStream(InputStream packageStream) throws IOException {
+        // Not closed, closing would close the response body
+        ZipInputStream zipStream = new ZipInputStream(packageStream);
+        byte[] scratch = new byte[BUFFER_SIZE];
+        try {
+            int entriesCount = 0;
+            ZipEntry entry;
+            while ((entry = zipStream.getNextEntry()) != null) {
+                entriesCount++;
+                if (entriesCount > TOO_MANY || entry.getSize() > TOO_BIG) {
+                    LOGGER.info("Too many files to unzip or file size is too big");
+                    throw new AppoException("Package validation failed, Too many or too big files");
+                }
+                long entrySize = 0;
+                int count;
+                while ((count = zipStream.read(scratch)) != -1) {
+                    entrySize += count;
+                    if (entrySize > TOO_BIG) {
+                        LOGGER.info("Too many files to unzip or file size is too big");
+                        throw new AppoException("Package validation failed, Too many or too big files");
+                    }
+                }
+            }
+            // Not a zip stream, validated once stored
+            return entriesCount > 0;
+        } catch (ZipException | IllegalArgumentException e) {
+            LOGGER.info("Application package can not be validated as stream: {}", e.getMessage());
+            return false;
         }
-        return appPackagePath;
     }
 
     /**
@@ -222,4 +390,17 @@ public class Apm extends ProcessflowAbstractTask {
             throw new AppoException(FAILED_TO_UNZIP_CSAR);
         }
     }
+
+    /**
+     * Failure to write application package to local storage, not a failure of APM or of the package.
+     */
+    static final class PackageStorageException extends AppoException {
+
+        private static final long serialVersionUID = 4216573080216435174L;
+
+        PackageStorageException(String appPackageId, IOException cause) {
+            super("Failed to store application package " + appPackageId + " locally");
+            initCause(cause);
+        }
+    }
 }
@@ -18,6 +18,8 @@ package org.edgegallery.mecm.appo.bpmn.tasks;
 
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.edgegallery.mecm.appo.service.ApplicationPackageStore;
+import org.edgegallery.mecm.appo.utils.TokenCipher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -26,6 +28,9 @@ import org.springframework.web.client.RestTemplate;
 @Component
 public class ApmAdapter implements JavaDelegate {
 
+    @Autowired
+    private TokenCipher tokenCipher;
+
     @Value("${appo.endpoints.apm.end-point}")
     private String apmService;
 
@@ -41,12 +46,16 @@ public class ApmAdapter implements JavaDelegate {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private ApplicationPackageStore packageStore;
+
     @Override
     public void execute(DelegateExecution delegateExecution) {
 
+        ProcessflowVariables.unsealAccessToken(delegateExecution, tokenCipher);
         String servicePort = apmService + ":" + apmServicePort;
         Apm apm = new Apm(delegateExecution, Boolean.parseBoolean(isSslEnabled), appPkgsBasePath, servicePort,
-                restTemplate);
+                restTemplate, packageStore);
         apm.execute();
     }
 }
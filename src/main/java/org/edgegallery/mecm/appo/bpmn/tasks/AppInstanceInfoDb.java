@@ -305,7 +305,7 @@ public class AppInstanceInfoDb extends ProcessflowAbstractTask {
             LOGGER.info("Get application rule task {} ", appRuleTaskId);
 
             appRuleTaskInfo = appInstanceInfoService.getAppRuleTaskInfo(tenantId, appRuleTaskId);
-            delegateExecution.setVariable(Constants.APP_RULES, appRuleTaskInfo.getAppRules());
+            ProcessflowVariables.setVariable(delegateExecution, Constants.APP_RULES, appRuleTaskInfo.getAppRules());
 
             delegateExecution.setVariable(Constants.APP_RULE_CFG_STATUS, appRuleTaskInfo.getConfigResult());
 
@@ -0,0 +1,145 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.bpmn.tasks;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.edgegallery.mecm.appo.exception.AppoException;
+
+/**
+ * Application package download stream. Bytes read from the response are written to the package file as they are
+ * read and added to the SHA-256 digest as they pass, so the package is received in a single pass.
+ */
+final class ApplicationPackageStream extends FilterInputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+
+    private final MessageDigest digest;
+
+    private final byte[] skipBuffer = new byte[BUFFER_SIZE];
+
+    private long size;
+
+    /**
+     * Creates an application package stream.
+     *
+     * @param in      response body
+     * @param channel package file channel
+     */
+    ApplicationPackageStream(InputStream in, FileChannel channel) {
+        super(in);
+        this.channel = channel;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AppoException("SHA-256 not supported");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        int count = in.read(bytes, off, len);
+        if (count > 0) {
+            digest.update(bytes, off, count);
+            write(bytes, off, count);
+            size += count;
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        // Skipped bytes are part of the package as well
+        int read = read(skipBuffer, 0, (int) Math.min(count, skipBuffer.length));
+        return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+        // Mark is not supported
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Reads rest of the response.
+     *
+     * @throws IOException on read failure
+     */
+    void drain() throws IOException {
+        while (read(skipBuffer, 0, skipBuffer.length) != -1) {
+            // Remaining bytes are written to the package file
+        }
+    }
+
+    /**
+     * Returns number of bytes received.
+     *
+     * @return package size
+     */
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns SHA-256 digest of the bytes received, in hex. Completes the digest, called once the response is
+     * fully read.
+     *
+     * @return package digest
+     */
+    String getDigest() {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private void write(byte[] bytes, int off, int len) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, off, len);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            // Distinguishes local file failures from response read failures
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *    Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.bpmn.tasks;
+
+import com.google.gson.Gson;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.edgegallery.mecm.appo.apihandler.dto.BatchInstancesParam;
+import org.edgegallery.mecm.appo.apihandler.dto.BatchInstancesReqParam;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sets per instance parameters of a batch multi instance call activity.
+ * Parameters are set local to the instance execution so that parallel instances do not overwrite each other.
+ */
+public class BatchInstanceParameters implements ExecutionListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchInstanceParameters.class);
+
+    @Override
+    public void notify(DelegateExecution delegateExecution) {
+        Integer windowStart = (Integer) delegateExecution.getVariable(Constants.BATCH_WINDOW_START);
+        Integer loopCounter = (Integer) delegateExecution.getVariable(Constants.LOOP_COUNTER);
+        int index = windowStart + loopCounter;
+
+        String batchInstantiateParams = (String) delegateExecution.getVariable(Constants.BATCH_INSTANTIATION_PARAMS);
+        if (batchInstantiateParams != null) {
+            BatchInstancesParam instancesParam = new Gson().fromJson(batchInstantiateParams,
+                    BatchInstancesReqParam.class).getInstantiationParameters().get(index);
+            delegateExecution.setVariableLocal(Constants.APP_INSTANCE_ID, instancesParam.getAppInstanceId());
+            delegateExecution.setVariableLocal(Constants.INSTANTIATION_PARAMS,
+                    new Gson().toJson(instancesParam.getParameters()));
+            LOGGER.info("app_instance_id: {}", instancesParam.getAppInstanceId());
+            return;
+        }
+
+        String appInstanceIds = (String) delegateExecution.getVariable(Constants.APP_INSTANCE_IDS);
+        String appInstanceId = appInstanceIds.split(",", -1)[index];
+        delegateExecution.setVariableLocal(Constants.APP_INSTANCE_ID, appInstanceId);
+
+        String mecHosts = (String) delegateExecution.getVariable(Constants.MEC_HOSTS);
+        if (mecHosts != null) {
+            delegateExecution.setVariableLocal(Constants.MEC_HOST, mecHosts.split(",", -1)[index]);
+        }
+        LOGGER.info("app_instance_id: {}, mec_host: {}", appInstanceId, delegateExecution.getVariableLocal(
+                Constants.MEC_HOST));
+    }
+}
@@ -26,11 +26,17 @@ import org.edgegallery.mecm.appo.apihandler.dto.BatchInstancesReqParam;
 import org.edgegallery.mecm.appo.utils.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
+@Component
 public class BatchProcessParameters implements JavaDelegate {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BatchProcessParameters.class);
 
+    @Value("${appo.batch.max-concurrency:5}")
+    private int maxConcurrency;
+
     @Override
     public void execute(DelegateExecution delegateExecution) {
         String action = (String) delegateExecution.getVariable("requestAction");
@@ -64,22 +70,8 @@ public class BatchProcessParameters implements JavaDelegate {
         String mecHosts = (String) delegateExecution.getVariable(Constants.MEC_HOSTS);
         List<String> hosts = Arrays.asList(mecHosts.split(",", -1));
 
-        String appInstIds = (String) delegateExecution.getVariable(Constants.APP_INSTANCE_IDS);
-        List<String> appInstanceIds = Arrays.asList(appInstIds.split(",", -1));
-
-        Integer cnt = (Integer) delegateExecution.getVariable(Constants.APP_REQ_CNT);
-        if (delegateExecution.getVariable(Constants.APP_REQ_CNT) == null) {
-            cnt = hosts.size();
-            delegateExecution.setVariable(Constants.APP_REQ_CNT, cnt);
-        }
-
-        if (cnt > 0) {
-            delegateExecution.setVariable(Constants.MEC_HOST, hosts.get(cnt - 1));
-            delegateExecution.setVariable(Constants.APP_INSTANCE_ID, appInstanceIds.get(cnt - 1));
-
-            LOGGER.info("tenant_id: {}, mec_host: {}, app_instance_id: {}", tenantId, hosts.get(cnt - 1),
-                    appInstanceIds.get(cnt - 1));
-        }
+        setBatchWindow(delegateExecution, hosts.size());
+        LOGGER.info("tenant_id: {}, mec_hosts: {}", tenantId, mecHosts);
     }
 
     /**
@@ -94,22 +86,8 @@ public class BatchProcessParameters implements JavaDelegate {
         BatchInstancesReqParam batchInstancesReqParam = new Gson().fromJson(batchInstantiateParams,
                 BatchInstancesReqParam.class);
 
-        Integer cnt = (Integer) delegateExecution.getVariable(Constants.APP_REQ_CNT);
-        if (delegateExecution.getVariable(Constants.APP_REQ_CNT) == null) {
-            cnt = batchInstancesReqParam.getInstantiationParameters().size();
-            delegateExecution.setVariable(Constants.APP_REQ_CNT, cnt);
-        }
-
-        if (cnt > 0) {
-            String appInstanceId = batchInstancesReqParam.getInstantiationParameters().get(cnt - 1).getAppInstanceId();
-            delegateExecution.setVariable(Constants.APP_INSTANCE_ID, appInstanceId);
-
-            String parameters = new Gson().toJson(batchInstancesReqParam
-                    .getInstantiationParameters().get(cnt - 1).getParameters());
-            delegateExecution.setVariable(Constants.INSTANTIATION_PARAMS, parameters);
-
-            LOGGER.info("tenant_id: {}, app_instance_id: {}", tenantId, appInstanceId);
-        }
+        setBatchWindow(delegateExecution, batchInstancesReqParam.getInstantiationParameters().size());
+        LOGGER.info("tenant_id: {}", tenantId);
     }
 
     /**
@@ -123,17 +101,28 @@ public class BatchProcessParameters implements JavaDelegate {
         String appInstIds = (String) delegateExecution.getVariable(Constants.APP_INSTANCE_IDS);
         List<String> appInstanceIds = Arrays.asList(appInstIds.split(",", -1));
 
+        setBatchWindow(delegateExecution, appInstanceIds.size());
+        LOGGER.info("tenant_id: {}, app_instance_ids: {}", tenantId, appInstIds);
+    }
+
+    /**
+     * Sets the window of requests to be executed in parallel by the next multi instance call activity.
+     * Requests are taken from the end of the list, at most max-concurrency at a time.
+     *
+     * @param delegateExecution delegate execution
+     * @param total             total number of requests in batch
+     */
+    void setBatchWindow(DelegateExecution delegateExecution, int total) {
         Integer cnt = (Integer) delegateExecution.getVariable(Constants.APP_REQ_CNT);
-        if (delegateExecution.getVariable(Constants.APP_REQ_CNT) == null) {
-            cnt = appInstanceIds.size();
+        if (cnt == null) {
+            cnt = total;
             delegateExecution.setVariable(Constants.APP_REQ_CNT, cnt);
         }
 
-        if (cnt > 0) {
-            delegateExecution.setVariable(Constants.APP_INSTANCE_ID, appInstanceIds.get(cnt - 1));
-
-            LOGGER.info("tenant_id: {}, app_instance_id: {}", tenantId, appInstanceIds.get(cnt - 1));
-        }
+        int windowSize = Math.min(cnt, Math.max(1, maxConcurrency));
+        delegateExecution.setVariable(Constants.BATCH_WINDOW_START, cnt - windowSize);
+        delegateExecution.setVariable(Constants.BATCH_WINDOW_SIZE, windowSize);
+        LOGGER.info("app_req_cnt: {}, batch_window_size: {}", cnt, windowSize);
     }
 
     /**
@@ -143,8 +132,9 @@ public class BatchProcessParameters implements JavaDelegate {
      */
     void setAppRequestCount(DelegateExecution delegateExecution) {
         Integer appReqCount = (Integer) delegateExecution.getVariable(Constants.APP_REQ_CNT);
+        Integer windowSize = (Integer) delegateExecution.getVariable(Constants.BATCH_WINDOW_SIZE);
         if (appReqCount > 0) {
-            appReqCount = appReqCount - 1;
+            appReqCount = Math.max(0, appReqCount - (windowSize == null ? 1 : windowSize));
             delegateExecution.setVariable(Constants.APP_REQ_CNT, appReqCount);
         }
         LOGGER.info("app_req_cnt: {}", appReqCount);
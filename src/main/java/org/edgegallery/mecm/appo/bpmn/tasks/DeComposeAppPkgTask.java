@@ -17,21 +17,11 @@
 
 package org.edgegallery.mecm.appo.bpmn.tasks;
 
-import static org.edgegallery.mecm.appo.bpmn.tasks.Apm.FAILED_TO_LOAD_YAML;
-import static org.edgegallery.mecm.appo.utils.AppoServiceHelper.isFileWithSuffixExist;
-
 import com.google.gson.Gson;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.FilenameUtils;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.edgegallery.mecm.appo.exception.AppoException;
 import org.edgegallery.mecm.appo.model.AppInstanceDependency;
@@ -39,14 +29,12 @@ import org.edgegallery.mecm.appo.model.AppInstanceInfo;
 import org.edgegallery.mecm.appo.model.AppRule;
 import org.edgegallery.mecm.appo.model.AppServiceRequired;
 import org.edgegallery.mecm.appo.service.AppInstanceInfoService;
-import org.edgegallery.mecm.appo.utils.AppoServiceHelper;
+import org.edgegallery.mecm.appo.utils.ApplicationDescriptorCache;
+import org.edgegallery.mecm.appo.utils.ApplicationPackageReader;
 import org.edgegallery.mecm.appo.utils.Constants;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.constructor.SafeConstructor;
-import org.yaml.snakeyaml.error.YAMLException;
 
 /**
  * Check before deploymentappIs there a corresponding instance of the package dependency.
@@ -65,6 +53,7 @@ public class DeComposeAppPkgTask extends ProcessflowAbstractTask {
     private final DelegateExecution execution;
     private final String appPkgBasePath;
     private final AppInstanceInfoService appInstanceInfoService;
+    private final ApplicationDescriptorCache descriptorCache;
 
     /**
      * Constructor.
@@ -72,28 +61,15 @@ public class DeComposeAppPkgTask extends ProcessflowAbstractTask {
      * @param delegateExecution      Execution object
      * @param appPkgBasePath         Package path
      * @param appInstanceInfoService Application case information
+     * @param descriptorCache        Application descriptor cache
      */
     public DeComposeAppPkgTask(DelegateExecution delegateExecution, String appPkgBasePath,
-                               AppInstanceInfoService appInstanceInfoService) {
+                               AppInstanceInfoService appInstanceInfoService,
+                               ApplicationDescriptorCache descriptorCache) {
         this.execution = delegateExecution;
         this.appPkgBasePath = appPkgBasePath;
         this.appInstanceInfoService = appInstanceInfoService;
-    }
-
-    private String getEntryDefinitionFromMetadata(String appPkgDir, String metaFile) {
-        List<File> files = (List<File>) FileUtils.listFiles(new File(appPkgDir), null, true);
-        for (File file: files) {
-            if (isFileWithSuffixExist(file.getName(), metaFile)) {
-                try (InputStream inputStream = new FileInputStream(file)) {
-                    Yaml yaml = new Yaml(new SafeConstructor());
-                    Map<String, Object> metaData = yaml.load(inputStream);
-                    return metaData.get("Entry-Definitions").toString();
-                } catch (IOException e) {
-                    throw new AppoException("failed to read metadata from app package");
-                }
-            }
-        }
-        throw new AppoException("failed, main service yaml not available in app package");
+        this.descriptorCache = descriptorCache;
     }
 
     /**
@@ -114,44 +90,19 @@ public class DeComposeAppPkgTask extends ProcessflowAbstractTask {
         final String appPackagePath = appPkgBasePath + appInstanceId + Constants.SLASH + appPackageId
                 + Constants.APP_PKG_EXT;
 
-        String appPkgDir = FilenameUtils.removeExtension(appPackagePath);
-        try {
-            AppoServiceHelper.unzipApplicationPacakge(appPackagePath, appPkgDir);
-
-            String mainSvcTemplateZip = appPkgDir + "/" + getEntryDefinitionFromMetadata(appPkgDir, "TOSCA.meta");
+        final String digest = (String) execution.getVariable(Constants.APP_PACKAGE_DIGEST);
 
-            String mainSvcTemplateDir = FilenameUtils.removeExtension(mainSvcTemplateZip);
-            AppoServiceHelper.unzipApplicationPacakge(mainSvcTemplateZip, mainSvcTemplateDir);
-
-            String mainSvcTemplateYaml = mainSvcTemplateDir + "/" + getEntryDefinitionFromMetadata(mainSvcTemplateDir,
-                    "TOSCA_VNFD.meta");
-
-            Map<String, Object> mainTemplateMap = loadMainServiceTemplateYaml(mainSvcTemplateYaml);
-            updateApplicationDescriptor(mainTemplateMap);
+        try {
+            // Package is read in place, nothing is extracted to disk
+            AppRule appRule = descriptorCache.get(appPackageId, digest,
+                () -> getAppRule(ApplicationPackageReader.readMainServiceTemplate(appPackagePath)));
+            applyAppRule(appRule);
 
             setProcessflowResponseAttributes(execution, Constants.SUCCESS, Constants.PROCESS_FLOW_SUCCESS);
-
-            FileUtils.deleteDirectory(new File(appPkgDir));
         } catch (AppoException ex) {
             LOGGER.error(ex.getMessage());
             setProcessflowExceptionResponseAttributes(execution, ex.getMessage(), Constants.PROCESS_FLOW_ERROR);
-        } catch (IOException ex) {
-            LOGGER.error("failed to delete package directory");
-        }
-    }
-
-    private Map<String, Object> loadMainServiceTemplateYaml(String yamlFile) {
-        Map<String, Object> mainTemplateMap;
-        Yaml yaml = new Yaml(new SafeConstructor());
-        try (InputStream inputStream = new FileInputStream(new File(yamlFile))) {
-            mainTemplateMap = yaml.load(inputStream);
-        } catch (YAMLException | FileNotFoundException e) {
-            LOGGER.error(FAILED_TO_LOAD_YAML);
-            throw new AppoException(FAILED_TO_LOAD_YAML);
-        } catch (IOException e) {
-            throw new AppoException(FAILED_TO_LOAD_YAML);
         }
-        return mainTemplateMap;
     }
 
     /**
@@ -160,30 +111,46 @@ public class DeComposeAppPkgTask extends ProcessflowAbstractTask {
      * @param mainTemplateMap main template map
      */
     public void updateApplicationDescriptor(Map<String, Object> mainTemplateMap) {
+        applyAppRule(getAppRule(mainTemplateMap));
+    }
+
+    /**
+     * Returns application rule of the main service template.
+     *
+     * @param mainTemplateMap main template map
+     * @return application rule, null if main service template has no application configuration
+     */
+    private static AppRule getAppRule(Map<String, Object> mainTemplateMap) {
         Map<String, Object> topology = (Map<String, Object>) mainTemplateMap.get(YAML_KEY_TOPOLOGY);
         if (topology == null) {
             LOGGER.error("topology template null in main service template yaml");
-            return;
+            return null;
         }
 
         Map<String, Object> nodes = (Map<String, Object>) topology.get(YAML_KEY_NODES);
         if (nodes == null) {
             LOGGER.error("nodes null in main service template yaml");
-            return;
+            return null;
         }
         Map<String, Object> appConfigs = (Map<String, Object>) nodes.get(YAML_KEY_APP_CONFIG);
         if (appConfigs == null) {
             LOGGER.error("appConfigs null in main service template yaml");
-            return;
+            return null;
         }
         Map<String, Object> properties = (Map<String, Object>) appConfigs.get(YAML_KEY_PROPERTIES);
         if (properties == null) {
             LOGGER.error("properties null in main service template yaml");
-            return;
+            return null;
         }
 
         ModelMapper mapper = new ModelMapper();
-        AppRule appRule = mapper.map(properties, AppRule.class);
+        return mapper.map(properties, AppRule.class);
+    }
+
+    private void applyAppRule(AppRule appRule) {
+        if (appRule == null) {
+            return;
+        }
 
         checkMainTemplate(appRule);
 
@@ -197,7 +164,7 @@ public class DeComposeAppPkgTask extends ProcessflowAbstractTask {
 
         Gson gson = new Gson();
         String appRulejson = gson.toJson(appRule);
-        execution.setVariable(Constants.APP_RULES, appRulejson);
+        ProcessflowVariables.setVariable(execution, Constants.APP_RULES, appRulejson);
 
         LOGGER.info("Set app rules : {}", appRulejson);
     }
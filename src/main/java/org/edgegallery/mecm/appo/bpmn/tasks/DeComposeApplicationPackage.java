@@ -16,6 +16,7 @@ package org.edgegallery.mecm.appo.bpmn.tasks;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.edgegallery.mecm.appo.service.AppInstanceInfoService;
+import org.edgegallery.mecm.appo.utils.ApplicationDescriptorCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -26,13 +27,16 @@ public class DeComposeApplicationPackage implements JavaDelegate {
     @Autowired
     private AppInstanceInfoService appInstanceInfoService;
 
+    @Autowired
+    private ApplicationDescriptorCache descriptorCache;
+
     @Value("${appo.appPackages.path}")
     private String appPkgBasesPath;
 
     @Override
     public void execute(DelegateExecution delegateExecution) throws Exception {
         DeComposeAppPkgTask deComposeAppPkgTask = new DeComposeAppPkgTask(delegateExecution, appPkgBasesPath,
-                appInstanceInfoService);
+                appInstanceInfoService, descriptorCache);
         deComposeAppPkgTask.execute();
 
     }
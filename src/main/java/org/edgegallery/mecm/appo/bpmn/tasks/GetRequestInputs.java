@@ -18,14 +18,20 @@ package org.edgegallery.mecm.appo.bpmn.tasks;
 
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.edgegallery.mecm.appo.utils.TokenCipher;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class GetRequestInputs implements JavaDelegate {
 
+    @Autowired
+    private TokenCipher tokenCipher;
+
     @Override
     public void execute(DelegateExecution delegateExecution) {
 
+        ProcessflowVariables.unsealAccessToken(delegateExecution, tokenCipher);
         InputParameters inputParameters = new InputParameters(delegateExecution);
         inputParameters.setInputParameters();
 
@@ -16,18 +16,18 @@
 
 package org.edgegallery.mecm.appo.bpmn.tasks;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.edgegallery.mecm.appo.exception.AppoException;
 import org.edgegallery.mecm.appo.model.AppInstanceInfo;
+import org.edgegallery.mecm.appo.service.InventorySnapshot;
+import org.edgegallery.mecm.appo.service.InventorySnapshot.MecHost;
 import org.edgegallery.mecm.appo.utils.Constants;
+import org.edgegallery.mecm.appo.utils.JsonResponseReader;
 import org.edgegallery.mecm.appo.utils.UrlUtil;
 import org.jose4j.json.internal.json_simple.JSONObject;
 import org.slf4j.Logger;
@@ -44,6 +44,7 @@ public class Inventory extends ProcessflowAbstractTask {
     private final String table;
     RestTemplate restTemplate;
     private final String baseUrl;
+    private final InventorySnapshot inventorySnapshot;
     private String protocol = HTTPS_PROTO;
 
     /**
@@ -51,15 +52,17 @@ public class Inventory extends ProcessflowAbstractTask {
      *
      * @param delegateExecution delegate execution
      * @param servicePort       inventory end point
+     * @param inventorySnapshot inventory snapshot
      */
     public Inventory(DelegateExecution delegateExecution, boolean isSslEnabled, String servicePort,
-                     RestTemplate restClientTemplate) {
+                     RestTemplate restClientTemplate, InventorySnapshot inventorySnapshot) {
         execution = delegateExecution;
         if (!isSslEnabled) {
             protocol = "http://";
         }
         restTemplate = restClientTemplate;
         baseUrl = servicePort;
+        this.inventorySnapshot = inventorySnapshot;
         table = (String) execution.getVariable("inventory");
     }
 
@@ -98,6 +101,14 @@ public class Inventory extends ProcessflowAbstractTask {
         String tenantId = (String) execution.getVariable(Constants.TENANT_ID);
         String mepmIp = (String) execution.getVariable(Constants.MEPM_IP);
 
+        String mepmPort = inventorySnapshot.getMepmPort(tenantId, mepmIp,
+                ProcessflowVariables.getAccessToken(execution));
+        if (mepmPort != null) {
+            execution.setVariable(Constants.MEPM_PORT, mepmPort);
+            setProcessflowResponseAttributes(execution, Constants.SUCCESS, Constants.PROCESS_FLOW_SUCCESS);
+            return;
+        }
+
         UrlUtil urlUtil = new UrlUtil();
         urlUtil.addParams(Constants.TENANT_ID, tenantId);
         urlUtil.addParams(Constants.MEPM_IP, mepmIp);
@@ -109,15 +120,15 @@ public class Inventory extends ProcessflowAbstractTask {
                 return;
             }
 
-            JsonObject jsonObject = new JsonParser().parse(response).getAsJsonObject();
-            JsonElement mepmPort = jsonObject.get("mepmPort");
+            mepmPort = JsonResponseReader.readField(response, "mepmPort");
             if (mepmPort == null) {
                 setProcessflowErrorResponseAttributes(execution,
                         "MEPM port not found", Constants.PROCESS_FLOW_ERROR);
                 LOGGER.info("MEPM port not found... in response");
                 return;
             }
-            execution.setVariable(Constants.MEPM_PORT, mepmPort.getAsString());
+            inventorySnapshot.putMepmPort(tenantId, mepmIp, mepmPort);
+            execution.setVariable(Constants.MEPM_PORT, mepmPort);
             setProcessflowResponseAttributes(execution, Constants.SUCCESS, Constants.PROCESS_FLOW_SUCCESS);
 
         } catch (AppoException | IllegalArgumentException e) {
@@ -143,37 +154,32 @@ public class Inventory extends ProcessflowAbstractTask {
                 mecHost = instanceinfo.getMecHost();
             }
 
-            UrlUtil urlUtil = new UrlUtil();
-            urlUtil.addParams(Constants.TENANT_ID, tenant);
-            urlUtil.addParams(Constants.MEC_HOST, mecHost);
-
-            String mecUrl = protocol + baseUrl + urlUtil.getUrl(Constants.INVENTORY_MEC_HOST_URI);
-            String response = sendRequest(execution, restTemplate, mecUrl, HttpMethod.GET);
-            if (response == null) {
-                return;
+            MecHost host = inventorySnapshot.getMecHost(tenant, mecHost,
+                    ProcessflowVariables.getAccessToken(execution));
+            if (host == null) {
+                UrlUtil urlUtil = new UrlUtil();
+                urlUtil.addParams(Constants.TENANT_ID, tenant);
+                urlUtil.addParams(Constants.MEC_HOST, mecHost);
+
+                String mecUrl = protocol + baseUrl + urlUtil.getUrl(Constants.INVENTORY_MEC_HOST_URI);
+                String response = sendRequest(execution, restTemplate, mecUrl, HttpMethod.GET);
+                if (response == null) {
+                    return;
+                }
+                host = InventorySnapshot.readMecHost(response);
+                inventorySnapshot.putMecHost(tenant, host);
             }
-            
-            JsonObject jsonObject = new JsonParser().parse(response).getAsJsonObject();
-            JsonElement mepmIp = jsonObject.get("mepmIp");
-            if (mepmIp == null) {
+
+            if (host.getMepmIp() == null) {
                 setProcessflowErrorResponseAttributes(execution,
                         "MEPM IP not configured in host", Constants.PROCESS_FLOW_ERROR);
                 LOGGER.info("MEPM IP not configured in host");
                 return;
             }
-            execution.setVariable(Constants.MEPM_IP, mepmIp.getAsString());
-
-            JsonArray hwCapabilities = jsonObject.getAsJsonArray("hwcapabilities");
-            List<String> hwTypeList = new LinkedList<>();
-            if (hwCapabilities != null) {
-                for (int i = 0; i < hwCapabilities.size(); i++) {
-                    JsonObject hostCapability = (JsonObject) hwCapabilities.get(i);
-                    JsonElement hwType = hostCapability.get("hwType");
-                    hwTypeList.add(hwType.getAsString());
-                }
-                String capabilities = hwTypeList.stream().map(Object::toString)
-                        .collect(Collectors.joining(","));
-                execution.setVariable("hw_capabilities_list", capabilities);
+            execution.setVariable(Constants.MEPM_IP, host.getMepmIp());
+
+            if (host.getHwTypes() != null) {
+                execution.setVariable("hw_capabilities_list", String.join(",", host.getHwTypes()));
             }
             setProcessflowResponseAttributes(execution, Constants.SUCCESS, Constants.PROCESS_FLOW_SUCCESS);
 
@@ -489,7 +495,7 @@ public class Inventory extends ProcessflowAbstractTask {
             LOGGER.info("Get app rule from Inventory");
             String responseStr = sendRequest(execution, restTemplate, appRuleUrl, HttpMethod.GET);
             if (responseStr != null) {
-                execution.setVariable(Constants.INVENTORY_APP_RULES, responseStr);
+                ProcessflowVariables.setVariable(execution, Constants.INVENTORY_APP_RULES, responseStr);
             }
             return responseStr;
         } catch (AppoException | IllegalArgumentException e) {
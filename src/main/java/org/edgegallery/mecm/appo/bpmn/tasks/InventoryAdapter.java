@@ -18,6 +18,8 @@ package org.edgegallery.mecm.appo.bpmn.tasks;
 
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.edgegallery.mecm.appo.service.InventorySnapshot;
+import org.edgegallery.mecm.appo.utils.TokenCipher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -26,6 +28,9 @@ import org.springframework.web.client.RestTemplate;
 @Component
 public class InventoryAdapter implements JavaDelegate {
 
+    @Autowired
+    private TokenCipher tokenCipher;
+
     @Value("${appo.endpoints.inventory.end-point}")
     private String inventoryService;
 
@@ -38,13 +43,17 @@ public class InventoryAdapter implements JavaDelegate {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private InventorySnapshot inventorySnapshot;
+
     @Override
     public void execute(DelegateExecution delegateExecution) throws Exception {
 
+        ProcessflowVariables.unsealAccessToken(delegateExecution, tokenCipher);
         String servicePort = inventoryService + ":" + inventoryServicePort;
 
         Inventory inventory = new Inventory(delegateExecution, Boolean.parseBoolean(isSslEnabled), servicePort,
-                restTemplate);
+                restTemplate, inventorySnapshot);
         inventory.execute();
     }
 }
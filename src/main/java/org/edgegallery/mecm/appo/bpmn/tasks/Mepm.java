@@ -28,6 +28,8 @@ import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.edgegallery.mecm.appo.exception.AppoException;
 import org.edgegallery.mecm.appo.model.AppInstanceInfo;
 import org.edgegallery.mecm.appo.model.AppInstantiateReq;
+import org.edgegallery.mecm.appo.service.ApplicationPackageStore;
+import org.edgegallery.mecm.appo.service.RestClientHelper;
 import org.edgegallery.mecm.appo.utils.Constants;
 import org.edgegallery.mecm.appo.utils.UrlUtil;
 import org.slf4j.Logger;
@@ -50,6 +52,7 @@ public class Mepm extends ProcessflowAbstractTask {
     private final String action;
     private final String appPkgBasePath;
     private final RestTemplate restTemplate;
+    private final ApplicationPackageStore packageStore;
     private String protocol = HTTPS_PROTO;
 
     /**
@@ -57,15 +60,17 @@ public class Mepm extends ProcessflowAbstractTask {
      *
      * @param delegateExecution  delegate execution
      * @param restClientTemplate restclient template
+     * @param packageStore       application package store
      */
     public Mepm(DelegateExecution delegateExecution, boolean isSslEnabled, String appPkgsBasePath,
-                RestTemplate restClientTemplate) {
+                RestTemplate restClientTemplate, ApplicationPackageStore packageStore) {
         execution = delegateExecution;
         if (!isSslEnabled) {
             protocol = "http://";
         }
         restTemplate = restClientTemplate;
         appPkgBasePath = appPkgsBasePath;
+        this.packageStore = packageStore;
         action = (String) delegateExecution.getVariable("action");
     }
 
@@ -153,7 +158,7 @@ public class Mepm extends ProcessflowAbstractTask {
         try {
 
             // Preparing request headers.
-            Map<String, Object> headers = new HashMap<>();
+            Map<String, Object> headers = getIdempotencyHeader(execution, appInstanceInfo);
             headers.put("origin", "MEO");
             String appInstantiationParams = (String) execution.getVariable(Constants.INSTANTIATION_PARAMS);
             Map<String, Object> parameters = null;
@@ -171,7 +176,8 @@ public class Mepm extends ProcessflowAbstractTask {
             String response = sendRequest(execution, restTemplate, instantiateUrl,
                                           new Gson().toJson(appInstReq), headers, HttpMethod.POST);
             if (response != null) {
-                //Delete application package
+                //Delete application package, stored package is kept for other instances
+                packageStore.release(appInstanceInfo.getAppInstanceId());
                 String deletePackage = appPkgBasePath + appInstanceInfo.getAppInstanceId()
                         + Constants.SLASH + appInstanceInfo.getAppPackageId() + Constants.APP_PKG_EXT;
                 Files.delete(Paths.get(deletePackage));
@@ -189,10 +195,12 @@ public class Mepm extends ProcessflowAbstractTask {
     private void terminate(DelegateExecution execution) {
         LOGGER.info("Terminate application instance");
 
+        AppInstanceInfo appInstanceInfo = (AppInstanceInfo) execution.getVariable(Constants.APP_INSTANCE_INFO);
         try {
             String url = resolveUrlPathParameters(Constants.APPLCM_TERMINATE_URI);
 
-            String response = sendRequest(execution, restTemplate, url, HttpMethod.POST);
+            String response = sendRequest(execution, restTemplate, url, null,
+                    getIdempotencyHeader(execution, appInstanceInfo), HttpMethod.POST);
             if (response == null) {
                 String errResponse = (String) execution.getVariable("ErrResponse");
                 if (errResponse != null && (errResponse.contains("record does not exist in database")
@@ -205,10 +213,10 @@ public class Mepm extends ProcessflowAbstractTask {
             return;
         }
 
-        AppInstanceInfo appInstanceInfo = (AppInstanceInfo) execution.getVariable(Constants.APP_INSTANCE_INFO);
         try {
             if (appInstanceInfo != null) {
-                //Delete application package
+                //Delete application package, stored package is kept for other instances
+                packageStore.release(appInstanceInfo.getAppInstanceId());
                 String deletePackage = appPkgBasePath + appInstanceInfo.getAppInstanceId()
                         + Constants.SLASH + appInstanceInfo.getAppPackageId() + Constants.APP_PKG_EXT;
                 Path path = Paths.get(deletePackage);
@@ -221,6 +229,24 @@ public class Mepm extends ProcessflowAbstractTask {
         }
     }
 
+    /**
+     * Returns idempotency key header of the operation, request is then retried on transient failure and MEPM
+     * does not repeat an operation it already received.
+     *
+     * @param execution       delegate execution
+     * @param appInstanceInfo application instance info
+     * @return request headers
+     */
+    private Map<String, Object> getIdempotencyHeader(DelegateExecution execution, AppInstanceInfo appInstanceInfo) {
+        Map<String, Object> headers = new HashMap<>();
+        String requestId = ProcessflowVariables.getRequestId(execution);
+        if (requestId != null && appInstanceInfo != null) {
+            headers.put(RestClientHelper.IDEMPOTENCY_KEY,
+                    requestId + ":" + appInstanceInfo.getAppInstanceId() + ":" + action);
+        }
+        return headers;
+    }
+
     private void queryAppInstance(DelegateExecution execution) {
         LOGGER.info("Query app instance ");
 
@@ -18,6 +18,8 @@ package org.edgegallery.mecm.appo.bpmn.tasks;
 
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.edgegallery.mecm.appo.service.ApplicationPackageStore;
+import org.edgegallery.mecm.appo.utils.TokenCipher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -26,9 +28,15 @@ import org.springframework.web.client.RestTemplate;
 @Component
 public class MepmAdapter implements JavaDelegate {
 
+    @Autowired
+    private TokenCipher tokenCipher;
+
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private ApplicationPackageStore packageStore;
+
     @Value("${server.ssl.enabled:false}")
     private String isSslEnabled;
 
@@ -38,7 +46,9 @@ public class MepmAdapter implements JavaDelegate {
     @Override
     public void execute(DelegateExecution delegateExecution) throws Exception {
 
-        Mepm mepm = new Mepm(delegateExecution, Boolean.parseBoolean(isSslEnabled), appPkgsBasePath, restTemplate);
+        ProcessflowVariables.unsealAccessToken(delegateExecution, tokenCipher);
+        Mepm mepm = new Mepm(delegateExecution, Boolean.parseBoolean(isSslEnabled), appPkgsBasePath, restTemplate,
+                packageStore);
         mepm.execute();
     }
 }
@@ -0,0 +1,207 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.bpmn.tasks;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.edgegallery.mecm.appo.service.ApplicationPackageStore;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Prefetches application packages of created application instances. Download is started in background once the
+ * create request is accepted and runs alongside the inventory steps of the process flow, the download step then
+ * joins it through the package store. Prefetch not yet started is cancelled when the process flow fails before
+ * the download step, or by the staging janitor once the application instance failed or the deadline of the process
+ * flow passed, e.g. on an incident. A package already prefetched is left unreferenced in the package store and
+ * evicted from it.
+ */
+@Component
+public class PackagePrefetcher implements ExecutionListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackagePrefetcher.class);
+
+    @Value("${appo.package-prefetch.enabled:true}")
+    private boolean isEnabled;
+
+    @Value("${appo.package-prefetch.threads:4}")
+    private int threads;
+
+    @Value("${appo.package-prefetch.queue-size:100}")
+    private int queueSize;
+
+    @Value("${appo.endpoints.apm.end-point}")
+    private String apmService;
+
+    @Value("${appo.endpoints.apm.port}")
+    private String apmServicePort;
+
+    @Value("${appo.appPackages.path}")
+    private String appPkgsBasePath;
+
+    @Value("${server.ssl.enabled:false}")
+    private String isSslEnabled;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ApplicationPackageStore packageStore;
+
+    private final Map<String, Prefetch> prefetches = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    /**
+     * Starts prefetch threads.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isEnabled) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "package-prefetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Stops prefetch threads.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts prefetch of the application package of an application instance, prefetch is skipped when the
+     * prefetch queue is full.
+     *
+     * @param tenantId      tenant ID
+     * @param appPackageId  application package ID
+     * @param appInstanceId application instance ID
+     * @param accessToken   access token
+     * @param deadline      deadline of the process flow in epoch milliseconds
+     */
+    public void prefetch(String tenantId, String appPackageId, String appInstanceId, String accessToken,
+                         Long deadline) {
+        if (!isEnabled) {
+            return;
+        }
+        Apm apm = new Apm(Boolean.parseBoolean(isSslEnabled), appPkgsBasePath, apmService + ":" + apmServicePort,
+                restTemplate, packageStore);
+        Prefetch prefetch = new Prefetch(() -> {
+            try {
+                apm.prefetchPackage(tenantId, appPackageId, accessToken, deadline);
+            } catch (AppoException e) {
+                // Download step downloads the package again and reports the failure
+                LOGGER.error("application package {} prefetch failed: {}", appPackageId, e.getMessage());
+            } finally {
+                prefetches.remove(appInstanceId);
+            }
+        }, deadline);
+        prefetches.put(appInstanceId, prefetch);
+        try {
+            executor.execute(prefetch);
+        } catch (RejectedExecutionException e) {
+            prefetches.remove(appInstanceId, prefetch);
+            LOGGER.info("application package {} not prefetched, prefetch queue full", appPackageId);
+        }
+    }
+
+    /**
+     * Cancels prefetch of the application package of an application instance. Prefetch already started is not
+     * interrupted, other application instances may be waiting for the same download.
+     *
+     * @param appInstanceId application instance ID
+     */
+    public void cancel(String appInstanceId) {
+        Prefetch prefetch = prefetches.remove(appInstanceId);
+        if (prefetch != null && prefetch.cancel(false)) {
+            LOGGER.info("application package prefetch of {} cancelled", appInstanceId);
+        }
+    }
+
+    /**
+     * Cancels prefetches not started before the deadline of their process flow.
+     */
+    public void cancelExpired() {
+        long now = System.currentTimeMillis();
+        prefetches.forEach((appInstanceId, prefetch) -> {
+            if (prefetch.deadline != null && now >= prefetch.deadline) {
+                cancel(appInstanceId);
+            }
+        });
+    }
+
+    /**
+     * Returns application instances whose prefetch is pending.
+     *
+     * @return application instance IDs
+     */
+    public Set<String> getPendingAppInstanceIds() {
+        return new HashSet<>(prefetches.keySet());
+    }
+
+    /**
+     * Cancels prefetch when process flow fails before the download step.
+     *
+     * @param delegateExecution delegate execution
+     */
+    @Override
+    public void notify(DelegateExecution delegateExecution) {
+        String appInstanceId = (String) delegateExecution.getVariable(Constants.APP_INSTANCE_ID);
+        if (appInstanceId != null) {
+            cancel(appInstanceId);
+        }
+    }
+
+    private static final class Prefetch extends FutureTask<Void> {
+
+        private final Long deadline;
+
+        Prefetch(Runnable runnable, Long deadline) {
+            super(runnable, null);
+            this.deadline = deadline;
+        }
+    }
+}
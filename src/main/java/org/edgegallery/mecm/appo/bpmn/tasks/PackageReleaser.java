@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.bpmn.tasks;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.edgegallery.mecm.appo.service.ApplicationPackageStore;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Releases package store reference of the application instance when its process flow fails, stored package can
+ * then be evicted. Application package path of the instance is left to the package staging janitor.
+ */
+@Component
+public class PackageReleaser implements ExecutionListener {
+
+    @Autowired
+    private ApplicationPackageStore packageStore;
+
+    /**
+     * Releases package reference when process flow fails.
+     *
+     * @param delegateExecution delegate execution
+     */
+    @Override
+    public void notify(DelegateExecution delegateExecution) {
+        String appInstanceId = (String) delegateExecution.getVariable(Constants.APP_INSTANCE_ID);
+        if (appInstanceId != null) {
+            packageStore.release(appInstanceId);
+        }
+    }
+}
@@ -17,15 +17,16 @@
 
 package org.edgegallery.mecm.appo.bpmn.tasks;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Map;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.edgegallery.mecm.appo.exception.CircuitBreakerOpenException;
+import org.edgegallery.mecm.appo.service.RequestDeadline;
 import org.edgegallery.mecm.appo.utils.Constants;
+import org.edgegallery.mecm.appo.utils.JsonResponseReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpEntity;
@@ -63,7 +64,7 @@ public abstract class ProcessflowAbstractTask {
             throw new IllegalArgumentException();
         }
         LOGGER.info("\nresponse: {} response code: {}\n", response, responseCode);
-        delegateExecution.setVariable(RESPONSE, response);
+        ProcessflowVariables.setVariable(delegateExecution, RESPONSE, response);
         delegateExecution.setVariable(RESPONSE_CODE, responseCode);
     }
 
@@ -81,7 +82,7 @@ public abstract class ProcessflowAbstractTask {
             throw new IllegalArgumentException();
         }
         LOGGER.error("\nfailure response: {} response code: {}\n", response, responseCode);
-        delegateExecution.setVariable(ERROR_RESPONSE, response);
+        ProcessflowVariables.setVariable(delegateExecution, ERROR_RESPONSE, response);
         delegateExecution.setVariable(RESPONSE_CODE, responseCode);
     }
 
@@ -101,7 +102,7 @@ public abstract class ProcessflowAbstractTask {
         LOGGER.error("\nfailure response: {} response code: {}\n", response, responseCode);
         delegateExecution.setVariable(RESPONSE_CODE, responseCode);
         delegateExecution.setVariable(FLOW_EXCEPTION, response);
-        delegateExecution.setVariable(ERROR_RESPONSE, response);
+        ProcessflowVariables.setVariable(delegateExecution, ERROR_RESPONSE, response);
     }
 
     /**
@@ -203,6 +204,10 @@ public abstract class ProcessflowAbstractTask {
             return null;
         }
 
+        if (isDeadlineExceeded(execution, url)) {
+            return null;
+        }
+
         URI uri = null;
         try {
             uri = new URL(url).toURI();
@@ -224,22 +229,12 @@ public abstract class ProcessflowAbstractTask {
             }
             String responseBody = "{}";
             if (response.getBody() != null) {
-                responseBody = response.getBody();
-                if (responseBody != null && responseBody.contains("data")) {
-                    JsonObject jsonObject = new JsonParser().parse(responseBody).getAsJsonObject();
-                    if (!jsonObject.get("data").isJsonNull()) {
-                        responseBody = jsonObject.get("data").getAsString();
-                    } else if (!jsonObject.get("message").isJsonNull()) {
-                        responseBody = jsonObject.get("message").getAsString();
-                    }
-                }
+                responseBody = JsonResponseReader.readEnvelope(response.getBody());
             }
             setProcessflowResponseAttributes(execution, responseBody, Constants.PROCESS_FLOW_SUCCESS);
             return responseBody;
         } catch (ResourceAccessException ex) {
-            LOGGER.error(Constants.FAILED_TO_CONNECT + "{}", ex.getMessage());
-            setProcessflowExceptionResponseAttributes(execution,
-                    uri + Constants.FAILED_TO_CONNECT + ex.getMessage(), Constants.PROCESS_FLOW_ERROR);
+            setProcessflowConnectFailureAttributes(execution, uri, ex);
         } catch (HttpServerErrorException | HttpClientErrorException ex) {
             LOGGER.error("failure response from remote entity: {}", ex.getResponseBodyAsString());
             if (HttpMethod.DELETE.equals(method)
@@ -251,6 +246,8 @@ public abstract class ProcessflowAbstractTask {
             }
         } catch (MalformedURLException | URISyntaxException ex) {
             setProcessflowExceptionResponseAttributes(execution, ex.getMessage(), Constants.PROCESS_FLOW_ERROR);
+        } finally {
+            RequestDeadline.clear();
         }
         return null;
     }
@@ -273,6 +270,10 @@ public abstract class ProcessflowAbstractTask {
             return null;
         }
 
+        if (isDeadlineExceeded(execution, url)) {
+            return null;
+        }
+
         URI uri = null;
         try {
             uri = new URL(url).toURI();
@@ -294,19 +295,52 @@ public abstract class ProcessflowAbstractTask {
             setProcessflowResponseAttributes(execution, responseBody, Constants.PROCESS_FLOW_SUCCESS);
             return responseBody;
         } catch (ResourceAccessException ex) {
-            LOGGER.error(Constants.FAILED_TO_CONNECT + "{}", ex.getMessage());
-            setProcessflowExceptionResponseAttributes(execution,
-                    uri + Constants.FAILED_TO_CONNECT + ex.getMessage(), Constants.PROCESS_FLOW_ERROR);
+            setProcessflowConnectFailureAttributes(execution, uri, ex);
         } catch (HttpServerErrorException | HttpClientErrorException ex) {
             LOGGER.error("failure response from remote entity: {}", ex.getResponseBodyAsString());
             setProcessflowExceptionResponseAttributes(execution, ex.getResponseBodyAsString(),
                     String.valueOf(ex.getRawStatusCode()));
         } catch (MalformedURLException | URISyntaxException ex) {
             setProcessflowExceptionResponseAttributes(execution, ex.getMessage(), Constants.PROCESS_FLOW_ERROR);
+        } finally {
+            RequestDeadline.clear();
         }
         return null;
     }
 
+    /**
+     * Checks deadline of the request being executed, remaining time is applied as timeout of the outbound request.
+     *
+     * @param execution execution
+     * @param url request url
+     * @return true if deadline is exceeded, process flow error response is set
+     */
+    protected boolean isDeadlineExceeded(DelegateExecution execution, String url) {
+        Long remainingTime = ProcessflowVariables.getRemainingTime(execution);
+        if (remainingTime != null && remainingTime <= 0) {
+            LOGGER.error("request deadline exceeded, request to {} not sent", url);
+            setProcessflowExceptionResponseAttributes(execution, "request deadline exceeded, request to " + url
+                    + " not sent", Constants.PROCESS_FLOW_ERROR);
+            return true;
+        }
+        RequestDeadline.setDeadline(ProcessflowVariables.getDeadline(execution));
+        return false;
+    }
+
+    private void setProcessflowConnectFailureAttributes(DelegateExecution execution, URI uri,
+                                                        ResourceAccessException ex) {
+        if (ex.getCause() instanceof CircuitBreakerOpenException) {
+            // Remote entity is known to be down, request was not sent
+            LOGGER.error("request to {} not sent: {}", uri, ex.getCause().getMessage());
+            setProcessflowExceptionResponseAttributes(execution, ex.getCause().getMessage(),
+                    Constants.PROCESS_FLOW_ERROR);
+            return;
+        }
+        LOGGER.error(Constants.FAILED_TO_CONNECT + "{}", ex.getMessage());
+        setProcessflowExceptionResponseAttributes(execution,
+                uri + Constants.FAILED_TO_CONNECT + ex.getMessage(), Constants.PROCESS_FLOW_ERROR);
+    }
+
     /**
      * Returns base HTTP header.
      * @param execution execution
@@ -315,7 +349,7 @@ public abstract class ProcessflowAbstractTask {
     public HttpHeaders getBaseHttpHeader(DelegateExecution execution) {
 
         HttpHeaders headers = new HttpHeaders();
-        String accessToken = (String) execution.getVariable(Constants.ACCESS_TOKEN);
+        String accessToken = ProcessflowVariables.getAccessToken(execution);
         headers.set(Constants.ACCESS_TOKEN, accessToken);
         headers.setContentType(MediaType.APPLICATION_JSON);
 
@@ -0,0 +1,156 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.bpmn.tasks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.Variables;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.edgegallery.mecm.appo.utils.TokenCipher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process variable handling. Access token, raw application rules and intermediate responses are set as transient
+ * variables, available until the next wait state and never written to runtime or history tables.
+ * Access token is additionally persisted encrypted, for process flows which continue after an asynchronous
+ * continuation, on another instance or after restart, or in a called process.
+ */
+public final class ProcessflowVariables {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessflowVariables.class);
+
+    private static final Set<String> TRANSIENT_VARIABLES = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList(Constants.ACCESS_TOKEN, Constants.APP_RULES, Constants.INVENTORY_APP_RULES,
+                    Constants.UPDATED_APP_RULES, ProcessflowAbstractTask.RESPONSE,
+                    ProcessflowAbstractTask.ERROR_RESPONSE)));
+
+    private ProcessflowVariables() {
+    }
+
+    /**
+     * Converts request inputs to process start variables.
+     *
+     * @param inputs      request inputs
+     * @param tokenCipher cipher of persisted access tokens
+     * @return process variables
+     */
+    public static VariableMap toProcessVariables(Map<String, Object> inputs, TokenCipher tokenCipher) {
+        VariableMap variables = Variables.createVariables();
+        inputs.forEach((name, value) -> variables.putValueTyped(name,
+                Variables.untypedValue(value, TRANSIENT_VARIABLES.contains(name))));
+
+        Object accessToken = inputs.get(Constants.ACCESS_TOKEN);
+        if (accessToken != null) {
+            variables.putValue(Constants.SEALED_ACCESS_TOKEN, tokenCipher.seal((String) accessToken));
+        }
+        return variables;
+    }
+
+    /**
+     * Sets variable to delegate execution, as transient variable if it must not be persisted.
+     *
+     * @param execution delegate execution
+     * @param name      variable name
+     * @param value     variable value
+     */
+    public static void setVariable(DelegateExecution execution, String name, Object value) {
+        if (TRANSIENT_VARIABLES.contains(name)) {
+            execution.setVariable(name, Variables.untypedValue(value, true));
+        } else {
+            execution.setVariable(name, value);
+        }
+    }
+
+    /**
+     * Restores access token from the persisted sealed token, when the transient access token is not available
+     * after an asynchronous continuation or in a called process.
+     *
+     * @param execution   delegate execution
+     * @param tokenCipher cipher of persisted access tokens
+     */
+    public static void unsealAccessToken(DelegateExecution execution, TokenCipher tokenCipher) {
+        if (execution.getVariable(Constants.ACCESS_TOKEN) != null) {
+            return;
+        }
+
+        String sealedToken = (String) execution.getVariable(Constants.SEALED_ACCESS_TOKEN);
+        if (sealedToken == null) {
+            return;
+        }
+        try {
+            setVariable(execution, Constants.ACCESS_TOKEN, tokenCipher.open(sealedToken));
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("access token of request {} cannot be decrypted, token encryption key changed",
+                    execution.getProcessBusinessKey());
+        }
+    }
+
+    /**
+     * Returns access token of the request being executed.
+     *
+     * @param execution delegate execution
+     * @return access token, null if not available
+     */
+    public static String getAccessToken(DelegateExecution execution) {
+        return (String) execution.getVariable(Constants.ACCESS_TOKEN);
+    }
+
+    /**
+     * Returns id of the request being executed.
+     *
+     * @param execution delegate execution
+     * @return request id
+     */
+    public static String getRequestId(DelegateExecution execution) {
+        Object requestId = execution.getVariable(Constants.REQUEST_ID);
+        if (requestId != null) {
+            return requestId.toString();
+        }
+        return execution.getProcessBusinessKey();
+    }
+
+    /**
+     * Returns deadline of the request being executed.
+     *
+     * @param execution delegate execution
+     * @return deadline in epoch milliseconds, null if request has no deadline
+     */
+    public static Long getDeadline(DelegateExecution execution) {
+        Object deadline = execution.getVariable(Constants.DEADLINE);
+        if (!(deadline instanceof Number)) {
+            return null;
+        }
+        return ((Number) deadline).longValue();
+    }
+
+    /**
+     * Returns time remaining until the deadline of the request being executed.
+     *
+     * @param execution delegate execution
+     * @return remaining time in milliseconds, null if request has no deadline
+     */
+    public static Long getRemainingTime(DelegateExecution execution) {
+        Long deadline = getDeadline(execution);
+        return deadline == null ? null : deadline - System.currentTimeMillis();
+    }
+}
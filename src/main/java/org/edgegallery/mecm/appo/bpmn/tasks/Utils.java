@@ -97,7 +97,7 @@ public class Utils extends ProcessflowAbstractTask implements JavaDelegate {
 
         if (StringUtils.isEmpty(inventoryAppRules)) {
             LOGGER.info("No app rules exists in inventory... configure apprule received from input {}", inAppRules);
-            execution.setVariable(Constants.UPDATED_APP_RULES, inAppRules);
+            ProcessflowVariables.setVariable(execution, Constants.UPDATED_APP_RULES, inAppRules);
             return;
         }
 
@@ -115,7 +115,7 @@ public class Utils extends ProcessflowAbstractTask implements JavaDelegate {
 
         String appRuleJson = gson.toJson(appRules);
 
-        execution.setVariable(Constants.UPDATED_APP_RULES, appRuleJson);
+        ProcessflowVariables.setVariable(execution, Constants.UPDATED_APP_RULES, appRuleJson);
 
         LOGGER.info("App rules:Input {}, \n existing {}, \nmerged {}", inAppRules, inventoryAppRules, appRuleJson);
     }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
+import org.camunda.bpm.spring.boot.starter.configuration.Ordering;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process engine plugin to serialize model object variables as JSON.
+ */
+@Component
+@Order(Ordering.DEFAULT_ORDER + 1)
+public class JsonVariablePlugin extends AbstractProcessEnginePlugin {
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        List<TypedValueSerializer> serializers = new ArrayList<>();
+        if (configuration.getCustomPreVariableSerializers() != null) {
+            serializers.addAll(configuration.getCustomPreVariableSerializers());
+        }
+        serializers.add(new JsonVariableSerializer());
+        configuration.setCustomPreVariableSerializers(serializers);
+
+        // Objects not supported by JSON serializer fall back to java serialization.
+        configuration.setDefaultSerializationFormat(JsonVariableSerializer.SERIALIZATION_FORMAT);
+    }
+}
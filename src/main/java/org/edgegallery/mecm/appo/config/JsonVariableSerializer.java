@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import com.google.gson.reflect.TypeToken;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.camunda.bpm.engine.impl.variable.serializer.AbstractObjectValueSerializer;
+import org.edgegallery.mecm.appo.model.AppInstanceDependency;
+import org.edgegallery.mecm.appo.model.AppInstanceInfo;
+import org.edgegallery.mecm.appo.model.AppRule;
+
+/**
+ * JSON serializer for application instance info, application rule and dependency list process variables.
+ * Variables are stored as compact JSON instead of java serialized objects, and deserialized by the process
+ * engine only when a task reads the variable value.
+ */
+public class JsonVariableSerializer extends AbstractObjectValueSerializer {
+
+    public static final String SERIALIZATION_FORMAT = "application/json";
+
+    private static final String LIST_TYPE_PREFIX = "java.util.List<";
+
+    private static final Map<String, Class<?>> SUPPORTED_TYPES = Collections.unmodifiableMap(
+            Arrays.asList(AppInstanceInfo.class, AppRule.class, AppInstanceDependency.class).stream()
+                    .collect(Collectors.toMap(Class::getName, Function.identity())));
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, (JsonSerializer<LocalDateTime>) (value, type, context) ->
+                    new JsonPrimitive(value.toString()))
+            .registerTypeAdapter(LocalDateTime.class, (JsonDeserializer<LocalDateTime>) (json, type, context) ->
+                    LocalDateTime.parse(json.getAsString()))
+            .create();
+
+    public JsonVariableSerializer() {
+        super(SERIALIZATION_FORMAT);
+    }
+
+    @Override
+    public String getName() {
+        return "appo-json";
+    }
+
+    @Override
+    protected boolean canSerializeValue(Object value) {
+        if (value instanceof List) {
+            List<?> values = (List<?>) value;
+            return !values.isEmpty() && values.stream().allMatch(element -> element != null
+                    && element.getClass() == values.get(0).getClass() && isSupported(element.getClass()));
+        }
+        return value != null && isSupported(value.getClass());
+    }
+
+    @Override
+    protected String getTypeNameForDeserialized(Object deserializedObject) {
+        if (deserializedObject instanceof List) {
+            return LIST_TYPE_PREFIX + ((List<?>) deserializedObject).get(0).getClass().getName() + ">";
+        }
+        return deserializedObject.getClass().getName();
+    }
+
+    @Override
+    protected byte[] serializeToByteArray(Object deserializedObject) {
+        return GSON.toJson(deserializedObject).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected Object deserializeFromByteArray(byte[] object, String objectTypeName) {
+        String json = new String(object, StandardCharsets.UTF_8);
+        if (objectTypeName.startsWith(LIST_TYPE_PREFIX)) {
+            Class<?> elementType = getSupportedType(objectTypeName.substring(LIST_TYPE_PREFIX.length(),
+                    objectTypeName.length() - 1));
+            return GSON.fromJson(json, TypeToken.getParameterized(List.class, elementType).getType());
+        }
+        return GSON.fromJson(json, getSupportedType(objectTypeName));
+    }
+
+    @Override
+    protected boolean isSerializationTextBased() {
+        return true;
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return SUPPORTED_TYPES.containsKey(type.getName());
+    }
+
+    private static Class<?> getSupportedType(String typeName) {
+        Class<?> type = SUPPORTED_TYPES.get(typeName);
+        if (type == null) {
+            throw new IllegalArgumentException("unsupported variable type " + typeName);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import java.util.Set;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventType;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+
+/**
+ * History level which produces no history for configured process definitions and delegates to the
+ * engine history level for all other process definitions.
+ */
+public class ProcessHistoryLevel implements HistoryLevel {
+
+    private final HistoryLevel historyLevel;
+    private final Set<String> noHistoryProcessKeys;
+
+    /**
+     * Constructor to create ProcessHistoryLevel.
+     *
+     * @param historyLevel         engine history level
+     * @param noHistoryProcessKeys process definition keys for which no history is produced
+     */
+    public ProcessHistoryLevel(HistoryLevel historyLevel, Set<String> noHistoryProcessKeys) {
+        this.historyLevel = historyLevel;
+        this.noHistoryProcessKeys = noHistoryProcessKeys;
+    }
+
+    /**
+     * Returns same id as the engine history level, history level stored in database remains unchanged.
+     *
+     * @return history level id
+     */
+    @Override
+    public int getId() {
+        return historyLevel.getId();
+    }
+
+    @Override
+    public String getName() {
+        return historyLevel.getName() + "-selective";
+    }
+
+    @Override
+    public boolean isHistoryEventProduced(HistoryEventType eventType, Object entity) {
+        String processDefinitionKey = getProcessDefinitionKey(entity);
+        if (processDefinitionKey != null && noHistoryProcessKeys.contains(processDefinitionKey)) {
+            return false;
+        }
+        return historyLevel.isHistoryEventProduced(eventType, entity);
+    }
+
+    private static String getProcessDefinitionKey(Object entity) {
+        if (entity instanceof ExecutionEntity) {
+            return getKeyFromDefinitionId(((ExecutionEntity) entity).getProcessDefinitionId());
+        }
+        if (entity instanceof VariableInstanceEntity) {
+            ExecutionEntity execution = ((VariableInstanceEntity) entity).getExecution();
+            return execution == null ? null : getKeyFromDefinitionId(execution.getProcessDefinitionId());
+        }
+        if (entity instanceof JobEntity) {
+            return ((JobEntity) entity).getProcessDefinitionKey();
+        }
+        return null;
+    }
+
+    private static String getKeyFromDefinitionId(String processDefinitionId) {
+        if (processDefinitionId == null || processDefinitionId.indexOf(':') < 0) {
+            return null;
+        }
+        return processDefinitionId.substring(0, processDefinitionId.indexOf(':'));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.spring.boot.starter.configuration.Ordering;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process engine plugin to disable history for query only process definitions.
+ */
+@Component
+@Order(Ordering.DEFAULT_ORDER + 1)
+public class ProcessHistoryPlugin extends AbstractProcessEnginePlugin {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessHistoryPlugin.class);
+
+    @Value("${appo.processflow.no-history-keys:}")
+    private String noHistoryProcessKeys;
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl configuration) {
+        Set<String> processKeys = Arrays.stream(noHistoryProcessKeys.split(",")).map(String::trim)
+                .filter(key -> !key.isEmpty()).collect(Collectors.toSet());
+        String history = configuration.getHistory();
+        if (processKeys.isEmpty() || ProcessEngineConfiguration.HISTORY_AUTO.equalsIgnoreCase(history)) {
+            return;
+        }
+
+        HistoryLevel engineHistoryLevel = getHistoryLevel(history);
+        if (engineHistoryLevel == null) {
+            LOGGER.warn("history level {} not supported, history enabled for all processes", history);
+            return;
+        }
+
+        HistoryLevel historyLevel = new ProcessHistoryLevel(engineHistoryLevel, processKeys);
+        configuration.setCustomHistoryLevels(Collections.singletonList(historyLevel));
+        configuration.setHistory(historyLevel.getName());
+        LOGGER.info("history level {}, no history for processes: {}", history, processKeys);
+    }
+
+    private static HistoryLevel getHistoryLevel(String history) {
+        for (HistoryLevel historyLevel : Arrays.asList(HistoryLevel.HISTORY_LEVEL_NONE,
+                HistoryLevel.HISTORY_LEVEL_ACTIVITY, HistoryLevel.HISTORY_LEVEL_AUDIT,
+                HistoryLevel.HISTORY_LEVEL_FULL)) {
+            if (historyLevel.getName().equalsIgnoreCase(history)) {
+                return historyLevel;
+            }
+        }
+        return null;
+    }
+}
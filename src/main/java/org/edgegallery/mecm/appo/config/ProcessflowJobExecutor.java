@@ -0,0 +1,339 @@
+/*
+ * Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.jobexecutor.MessageJobDeclaration;
+import org.camunda.bpm.engine.impl.jobexecutor.NotifyAcquisitionRejectedJobsHandler;
+import org.camunda.bpm.engine.impl.persistence.entity.JobDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.spring.components.jobexecutor.SpringJobExecutor;
+import org.camunda.bpm.model.bpmn.instance.BaseElement;
+import org.camunda.bpm.model.bpmn.instance.ExtensionElements;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaProperties;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaProperty;
+import org.camunda.bpm.model.xml.instance.ModelElementInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process engine job executor with a thread pool per task type. Asynchronous continuations are executed on the
+ * pool named by the "jobExecutorPool" extension property of the activity, other jobs on the default pool.
+ * Slow package downloads and MEPM calls hence do not occupy threads of quick inventory and DB steps.
+ * The pool of an acquired job is resolved from the activity of its job definition, once per job definition.
+ */
+@Component
+public class ProcessflowJobExecutor extends SpringJobExecutor {
+
+    public static final String POOL_PROPERTY = "jobExecutorPool";
+
+    public static final String DEFAULT_POOL = "default";
+    public static final String APM_POOL = "apm";
+    public static final String MEPM_POOL = "mepm";
+    public static final String INVENTORY_POOL = "inventory";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessflowJobExecutor.class);
+
+    // Jobs ready to be acquired by any instance, acquired jobs are counted in the pools of the acquiring instance
+    private static final String PENDING_JOBS_QUERY = "select JOB_DEF_ID_, count(*) as PENDING from ACT_RU_JOB"
+            + " where RETRIES_ > 0 and SUSPENSION_STATE_ = 1 and (DUEDATE_ is null or DUEDATE_ <= ?)"
+            + " and (LOCK_OWNER_ is null or LOCK_EXP_TIME_ < ?) group by JOB_DEF_ID_";
+
+    private final Map<String, ThreadPoolTaskExecutor> pools = new LinkedHashMap<>();
+
+    private final Map<String, String> jobDefinitionPools = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Integer> pendingJobs = Collections.emptyMap();
+
+    private volatile long pendingJobsTime;
+
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${appo.job-executor.pending-jobs-refresh:1000}")
+    private long pendingJobsRefresh;
+
+    @Value("${appo.job-executor.pool-size.default:10}")
+    private int defaultPoolSize;
+
+    @Value("${appo.job-executor.pool-size.apm:5}")
+    private int apmPoolSize;
+
+    @Value("${appo.job-executor.pool-size.mepm:20}")
+    private int mepmPoolSize;
+
+    @Value("${appo.job-executor.pool-size.inventory:10}")
+    private int inventoryPoolSize;
+
+    @Value("${appo.job-executor.queue-capacity:100}")
+    private int queueCapacity;
+
+    /**
+     * Initializes job executor thread pools.
+     */
+    @PostConstruct
+    public void init() {
+        pools.put(DEFAULT_POOL, newPool(DEFAULT_POOL, defaultPoolSize));
+        pools.put(APM_POOL, newPool(APM_POOL, apmPoolSize));
+        pools.put(MEPM_POOL, newPool(MEPM_POOL, mepmPoolSize));
+        pools.put(INVENTORY_POOL, newPool(INVENTORY_POOL, inventoryPoolSize));
+        setTaskExecutor(pools.get(DEFAULT_POOL));
+        setRejectedJobsHandler(new NotifyAcquisitionRejectedJobsHandler());
+        LOGGER.info("job executor pools, default: {}, apm: {}, mepm: {}, inventory: {}", defaultPoolSize,
+                apmPoolSize, mepmPoolSize, inventoryPoolSize);
+    }
+
+    /**
+     * Shuts down job executor thread pools.
+     */
+    @PreDestroy
+    public void destroy() {
+        pools.values().forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    /**
+     * Returns number of jobs being executed or waiting in a job executor pool.
+     *
+     * @param pool pool name
+     * @return job backlog
+     */
+    public int getBacklog(String pool) {
+        ThreadPoolExecutor threadPool = getThreadPool(pool);
+        return threadPool.getActiveCount() + threadPool.getQueue().size();
+    }
+
+    /**
+     * Returns number of jobs a job executor pool can execute or hold without rejecting.
+     *
+     * @param pool pool name
+     * @return job capacity
+     */
+    public int getCapacity(String pool) {
+        ThreadPoolExecutor threadPool = getThreadPool(pool);
+        return threadPool.getMaximumPoolSize() + threadPool.getQueue().size()
+                + threadPool.getQueue().remainingCapacity();
+    }
+
+    /**
+     * Returns number of jobs of a pool in the process engine database which are ready to be acquired. Refreshed
+     * from database at most once per refresh interval.
+     *
+     * @param pool pool name
+     * @return pending jobs
+     */
+    public int getPendingJobs(String pool) {
+        if (System.currentTimeMillis() - pendingJobsTime >= pendingJobsRefresh) {
+            refreshPendingJobs();
+        }
+        return pendingJobs.getOrDefault(pool, 0);
+    }
+
+    /**
+     * Returns active count and queue depth of each job executor pool.
+     *
+     * @return pool metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        pools.forEach((name, pool) -> {
+            ThreadPoolExecutor threadPool = pool.getThreadPoolExecutor();
+            Map<String, Object> poolMetrics = new LinkedHashMap<>();
+            poolMetrics.put("active_count", threadPool.getActiveCount());
+            poolMetrics.put("pool_size", threadPool.getPoolSize());
+            poolMetrics.put("max_pool_size", threadPool.getMaximumPoolSize());
+            poolMetrics.put("queue_depth", threadPool.getQueue().size());
+            poolMetrics.put("queue_capacity", threadPool.getQueue().size()
+                    + threadPool.getQueue().remainingCapacity());
+            poolMetrics.put("completed_task_count", threadPool.getCompletedTaskCount());
+            poolMetrics.put("pending_jobs", pendingJobs.getOrDefault(name, 0));
+            metrics.put(name, poolMetrics);
+        });
+        return metrics;
+    }
+
+    @Override
+    public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+        Map<String, String> jobPools = getPools(jobIds, processEngine);
+        Map<String, List<String>> poolJobs = jobIds.stream().collect(Collectors.groupingBy(jobPools::get,
+                LinkedHashMap::new, Collectors.toList()));
+        poolJobs.forEach((pool, poolJobIds) -> {
+            try {
+                pools.get(pool).execute(getExecuteJobsRunnable(poolJobIds, processEngine));
+            } catch (RejectedExecutionException e) {
+                logRejectedExecution(processEngine, poolJobIds.size());
+                rejectedJobsHandler.jobsRejected(poolJobIds, processEngine, this);
+            }
+        });
+    }
+
+    /**
+     * Returns pools of acquired jobs, jobs which no longer exist are assigned to the default pool.
+     *
+     * @param jobIds        acquired job ids
+     * @param processEngine process engine
+     * @return pool name by job id
+     */
+    Map<String, String> getPools(List<String> jobIds, ProcessEngineImpl processEngine) {
+        try {
+            return processEngine.getProcessEngineConfiguration().getCommandExecutorTxRequired()
+                    .execute(commandContext -> {
+                        Map<String, String> jobPools = new HashMap<>();
+                        for (String jobId : jobIds) {
+                            JobEntity job = commandContext.getJobManager().findJobById(jobId);
+                            jobPools.put(jobId, job == null ? DEFAULT_POOL : getPool(job));
+                        }
+                        return jobPools;
+                    });
+        } catch (RuntimeException e) {
+            LOGGER.warn("failed to resolve job executor pools, jobs executed on default pool: {}", e.getMessage());
+            return jobIds.stream().collect(Collectors.toMap(jobId -> jobId, jobId -> DEFAULT_POOL,
+                (pool1, pool2) -> pool1));
+        }
+    }
+
+    /**
+     * Returns pool of a job, resolved once per job definition. Must be called within a command.
+     *
+     * @param job job
+     * @return pool name
+     */
+    String getPool(JobEntity job) {
+        return getPool(job.getJobDefinitionId());
+    }
+
+    private String getPool(String jobDefinitionId) {
+        if (jobDefinitionId == null) {
+            return DEFAULT_POOL;
+        }
+        return jobDefinitionPools.computeIfAbsent(jobDefinitionId, this::resolvePool);
+    }
+
+    private synchronized void refreshPendingJobs() {
+        long now = System.currentTimeMillis();
+        if (now - pendingJobsTime < pendingJobsRefresh) {
+            return;
+        }
+        pendingJobsTime = now;
+        if (jdbcTemplate == null) {
+            return;
+        }
+
+        Map<String, Integer> poolPending = new HashMap<>();
+        Map<String, Integer> jobDefinitionPending = new HashMap<>();
+        try {
+            Timestamp timestamp = new Timestamp(now);
+            for (Map<String, Object> row : jdbcTemplate.queryForList(PENDING_JOBS_QUERY, timestamp, timestamp)) {
+                String jobDefinitionId = (String) row.get("JOB_DEF_ID_");
+                int pending = ((Number) row.get("PENDING")).intValue();
+                if (jobDefinitionId == null) {
+                    poolPending.merge(DEFAULT_POOL, pending, Integer::sum);
+                } else {
+                    jobDefinitionPending.put(jobDefinitionId, pending);
+                }
+            }
+        } catch (DataAccessException e) {
+            LOGGER.warn("failed to query pending jobs: {}", e.getMessage());
+            return;
+        }
+
+        Map<String, String> definitionPools = getPools(jobDefinitionPending.keySet());
+        jobDefinitionPending.forEach((jobDefinitionId, pending) -> poolPending.merge(
+                definitionPools.getOrDefault(jobDefinitionId, DEFAULT_POOL), pending, Integer::sum));
+        pendingJobs = poolPending;
+    }
+
+    private Map<String, String> getPools(Set<String> jobDefinitionIds) {
+        if (jobDefinitionPools.keySet().containsAll(jobDefinitionIds) || processEngines.isEmpty()) {
+            return jobDefinitionPools;
+        }
+        try {
+            return processEngines.get(0).getProcessEngineConfiguration().getCommandExecutorTxRequired()
+                    .execute(commandContext -> {
+                        jobDefinitionIds.forEach(this::getPool);
+                        return jobDefinitionPools;
+                    });
+        } catch (RuntimeException e) {
+            LOGGER.warn("failed to resolve job executor pools of pending jobs: {}", e.getMessage());
+            return jobDefinitionPools;
+        }
+    }
+
+    private ThreadPoolExecutor getThreadPool(String pool) {
+        return pools.getOrDefault(pool, pools.get(DEFAULT_POOL)).getThreadPoolExecutor();
+    }
+
+    private String resolvePool(String jobDefinitionId) {
+        JobDefinitionEntity jobDefinition = Context.getCommandContext().getJobDefinitionManager()
+                .findById(jobDefinitionId);
+        // Continuation after an activity executes the following activities, hence only asynchronous before
+        // continuations are assigned to the pool of the activity.
+        if (jobDefinition == null || !MessageJobDeclaration.ASYNC_BEFORE.equals(jobDefinition.getJobConfiguration())) {
+            return DEFAULT_POOL;
+        }
+
+        ModelElementInstance activity = Context.getProcessEngineConfiguration().getDeploymentCache()
+                .findBpmnModelInstanceForProcessDefinition(jobDefinition.getProcessDefinitionId())
+                .getModelElementById(jobDefinition.getActivityId());
+        if (!(activity instanceof BaseElement)) {
+            return DEFAULT_POOL;
+        }
+
+        ExtensionElements extensionElements = ((BaseElement) activity).getExtensionElements();
+        if (extensionElements == null) {
+            return DEFAULT_POOL;
+        }
+        for (CamundaProperties properties : extensionElements.getElementsQuery()
+                .filterByType(CamundaProperties.class).list()) {
+            for (CamundaProperty property : properties.getCamundaProperties()) {
+                if (POOL_PROPERTY.equals(property.getCamundaName()) && pools.containsKey(property.getCamundaValue())) {
+                    return property.getCamundaValue();
+                }
+            }
+        }
+        return DEFAULT_POOL;
+    }
+
+    private ThreadPoolTaskExecutor newPool(String name, int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("appo-job-" + name + "-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import java.net.URI;
+import java.util.Collections;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.edgegallery.mecm.appo.service.CircuitBreakerInterceptor;
+import org.edgegallery.mecm.appo.service.CircuitBreakerRegistry;
+import org.edgegallery.mecm.appo.service.RequestDeadline;
+import org.edgegallery.mecm.appo.service.RestClientHelper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Outbound rest client configurations, single connection pool shared by inventory, APM and MEPM adapters.
+ */
+@Configuration
+public class RestTemplateConfig {
+
+    @Value("${server.ssl.enabled:false}")
+    private boolean isSslEnabled;
+
+    @Value("${server.ssl.trust-store:}")
+    private String trustStorePath;
+
+    @Value("${server.ssl.trust-store-password:}")
+    private String trustStorePasswd;
+
+    @Value("${appo.http-client.max-total:200}")
+    private int maxTotal;
+
+    @Value("${appo.http-client.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${appo.http-client.connect-timeout:5000}")
+    private int connectTimeout;
+
+    @Value("${appo.http-client.read-timeout:60000}")
+    private int readTimeout;
+
+    @Value("${appo.http-client.connection-request-timeout:5000}")
+    private int connectionRequestTimeout;
+
+    @Value("${appo.http-client.keep-alive:30000}")
+    private long keepAlive;
+
+    @Value("${appo.http-client.idle-timeout:30000}")
+    private long idleTimeout;
+
+    /**
+     * Returns pooled connection manager.
+     *
+     * @return connection manager
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager appoConnectionManager() {
+        return new RestClientHelper(isSslEnabled, trustStorePath, trustStorePasswd)
+                .buildConnectionManager(maxTotal, maxPerRoute);
+    }
+
+    /**
+     * Returns pooled http client.
+     *
+     * @param connectionManager connection manager
+     * @return http client
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient appoHttpClient(PoolingHttpClientConnectionManager connectionManager) {
+        return new RestClientHelper(isSslEnabled, trustStorePath, trustStorePasswd)
+                .buildHttpClient(connectionManager, getRequestConfig(Integer.MAX_VALUE), keepAlive, idleTimeout);
+    }
+
+    /**
+     * Returns rest template backed by pooled http client, requests are guarded by circuit breaker of the remote
+     * entity.
+     *
+     * @param httpClient      http client
+     * @param circuitBreakers circuit breakers
+     * @return rest template
+     */
+    @Bean
+    @Primary
+    public RestTemplate appoRestTemplate(CloseableHttpClient httpClient, CircuitBreakerRegistry circuitBreakers) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient) {
+            @Override
+            protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+                // Timeouts bounded by time remaining until the request deadline, if any, computed per request
+                Long remainingTime = RequestDeadline.getRemainingTime();
+                if (remainingTime == null) {
+                    return null;
+                }
+                HttpClientContext context = HttpClientContext.create();
+                context.setRequestConfig(getRequestConfig((int) Math.max(1, Math.min(remainingTime,
+                        Integer.MAX_VALUE))));
+                return context;
+            }
+        });
+        restTemplate.setInterceptors(Collections.singletonList(
+                new CircuitBreakerInterceptor(circuitBreakers, connectTimeout, readTimeout)));
+        return restTemplate;
+    }
+
+    private RequestConfig getRequestConfig(int remainingTime) {
+        return RequestConfig.custom()
+                .setConnectTimeout(Math.min(connectTimeout, remainingTime))
+                .setSocketTimeout(Math.min(readTimeout, remainingTime))
+                .setConnectionRequestTimeout(Math.min(connectionRequestTimeout, remainingTime))
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import java.util.Base64;
+import org.edgegallery.mecm.appo.utils.TokenCipher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cipher of access tokens persisted in process variables. All instances sharing the process engine database must
+ * be configured with the same key, startup fails when the key is missing or invalid.
+ */
+@Configuration
+public class TokenCipherConfig {
+
+    @Value("${appo.token-encryption.key:}")
+    private String tokenEncryptionKey;
+
+    /**
+     * Creates token cipher with the configured key.
+     *
+     * @return token cipher
+     * @throws IllegalStateException if key is not configured or is not a base64 encoded AES key
+     */
+    @Bean
+    public TokenCipher tokenCipher() {
+        String key = tokenEncryptionKey.trim();
+        if (key.isEmpty()) {
+            throw new IllegalStateException("token encryption key not configured, set TOKEN_ENCRYPTION_KEY");
+        }
+        try {
+            return new TokenCipher(Base64.getDecoder().decode(key));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("invalid token encryption key, TOKEN_ENCRYPTION_KEY must be "
+                    + "a base64 encoded 16, 24 or 32 byte key", e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.spring.boot.starter.configuration.Ordering;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process engine plugin for access tokens persisted encrypted in process variables. Process engine does not start
+ * without a valid token cipher, and sealed access tokens are never written to history, whichever history level is
+ * configured.
+ */
+@Component
+@DependsOn("tokenCipher")
+@Order(Ordering.DEFAULT_ORDER + 1)
+public class TokenCipherPlugin extends AbstractProcessEnginePlugin {
+
+    @Override
+    public void postInit(ProcessEngineConfigurationImpl configuration) {
+        configuration.setHistoryEventHandler(new SealedTokenFilter(configuration.getHistoryEventHandler()));
+    }
+
+    /**
+     * History event handler which drops variable events of sealed access tokens and delegates all other events.
+     */
+    static final class SealedTokenFilter implements HistoryEventHandler {
+
+        private final HistoryEventHandler historyEventHandler;
+
+        SealedTokenFilter(HistoryEventHandler historyEventHandler) {
+            this.historyEventHandler = historyEventHandler;
+        }
+
+        @Override
+        public void handleEvent(HistoryEvent historyEvent) {
+            if (!isSealedToken(historyEvent)) {
+                historyEventHandler.handleEvent(historyEvent);
+            }
+        }
+
+        @Override
+        public void handleEvents(List<HistoryEvent> historyEvents) {
+            historyEventHandler.handleEvents(historyEvents.stream().filter(event -> !isSealedToken(event))
+                    .collect(Collectors.toList()));
+        }
+
+        private static boolean isSealedToken(HistoryEvent historyEvent) {
+            return historyEvent instanceof HistoricVariableUpdateEventEntity
+                    && Constants.SEALED_ACCESS_TOKEN.equals(
+                    ((HistoricVariableUpdateEventEntity) historyEvent).getVariableName());
+        }
+    }
+}
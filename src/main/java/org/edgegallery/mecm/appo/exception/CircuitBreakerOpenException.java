@@ -0,0 +1,36 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.exception;
+
+import java.io.IOException;
+
+/**
+ * Request rejected without being sent, circuit breaker of the remote entity is open.
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+    private static final long serialVersionUID = 4795418563427925416L;
+
+    /**
+     * Constructor to create CircuitBreakerOpenException with remote entity.
+     *
+     * @param endPoint remote entity ip:port
+     */
+    public CircuitBreakerOpenException(String endPoint) {
+        super("circuit breaker open for " + endPoint + ", remote entity is unreachable");
+    }
+}
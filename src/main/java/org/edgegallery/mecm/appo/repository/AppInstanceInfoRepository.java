@@ -27,6 +27,9 @@ public interface AppInstanceInfoRepository extends CrudRepository<AppInstanceInf
     @Query(value = "SELECT * FROM appinstanceinfo m WHERE m.tenant=:tenant", nativeQuery = true)
     List<AppInstanceInfo> findByTenantId(@Param("tenant") String tenant);
 
+    @Query(value = "SELECT COUNT(*) FROM appinstanceinfo m WHERE m.tenant=:tenant", nativeQuery = true)
+    long countByTenantId(@Param("tenant") String tenant);
+
     @Query(value = "SELECT * FROM appinstanceinfo m WHERE m.mec_host=:mec_host", nativeQuery = true)
     List<AppInstanceInfo> findByMecHost(@Param("mec_host") String mecHost);
 
@@ -27,6 +27,13 @@ public interface AppRuleTaskRepository extends CrudRepository<AppRuleTask, Strin
     @Query(value = "SELECT * FROM appruletask m WHERE m.tenant=:tenant", nativeQuery = true)
     List<AppRuleTask> findByTenantId(@Param("tenant") String tenant);
 
+    @Query(value = "SELECT COUNT(*) FROM appruletask m WHERE m.tenant=:tenant", nativeQuery = true)
+    long countByTenantId(@Param("tenant") String tenant);
+
+    @Query(value = "SELECT m.app_rule_task_id FROM appruletask m WHERE m.tenant=:tenant"
+            + " ORDER BY m.create_time LIMIT 1", nativeQuery = true)
+    String findOldestAppRuleTaskId(@Param("tenant") String tenant);
+
     @Query(value = "SELECT * FROM appruletask m WHERE m.tenant=:tenant and m.app_rule_task_id=:app_rule_task_id",
             nativeQuery = true)
     AppRuleTask findByTenantIdAndAppRuleTaskId(@Param("tenant") String tenant,
@@ -17,8 +17,18 @@
 package org.edgegallery.mecm.appo.repository;
 
 import org.edgegallery.mecm.appo.model.AppoTenant;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 public interface AppoTenantRepository extends CrudRepository<AppoTenant, String> {
 
+    @Modifying
+    @Query(value = "INSERT INTO appotenant (tenant) VALUES (:tenant) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("tenant") String tenant);
+
+    @Modifying
+    @Query(value = "DELETE FROM appotenant WHERE tenant=:tenant", nativeQuery = true)
+    int deleteByTenant(@Param("tenant") String tenant);
 }
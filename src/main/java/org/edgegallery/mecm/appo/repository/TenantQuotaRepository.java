@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.repository;
+
+import org.edgegallery.mecm.appo.model.TenantQuotaCounter;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface TenantQuotaRepository extends CrudRepository<TenantQuotaCounter, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO tenantquota (quota_key, entries) VALUES (:quota_key, :entries)"
+            + " ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("quota_key") String quotaKey, @Param("entries") long entries);
+
+    @Query(value = "SELECT entries FROM tenantquota WHERE quota_key=:quota_key FOR UPDATE", nativeQuery = true)
+    Long lockEntries(@Param("quota_key") String quotaKey);
+
+    @Modifying
+    @Query(value = "UPDATE tenantquota SET entries = :entries WHERE quota_key=:quota_key", nativeQuery = true)
+    int setEntries(@Param("quota_key") String quotaKey, @Param("entries") long entries);
+
+    @Modifying
+    @Query(value = "UPDATE tenantquota SET entries = entries + 1 WHERE quota_key=:quota_key AND entries < :limit",
+            nativeQuery = true)
+    int increment(@Param("quota_key") String quotaKey, @Param("limit") long limit);
+
+    @Modifying
+    @Query(value = "UPDATE tenantquota SET entries = entries - 1 WHERE quota_key=:quota_key AND entries > 0",
+            nativeQuery = true)
+    int decrement(@Param("quota_key") String quotaKey);
+}
@@ -0,0 +1,500 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local store of application packages shared by application instances. A package is downloaded once per tenant
+ * and stored under its tenant, package ID and content digest, application instances hold a reference to it.
+ * Packages are not shared across tenants, a tenant is served a package only once APM let it download the package.
+ * Concurrent downloads of the same package are coalesced and packages no longer referenced are evicted least
+ * recently used first once the store exceeds its size quota. References are released once the package is not
+ * needed by the application instance anymore or its process flow failed, and restored from the application
+ * package paths of the instances on restart.
+ */
+@Component
+public class ApplicationPackageStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationPackageStore.class);
+    static final String STORE_DIR = "store";
+    // Sibling of the store, tenant directories of the store may have any name
+    static final String STORE_TMP_DIR = "store.tmp";
+
+    @Value("${appo.package-store.enabled:true}")
+    private boolean isEnabled;
+
+    @Value("${appo.package-store.max-size:10737418240}")
+    private long maxSize;
+
+    @Value("${appo.appPackages.path:}")
+    private String appPkgBasePath;
+
+    // Access ordered, eldest entry is the least recently used package
+    private final Map<String, StoredPackage> packages = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, StoredPackage> references = new HashMap<>();
+    private final Map<String, CompletableFuture<StoredPackage>> downloads = new ConcurrentHashMap<>();
+    private long totalSize;
+
+    /**
+     * Loader of an application package.
+     */
+    @FunctionalInterface
+    public interface PackageLoader {
+
+        /**
+         * Loads application package to the target file.
+         *
+         * @param target file to be created
+         * @return SHA-256 digest of the package
+         * @throws AppoException if package could not be loaded
+         */
+        String load(Path target);
+    }
+
+    /**
+     * Loads packages stored before restart, interrupted downloads are removed.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isEnabled) {
+            return;
+        }
+        Path storeDir = getStoreDir();
+        try {
+            deleteRecursively(getStoreTmpDir());
+            if (!Files.isDirectory(storeDir)) {
+                return;
+            }
+            List<Path> files;
+            try (Stream<Path> paths = Files.walk(storeDir, 3)) {
+                // Stored packages are <store>/<tenant ID>/<package ID>/<digest>.csar
+                files = paths.filter(path -> storeDir.relativize(path).getNameCount() == 3
+                        && path.toString().endsWith(Constants.APP_PKG_EXT))
+                        .collect(Collectors.toList());
+            }
+            synchronized (this) {
+                for (Path file : files) {
+                    Path packageDir = file.getParent();
+                    StoredPackage storedPackage = new StoredPackage(
+                            packageDir.getParent().getFileName().toString(), packageDir.getFileName().toString(),
+                            getPackageName(file), file, Files.size(file));
+                    register(storedPackage);
+                }
+                restoreReferences();
+                evict();
+            }
+            LOGGER.info("package store loaded {} packages of {} bytes", packages.size(), totalSize);
+        } catch (IOException e) {
+            LOGGER.error("failed to load package store: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Acquires application package for an application instance. Package is downloaded unless already stored or
+     * being downloaded for another instance, stored package is then linked to the application package path of
+     * the instance. Download in progress is waited for until the deadline, package is downloaded again if that
+     * download fails.
+     *
+     * @param tenantId      tenant ID
+     * @param appPackageId  application package ID
+     * @param appInstanceId application instance ID
+     * @param appPackage    application package path of the instance
+     * @param deadline      deadline in epoch milliseconds, null for no deadline
+     * @param loader        package loader
+     * @return SHA-256 digest of the package
+     * @throws AppoException if package could not be acquired
+     */
+    public String acquire(String tenantId, String appPackageId, String appInstanceId, Path appPackage,
+                          Long deadline, PackageLoader loader) {
+        if (!isEnabled) {
+            return loader.load(appPackage);
+        }
+
+        StoredPackage storedPackage = null;
+        while (storedPackage == null) {
+            storedPackage = referencePackage(tenantId, appPackageId, appInstanceId, deadline, loader);
+        }
+        try {
+            linkPackage(storedPackage.getPath(), appPackage);
+        } catch (IOException e) {
+            LOGGER.error("Failed to link application package {}: {}", appPackageId, e.getMessage());
+            release(appInstanceId);
+            throw new AppoException("Failed to copy application package " + appPackageId);
+        }
+        return storedPackage.getDigest();
+    }
+
+    /**
+     * Downloads application package ahead of its acquisition, nothing is done if the package is already stored
+     * or being downloaded. Prefetched package is not referenced until acquired and may be evicted meanwhile.
+     *
+     * @param tenantId     tenant ID
+     * @param appPackageId application package ID
+     * @param loader       package loader
+     * @throws AppoException if package could not be downloaded
+     */
+    public void prefetch(String tenantId, String appPackageId, PackageLoader loader) {
+        if (!isEnabled) {
+            return;
+        }
+        String key = getKey(tenantId, appPackageId);
+        synchronized (this) {
+            if (packages.containsKey(key)) {
+                return;
+            }
+        }
+        CompletableFuture<StoredPackage> download = new CompletableFuture<>();
+        if (downloads.putIfAbsent(key, download) == null) {
+            download(tenantId, appPackageId, null, loader, download);
+        }
+    }
+
+    /**
+     * Releases application package reference of an application instance.
+     *
+     * @param appInstanceId application instance ID
+     */
+    public synchronized void release(String appInstanceId) {
+        StoredPackage storedPackage = references.remove(appInstanceId);
+        if (storedPackage == null) {
+            return;
+        }
+        storedPackage.references--;
+        evict();
+    }
+
+    /**
+     * Returns package store statistics.
+     *
+     * @return package store statistics
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled);
+        stats.put("packages", packages.size());
+        stats.put("size", totalSize);
+        stats.put("references", references.size());
+        stats.put("downloads", downloads.size());
+        return stats;
+    }
+
+    /**
+     * References stored package, package is downloaded unless already stored or being downloaded.
+     *
+     * @return referenced package, null if package was evicted before it could be referenced or the download
+     *     waited for failed
+     */
+    private StoredPackage referencePackage(String tenantId, String appPackageId, String appInstanceId,
+                                           Long deadline, PackageLoader loader) {
+        String key = getKey(tenantId, appPackageId);
+        synchronized (this) {
+            StoredPackage storedPackage = packages.get(key);
+            if (storedPackage != null) {
+                LOGGER.info("application package {} served from package store", appPackageId);
+                reference(appInstanceId, storedPackage);
+                return storedPackage;
+            }
+        }
+
+        CompletableFuture<StoredPackage> download = new CompletableFuture<>();
+        CompletableFuture<StoredPackage> inProgress = downloads.putIfAbsent(key, download);
+        if (inProgress != null) {
+            LOGGER.info("application package {} download in progress, waiting", appPackageId);
+            StoredPackage storedPackage = join(inProgress, appPackageId, deadline);
+            if (storedPackage == null) {
+                // Download of another flow or prefetch failed, downloaded again
+                return null;
+            }
+            synchronized (this) {
+                if (storedPackage.isEvicted) {
+                    return null;
+                }
+                reference(appInstanceId, storedPackage);
+                return storedPackage;
+            }
+        }
+
+        return download(tenantId, appPackageId, appInstanceId, loader, download);
+    }
+
+    /**
+     * Downloads and stores package, outcome is shared with instances waiting for the download.
+     */
+    private StoredPackage download(String tenantId, String appPackageId, String appInstanceId, PackageLoader loader,
+                                   CompletableFuture<StoredPackage> download) {
+        // Removed before completion so that waiters retrying after a failure start a new download
+        String key = getKey(tenantId, appPackageId);
+        try {
+            StoredPackage storedPackage = storePackage(tenantId, appPackageId, appInstanceId, loader);
+            downloads.remove(key, download);
+            download.complete(storedPackage);
+            return storedPackage;
+        } catch (RuntimeException e) {
+            downloads.remove(key, download);
+            download.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private StoredPackage storePackage(String tenantId, String appPackageId, String appInstanceId,
+                                       PackageLoader loader) {
+        synchronized (this) {
+            // Stored by a download completed meanwhile
+            StoredPackage storedPackage = packages.get(getKey(tenantId, appPackageId));
+            if (storedPackage != null) {
+                reference(appInstanceId, storedPackage);
+                return storedPackage;
+            }
+        }
+
+        Path tmpFile = getStoreTmpDir().resolve(UUID.randomUUID().toString() + Constants.APP_PKG_EXT);
+        try {
+            Files.createDirectories(tmpFile.getParent());
+            String digest = loader.load(tmpFile);
+
+            Path file = getStoreDir().resolve(tenantId).resolve(appPackageId).resolve(digest + Constants.APP_PKG_EXT);
+            Files.createDirectories(file.getParent());
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            StoredPackage storedPackage = new StoredPackage(tenantId, appPackageId, digest, file, Files.size(file));
+            synchronized (this) {
+                register(storedPackage);
+                reference(appInstanceId, storedPackage);
+                evict();
+            }
+            LOGGER.info("application package {} stored, sha256 {}", appPackageId, digest);
+            return storedPackage;
+        } catch (IOException e) {
+            LOGGER.error("Failed to store application package {}: {}", appPackageId, e.getMessage());
+            throw new AppoException("Failed to copy application package " + appPackageId);
+        } finally {
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    private void register(StoredPackage storedPackage) {
+        StoredPackage previous = packages.put(storedPackage.getKey(), storedPackage);
+        if (previous != null) {
+            totalSize -= previous.getSize();
+            previous.isEvicted = true;
+            if (!previous.getPath().equals(storedPackage.getPath())) {
+                deleteQuietly(previous.getPath());
+            }
+        }
+        totalSize += storedPackage.getSize();
+    }
+
+    private void reference(String appInstanceId, StoredPackage storedPackage) {
+        if (appInstanceId == null) {
+            return;
+        }
+        StoredPackage previous = references.put(appInstanceId, storedPackage);
+        if (previous != storedPackage) {
+            storedPackage.references++;
+            if (previous != null) {
+                previous.references--;
+            }
+        }
+    }
+
+    /**
+     * Restores references of application instances whose application package path is linked to a stored package.
+     */
+    private void restoreReferences() throws IOException {
+        Map<String, List<StoredPackage>> packagesById = packages.values().stream()
+                .collect(Collectors.groupingBy(StoredPackage::getAppPackageId));
+        Path basePath = Paths.get(appPkgBasePath);
+        List<Path> appPackages;
+        try (Stream<Path> paths = Files.walk(basePath, 2)) {
+            // Application package paths are <base path>/<application instance ID>/<package ID>.csar
+            appPackages = paths.filter(path -> basePath.relativize(path).getNameCount() == 2
+                    && !STORE_DIR.equals(path.getParent().getFileName().toString())
+                    && path.toString().endsWith(Constants.APP_PKG_EXT))
+                    .collect(Collectors.toList());
+        }
+        for (Path appPackage : appPackages) {
+            for (StoredPackage storedPackage : packagesById.getOrDefault(getPackageName(appPackage),
+                    Collections.emptyList())) {
+                if (Files.isSameFile(appPackage, storedPackage.getPath())) {
+                    reference(appPackage.getParent().getFileName().toString(), storedPackage);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps store within size quota, referenced packages are not evicted.
+     */
+    private void evict() {
+        Iterator<StoredPackage> iterator = packages.values().iterator();
+        while (totalSize > maxSize && iterator.hasNext()) {
+            StoredPackage storedPackage = iterator.next();
+            if (storedPackage.references > 0) {
+                continue;
+            }
+            iterator.remove();
+            totalSize -= storedPackage.getSize();
+            storedPackage.isEvicted = true;
+            deleteQuietly(storedPackage.getPath());
+            LOGGER.info("application package {} evicted from package store", storedPackage.getAppPackageId());
+        }
+    }
+
+    private Path getStoreDir() {
+        return Paths.get(appPkgBasePath, STORE_DIR);
+    }
+
+    private Path getStoreTmpDir() {
+        return Paths.get(appPkgBasePath, STORE_TMP_DIR);
+    }
+
+    private static String getKey(String tenantId, String appPackageId) {
+        return tenantId + "/" + appPackageId;
+    }
+
+    private static String getPackageName(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.length() - Constants.APP_PKG_EXT.length());
+    }
+
+    /**
+     * Waits for download in progress until the deadline.
+     *
+     * @return stored package, null if download failed
+     * @throws AppoException if deadline is exceeded
+     */
+    private static StoredPackage join(CompletableFuture<StoredPackage> download, String appPackageId,
+                                      Long deadline) {
+        try {
+            if (deadline == null) {
+                return download.get();
+            }
+            return download.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            LOGGER.info("application package {} download waited for failed: {}", appPackageId,
+                    e.getCause().getMessage());
+            return null;
+        } catch (TimeoutException e) {
+            LOGGER.error("request deadline exceeded, waiting for application package {} download", appPackageId);
+            throw new AppoException("Request deadline exceeded before application package download");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppoException("Application package download interrupted");
+        }
+    }
+
+    /**
+     * Links stored package to the application package path, package is copied if file system does not support
+     * links.
+     */
+    private static void linkPackage(Path storedPackage, Path appPackage) throws IOException {
+        try {
+            Files.createLink(appPackage, storedPackage);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            LOGGER.debug("failed to link application package, copying: {}", e.getMessage());
+            Files.copy(storedPackage, appPackage);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            paths = walk.sorted((first, second) -> second.compareTo(first)).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.error("failed to delete {}", path);
+        }
+    }
+
+    private static final class StoredPackage {
+
+        private final String tenantId;
+        private final String appPackageId;
+        private final String digest;
+        private final Path path;
+        private final long size;
+        private int references;
+        private boolean isEvicted;
+
+        StoredPackage(String tenantId, String appPackageId, String digest, Path path, long size) {
+            this.tenantId = tenantId;
+            this.appPackageId = appPackageId;
+            this.digest = digest;
+            this.path = path;
+            this.size = size;
+        }
+
+        String getKey() {
+            return ApplicationPackageStore.getKey(tenantId, appPackageId);
+        }
+
+        String getAppPackageId() {
+            return appPackageId;
+        }
+
+        String getDigest() {
+            return digest;
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        long getSize() {
+            return size;
+        }
+    }
+}
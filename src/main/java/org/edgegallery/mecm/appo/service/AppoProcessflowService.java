@@ -37,4 +37,13 @@ public interface AppoProcessflowService {
      * @return processflow response on success
      */
     AppoProcessFlowResponse executeProcessSync(String processKey, Map<String, String> requestInput);
+
+    /**
+     * Returns deadline of a process flow started now, deadline passed in the input parameters is used by the
+     * process flow instead of a new one.
+     *
+     * @param processKey process key
+     * @return deadline in epoch milliseconds
+     */
+    long getDeadline(String processKey);
 }
\ No newline at end of file
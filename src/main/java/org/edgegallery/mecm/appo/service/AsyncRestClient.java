@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.edgegallery.mecm.appo.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Rest client not blocking the calling thread. Requests are sent by the pooled rest template on a bounded set of
+ * worker threads, hence circuit breaker, connection pool and request deadline of the calling thread apply as for
+ * blocking requests. Requests exceeding the worker queue are rejected without reaching the remote entity.
+ */
+@Component
+public class AsyncRestClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncRestClient.class);
+
+    @Value("${appo.async-client.threads:10}")
+    private int threads;
+
+    @Value("${appo.async-client.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private ThreadPoolTaskExecutor executor;
+
+    /**
+     * Starts worker threads.
+     */
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("appo-async-client-");
+        executor.initialize();
+    }
+
+    /**
+     * Stops worker threads.
+     */
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Sends request to remote entity without blocking the calling thread.
+     *
+     * @param url     request url
+     * @param method  http method
+     * @param headers http headers
+     * @param body    request body, may be null
+     * @return future completed with response entity, or exceptionally with rest client exception
+     */
+    public CompletableFuture<ResponseEntity<String>> exchange(String url, HttpMethod method, HttpHeaders headers,
+                                                              String body) {
+        Long deadline = RequestDeadline.getDeadline();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                RequestDeadline.setDeadline(deadline);
+                try {
+                    LOGGER.info("Sending async request: {}: URL: {}", method, url);
+                    return restTemplate.exchange(url, method, new HttpEntity<>(body, headers), String.class);
+                } finally {
+                    RequestDeadline.clear();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("Async client busy, request {}: URL: {} rejected", method, url);
+            CompletableFuture<ResponseEntity<String>> result = new CompletableFuture<>();
+            result.completeExceptionally(new ResourceAccessException("async client busy"));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.edgegallery.mecm.appo.exception.CircuitBreakerOpenException;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Rest template interceptor guarding requests with circuit breaker of the remote entity. I/O errors and server error
+ * responses are counted as failures. Timeouts shortened by the request deadline are not counted as failures, remote
+ * entity was not given the configured time to respond.
+ */
+public class CircuitBreakerInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final int SERVER_ERROR = 500;
+
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    private final int connectTimeout;
+
+    private final int readTimeout;
+
+    /**
+     * Constructor.
+     *
+     * @param circuitBreakers circuit breakers
+     * @param connectTimeout  configured connect timeout in milliseconds
+     * @param readTimeout     configured read timeout in milliseconds
+     */
+    public CircuitBreakerInterceptor(CircuitBreakerRegistry circuitBreakers, int connectTimeout, int readTimeout) {
+        this.circuitBreakers = circuitBreakers;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String key = CircuitBreakerRegistry.getKey(request.getURI());
+        circuitBreakers.acquirePermission(key);
+        Long remainingTime = RequestDeadline.getRemainingTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            if (response.getRawStatusCode() >= SERVER_ERROR) {
+                circuitBreakers.onFailure(key);
+            } else {
+                circuitBreakers.onSuccess(key);
+            }
+            return response;
+        } catch (CircuitBreakerOpenException e) {
+            throw e;
+        } catch (IOException e) {
+            if (isDeadlineTimeout(e, remainingTime)) {
+                circuitBreakers.onIgnored(key);
+            } else {
+                circuitBreakers.onFailure(key);
+            }
+            throw e;
+        }
+    }
+
+    private boolean isDeadlineTimeout(IOException e, Long remainingTime) {
+        if (remainingTime == null) {
+            return false;
+        }
+        if (e instanceof ConnectTimeoutException) {
+            return remainingTime < connectTimeout;
+        }
+        return e instanceof SocketTimeoutException && remainingTime < readTimeout;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.edgegallery.mecm.appo.exception.CircuitBreakerOpenException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breakers of remote entities, keyed by ip:port. After consecutive connection failures a breaker opens and
+ * requests fail immediately, after the open duration a limited number of trial requests are let through and the
+ * breaker closes again on success.
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreakerRegistry.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Value("${appo.circuit-breaker.enabled:true}")
+    private boolean isEnabled;
+
+    @Value("${appo.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${appo.circuit-breaker.open-duration:30000}")
+    private long openDuration;
+
+    @Value("${appo.circuit-breaker.half-open-max-calls:1}")
+    private int halfOpenMaxCalls;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns circuit breaker key of the remote entity.
+     *
+     * @param uri request uri
+     * @return ip:port of remote entity
+     */
+    public static String getKey(URI uri) {
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getHost() + ":" + port;
+    }
+
+    /**
+     * Acquires permission to send request to remote entity.
+     *
+     * @param key ip:port of remote entity
+     * @throws CircuitBreakerOpenException if circuit breaker is open
+     */
+    public void acquirePermission(String key) throws CircuitBreakerOpenException {
+        if (isEnabled && !circuitBreakers.computeIfAbsent(key, k -> new CircuitBreaker()).tryAcquire(key)) {
+            throw new CircuitBreakerOpenException(key);
+        }
+    }
+
+    /**
+     * Records response received from remote entity.
+     *
+     * @param key ip:port of remote entity
+     */
+    public void onSuccess(String key) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(key);
+        if (circuitBreaker != null) {
+            circuitBreaker.onSuccess(key);
+        }
+    }
+
+    /**
+     * Records connection failure to remote entity.
+     *
+     * @param key ip:port of remote entity
+     */
+    public void onFailure(String key) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(key);
+        if (circuitBreaker != null) {
+            circuitBreaker.onFailure(key);
+        }
+    }
+
+    /**
+     * Records request to remote entity without outcome, such as a timeout caused by the request deadline.
+     *
+     * @param key ip:port of remote entity
+     */
+    public void onIgnored(String key) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(key);
+        if (circuitBreaker != null) {
+            circuitBreaker.onIgnored();
+        }
+    }
+
+    /**
+     * Returns circuit breaker states.
+     *
+     * @return state per remote entity
+     */
+    public Map<String, String> getStates() {
+        Map<String, String> states = new TreeMap<>();
+        circuitBreakers.forEach((key, circuitBreaker) -> states.put(key, circuitBreaker.getState().name()));
+        return states;
+    }
+
+    private final class CircuitBreaker {
+
+        private State state = State.CLOSED;
+        private int failures;
+        private int trialCalls;
+        private long openedAt;
+
+        synchronized boolean tryAcquire(String key) {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < openDuration) {
+                    return false;
+                }
+                LOGGER.info("circuit breaker half open for {}", key);
+                state = State.HALF_OPEN;
+                trialCalls = 0;
+                openedAt = System.currentTimeMillis();
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialCalls >= halfOpenMaxCalls) {
+                    // Trial calls without outcome are given up after another open duration
+                    if (System.currentTimeMillis() - openedAt < openDuration) {
+                        return false;
+                    }
+                    trialCalls = 0;
+                    openedAt = System.currentTimeMillis();
+                }
+                trialCalls++;
+            }
+            return true;
+        }
+
+        synchronized void onSuccess(String key) {
+            if (state != State.CLOSED) {
+                LOGGER.info("circuit breaker closed for {}", key);
+            }
+            state = State.CLOSED;
+            failures = 0;
+        }
+
+        synchronized void onFailure(String key) {
+            failures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+                LOGGER.error("circuit breaker open for {} after {} failures", key, failures);
+                state = State.OPEN;
+                openedAt = System.currentTimeMillis();
+            }
+        }
+
+        synchronized void onIgnored() {
+            // Trial call slot is released for another trial
+            if (state == State.HALF_OPEN && trialCalls > 0) {
+                trialCalls--;
+            }
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,446 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.edgegallery.mecm.appo.service.impl.RestServiceImpl;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.edgegallery.mecm.appo.utils.JsonResponseReader;
+import org.edgegallery.mecm.appo.utils.UrlUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+/**
+ * In memory snapshot of MEC hosts and MEPMs of tenants, used by process flows instead of a host and a MEPM lookup
+ * per application instance. Snapshot of a tenant is bulk loaded on first use with the inventory list APIs, and
+ * refreshed after the refresh interval on first use, changed records are applied in place. Loads and refreshes run
+ * on the snapshot thread with the access token of the request triggering them, tokens are not kept afterwards.
+ * Requests wait for the first load within their deadline, and are served from the stale snapshot while it is
+ * refreshed. After a failed load the snapshot is not loaded again for the failure backoff, lookups fall back to
+ * inventory meanwhile. A failed refresh keeps the stale snapshot and is retried after the failure backoff.
+ * Snapshots of tenants not used for the idle timeout are dropped.
+ */
+@Component
+public class InventorySnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InventorySnapshot.class);
+
+    @Value("${appo.inventory-snapshot.enabled:true}")
+    private boolean isEnabled;
+
+    @Value("${appo.inventory-snapshot.refresh-interval:60000}")
+    private long refreshInterval;
+
+    @Value("${appo.inventory-snapshot.idle-timeout:1800000}")
+    private long idleTimeout;
+
+    @Value("${appo.inventory-snapshot.failure-backoff:30000}")
+    private long failureBackoff;
+
+    @Value("${appo.endpoints.inventory.end-point}")
+    private String inventoryService;
+
+    @Value("${appo.endpoints.inventory.port}")
+    private String inventoryServicePort;
+
+    @Autowired
+    private RestServiceImpl restService;
+
+    private final Map<String, TenantSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Starts snapshot thread, loading snapshots and periodically evicting idle ones.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isEnabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::evictIdle, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops snapshot thread.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns MEC host from snapshot of the tenant, snapshot is loaded on first use.
+     *
+     * @param tenantId    tenant ID
+     * @param hostIp      host ip
+     * @param accessToken access token
+     * @return MEC host, null if not in snapshot
+     */
+    public MecHost getMecHost(String tenantId, String hostIp, String accessToken) {
+        TenantSnapshot snapshot = getSnapshot(tenantId, accessToken);
+        return snapshot != null ? snapshot.hosts.get(hostIp) : null;
+    }
+
+    /**
+     * Returns MEPM port from snapshot of the tenant, snapshot is loaded on first use.
+     *
+     * @param tenantId    tenant ID
+     * @param mepmIp      MEPM ip
+     * @param accessToken access token
+     * @return MEPM port, null if not in snapshot
+     */
+    public String getMepmPort(String tenantId, String mepmIp, String accessToken) {
+        TenantSnapshot snapshot = getSnapshot(tenantId, accessToken);
+        return snapshot != null ? snapshot.mepmPorts.get(mepmIp) : null;
+    }
+
+    /**
+     * Adds MEC host looked up on snapshot miss.
+     *
+     * @param tenantId tenant ID
+     * @param host     MEC host
+     */
+    public void putMecHost(String tenantId, MecHost host) {
+        TenantSnapshot snapshot = tenantId != null ? snapshots.get(tenantId) : null;
+        if (snapshot != null && host.getHostIp() != null && host.getMepmIp() != null) {
+            snapshot.hosts.put(host.getHostIp(), host);
+        }
+    }
+
+    /**
+     * Adds MEPM port looked up on snapshot miss.
+     *
+     * @param tenantId tenant ID
+     * @param mepmIp   MEPM ip
+     * @param mepmPort MEPM port
+     */
+    public void putMepmPort(String tenantId, String mepmIp, String mepmPort) {
+        TenantSnapshot snapshot = tenantId != null ? snapshots.get(tenantId) : null;
+        if (snapshot != null && mepmIp != null && mepmPort != null) {
+            snapshot.mepmPorts.put(mepmIp, mepmPort);
+        }
+    }
+
+    /**
+     * Drops snapshot of the tenant.
+     *
+     * @param tenantId tenant ID
+     */
+    public void invalidate(String tenantId) {
+        snapshots.remove(tenantId);
+    }
+
+    /**
+     * Reads MEC host record.
+     *
+     * @param response MEC host record
+     * @return MEC host
+     */
+    public static MecHost readMecHost(String response) {
+        try (JsonReader reader = new JsonReader(new StringReader(response))) {
+            return readMecHost(reader);
+        } catch (IOException | IllegalStateException e) {
+            throw new AppoException("invalid MEC host record: " + e.getMessage());
+        }
+    }
+
+    private static MecHost readMecHost(JsonReader reader) throws IOException {
+        String[] ips = new String[2];
+        List<String> hwTypes = new LinkedList<>();
+        boolean[] hasHwTypes = new boolean[1];
+        JsonResponseReader.readObject(reader, (name, valueReader) -> {
+            if ("mechostIp".equals(name)) {
+                ips[0] = JsonResponseReader.nextString(valueReader);
+            } else if ("mepmIp".equals(name)) {
+                ips[1] = JsonResponseReader.nextString(valueReader);
+            } else if ("hwcapabilities".equals(name) && valueReader.peek() == JsonToken.BEGIN_ARRAY) {
+                hasHwTypes[0] = true;
+                readHwTypes(valueReader, hwTypes);
+            } else {
+                valueReader.skipValue();
+            }
+        });
+        return new MecHost(ips[0], ips[1], hasHwTypes[0] ? hwTypes : null);
+    }
+
+    private static void readHwTypes(JsonReader reader, List<String> hwTypes) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonResponseReader.readObject(reader, (name, valueReader) -> {
+                if ("hwType".equals(name)) {
+                    String hwType = JsonResponseReader.nextString(valueReader);
+                    if (hwType != null) {
+                        hwTypes.add(hwType);
+                    }
+                } else {
+                    valueReader.skipValue();
+                }
+            });
+        }
+        reader.endArray();
+    }
+
+    private TenantSnapshot getSnapshot(String tenantId, String accessToken) {
+        if (!isEnabled || tenantId == null || accessToken == null) {
+            return null;
+        }
+        TenantSnapshot snapshot = snapshots.get(tenantId);
+        if (snapshot == null || snapshot.isRetryDue(failureBackoff)) {
+            TenantSnapshot newSnapshot = new TenantSnapshot();
+            boolean isLoader = snapshot == null ? snapshots.putIfAbsent(tenantId, newSnapshot) == null
+                    : snapshots.replace(tenantId, snapshot, newSnapshot);
+            if (isLoader) {
+                // Concurrent first uses wait for this load within their deadline
+                submit(tenantId, () -> load(tenantId, newSnapshot, accessToken), newSnapshot);
+            }
+            snapshot = snapshots.get(tenantId);
+            if (snapshot == null) {
+                return null;
+            }
+        }
+        long now = System.currentTimeMillis();
+        snapshot.lastUsed = now;
+        if (!isLoaded(snapshot)) {
+            return null;
+        }
+        if (now - snapshot.refreshedAt >= refreshInterval && now - snapshot.failedAt >= failureBackoff
+                && snapshot.refreshing.compareAndSet(false, true)) {
+            // Uses are served from the stale snapshot until the refresh is applied
+            TenantSnapshot refreshed = snapshot;
+            submit(tenantId, () -> refreshStale(tenantId, refreshed, accessToken), refreshed);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Waits for the snapshot to be loaded, wait is bounded by the request deadline. Without a deadline the snapshot
+     * is used only once loaded.
+     *
+     * @param snapshot snapshot
+     * @return true if loaded
+     */
+    private static boolean isLoaded(TenantSnapshot snapshot) {
+        if (snapshot.loaded.isDone()) {
+            return !snapshot.loaded.isCompletedExceptionally();
+        }
+        Long remainingTime = RequestDeadline.getRemainingTime();
+        if (remainingTime == null || remainingTime <= 0) {
+            return false;
+        }
+        try {
+            snapshot.loaded.get(remainingTime, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void submit(String tenantId, Runnable task, TenantSnapshot snapshot) {
+        try {
+            scheduler.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("inventory snapshot of tenant {} not loaded, scheduler stopped", tenantId);
+            snapshot.refreshing.set(false);
+            snapshot.loaded.completeExceptionally(e);
+        }
+    }
+
+    private void load(String tenantId, TenantSnapshot snapshot, String accessToken) {
+        try {
+            refresh(tenantId, snapshot, accessToken);
+            snapshot.loaded.complete(null);
+        } catch (RuntimeException e) {
+            LOGGER.error("failed to load inventory snapshot of tenant {}: {}", tenantId, e.getMessage());
+            snapshot.failedAt = System.currentTimeMillis();
+            snapshot.loaded.completeExceptionally(e);
+        }
+    }
+
+    private void refreshStale(String tenantId, TenantSnapshot snapshot, String accessToken) {
+        try {
+            refresh(tenantId, snapshot, accessToken);
+        } catch (RuntimeException e) {
+            // Stale snapshot is kept, refresh is retried after the failure backoff
+            LOGGER.error("failed to refresh inventory snapshot of tenant {}: {}", tenantId, e.getMessage());
+            snapshot.failedAt = System.currentTimeMillis();
+        } finally {
+            snapshot.refreshing.set(false);
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        snapshots.forEach((tenantId, snapshot) -> {
+            if (snapshot.loaded.isDone() && now - snapshot.lastUsed > idleTimeout) {
+                snapshots.remove(tenantId, snapshot);
+            }
+        });
+    }
+
+    private void refresh(String tenantId, TenantSnapshot snapshot, String accessToken) {
+        UrlUtil urlUtil = new UrlUtil();
+        urlUtil.addParams(Constants.TENANT_ID, tenantId);
+        String hosts = restService.sendRequest(getInventoryUrl(urlUtil.getUrl(Constants.INVENTORY_MEC_HOSTS_URI)),
+                HttpMethod.GET, accessToken, null).getBody();
+        String mepms = restService.sendRequest(getInventoryUrl(Constants.INVENTORY_MEPMS_URI), HttpMethod.GET,
+                accessToken, null).getBody();
+
+        int changes = merge(snapshot.hosts, readMecHosts(hosts)) + merge(snapshot.mepmPorts, readMepmPorts(mepms));
+        snapshot.refreshedAt = System.currentTimeMillis();
+        LOGGER.debug("inventory snapshot of tenant {} refreshed, {} records changed", tenantId, changes);
+    }
+
+    private String getInventoryUrl(String uri) {
+        return inventoryService + ":" + inventoryServicePort + uri;
+    }
+
+    private static Map<String, MecHost> readMecHosts(String response) {
+        Map<String, MecHost> hosts = new HashMap<>();
+        readArray(response, reader -> {
+            MecHost host = readMecHost(reader);
+            if (host.getHostIp() != null && host.getMepmIp() != null) {
+                hosts.put(host.getHostIp(), host);
+            }
+        });
+        return hosts;
+    }
+
+    private static Map<String, String> readMepmPorts(String response) {
+        Map<String, String> mepmPorts = new HashMap<>();
+        readArray(response, reader -> {
+            String[] mepm = new String[2];
+            JsonResponseReader.readObject(reader, (name, valueReader) -> {
+                if ("mepmIp".equals(name)) {
+                    mepm[0] = JsonResponseReader.nextString(valueReader);
+                } else if ("mepmPort".equals(name)) {
+                    mepm[1] = JsonResponseReader.nextString(valueReader);
+                } else {
+                    valueReader.skipValue();
+                }
+            });
+            if (mepm[0] != null && mepm[1] != null) {
+                mepmPorts.put(mepm[0], mepm[1]);
+            }
+        });
+        return mepmPorts;
+    }
+
+    private static void readArray(String response, ElementReader elementReader) {
+        if (response == null) {
+            throw new AppoException("empty inventory response");
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(response))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                elementReader.read(reader);
+            }
+            reader.endArray();
+        } catch (IOException | IllegalStateException e) {
+            throw new AppoException("invalid inventory response: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies latest records to snapshot, records no longer present are removed.
+     *
+     * @param current snapshot records
+     * @param latest  latest records
+     * @return number of records changed
+     */
+    private static <V> int merge(Map<String, V> current, Map<String, V> latest) {
+        int size = current.size();
+        current.keySet().retainAll(latest.keySet());
+        int changes = size - current.size();
+        for (Map.Entry<String, V> entry : latest.entrySet()) {
+            if (!entry.getValue().equals(current.put(entry.getKey(), entry.getValue()))) {
+                changes++;
+            }
+        }
+        return changes;
+    }
+
+    @FunctionalInterface
+    private interface ElementReader {
+
+        void read(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * MEC host record.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static final class MecHost {
+
+        private final String hostIp;
+        private final String mepmIp;
+        private final List<String> hwTypes;
+    }
+
+    private static final class TenantSnapshot {
+
+        private final Map<String, MecHost> hosts = new ConcurrentHashMap<>();
+        private final Map<String, String> mepmPorts = new ConcurrentHashMap<>();
+        private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long refreshedAt;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile long failedAt;
+
+        boolean isRetryDue(long failureBackoff) {
+            return loaded.isCompletedExceptionally() && System.currentTimeMillis() - failedAt >= failureBackoff;
+        }
+    }
+}
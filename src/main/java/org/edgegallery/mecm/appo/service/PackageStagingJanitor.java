@@ -0,0 +1,289 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.edgegallery.mecm.appo.bpmn.tasks.PackagePrefetcher;
+import org.edgegallery.mecm.appo.model.AppInstanceInfo;
+import org.edgegallery.mecm.appo.repository.AppInstanceInfoRepository;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Removes application package staging directories no longer needed. A staging directory is created per
+ * application instance and is removed once the instance is instantiated, failed to create or no longer exists.
+ * Staging directories of instances being created are kept unless not modified for the creating max age, e.g. the
+ * process flow is stuck in an incident, other directories are removed oldest first while the staging area exceeds
+ * its size quota. Packages linked to the package store are counted by the store, not in the staging size.
+ * Directories modified within the minimum age are never removed. Pending
+ * package prefetches of instances failed to create or no longer existing, and prefetches past their deadline, are
+ * cancelled as well.
+ */
+@Component
+public class PackageStagingJanitor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackageStagingJanitor.class);
+
+    @Value("${appo.package-janitor.enabled:true}")
+    private boolean isEnabled;
+
+    @Value("${appo.package-janitor.interval:300000}")
+    private long interval;
+
+    @Value("${appo.package-janitor.min-age:600000}")
+    private long minAge;
+
+    @Value("${appo.package-janitor.max-size:21474836480}")
+    private long maxSize;
+
+    @Value("${appo.package-janitor.creating-max-age:86400000}")
+    private long creatingMaxAge;
+
+    @Value("${appo.appPackages.path:}")
+    private String appPkgBasePath;
+
+    @Autowired
+    private AppInstanceInfoRepository appInstanceInfoRepository;
+
+    @Autowired
+    private ApplicationPackageStore packageStore;
+
+    @Autowired
+    private PackagePrefetcher packagePrefetcher;
+
+    private final AtomicLong stagingSize = new AtomicLong();
+
+    private final AtomicLong stagingDirs = new AtomicLong();
+
+    private final AtomicLong removedDirs = new AtomicLong();
+
+    private final AtomicLong evictedDirs = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Starts periodic clean up of staging directories.
+     */
+    @PostConstruct
+    public void init() {
+        if (!isEnabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "package-janitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::cleanUp, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops periodic clean up of staging directories.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Reconciles staging directories and pending prefetches with application instances and enforces the staging
+     * size quota.
+     */
+    public void cleanUp() {
+        cancelPrefetches();
+        try {
+            long now = System.currentTimeMillis();
+            List<StagingDir> kept = new ArrayList<>();
+            for (StagingDir dir : listStagingDirs()) {
+                if (now - dir.lastModified < minAge) {
+                    kept.add(dir);
+                    continue;
+                }
+                Optional<AppInstanceInfo> appInstanceInfo = appInstanceInfoRepository.findById(dir.appInstanceId);
+                if (!appInstanceInfo.isPresent() || isPackageReleased(appInstanceInfo.get())) {
+                    remove(dir);
+                    removedDirs.incrementAndGet();
+                    continue;
+                }
+                dir.isEvictable = !Constants.OPER_STATUS_CREATING.equals(
+                        appInstanceInfo.get().getOperationalStatus()) || now - dir.lastModified >= creatingMaxAge;
+                kept.add(dir);
+            }
+
+            long totalSize = kept.stream().mapToLong(dir -> dir.size).sum();
+            kept.sort(Comparator.comparingLong(dir -> dir.lastModified));
+            for (StagingDir dir : kept) {
+                if (totalSize <= maxSize) {
+                    break;
+                }
+                if (dir.isEvictable) {
+                    LOGGER.info("staging size {} exceeds quota, evicting staging directory of {}", totalSize,
+                            dir.appInstanceId);
+                    remove(dir);
+                    evictedDirs.incrementAndGet();
+                    totalSize -= dir.size;
+                }
+            }
+            stagingDirs.set(kept.stream().filter(dir -> Files.exists(dir.path)).count());
+            stagingSize.set(totalSize);
+        } catch (IOException | RuntimeException e) {
+            // Retried at next interval
+            LOGGER.error("failed to clean up package staging directories: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cancels pending prefetches not needed anymore, the process flow may have ended without cancelling them, e.g.
+     * on an incident.
+     */
+    private void cancelPrefetches() {
+        try {
+            packagePrefetcher.cancelExpired();
+            for (String appInstanceId : packagePrefetcher.getPendingAppInstanceIds()) {
+                Optional<AppInstanceInfo> appInstanceInfo = appInstanceInfoRepository.findById(appInstanceId);
+                if (!appInstanceInfo.isPresent() || isPackageReleased(appInstanceInfo.get())) {
+                    packagePrefetcher.cancel(appInstanceId);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Retried at next interval
+            LOGGER.error("failed to cancel package prefetches: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns disk usage of application packages.
+     *
+     * @return staging area and package store usage, free space of the package volume
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled);
+        stats.put("staging_dirs", stagingDirs.get());
+        stats.put("staging_size", stagingSize.get());
+        stats.put("staging_max_size", maxSize);
+        stats.put("removed_dirs", removedDirs.get());
+        stats.put("evicted_dirs", evictedDirs.get());
+        stats.put("package_store", packageStore.getStats());
+        try {
+            FileStore fileStore = Files.getFileStore(Paths.get(appPkgBasePath));
+            stats.put("volume_total_space", fileStore.getTotalSpace());
+            stats.put("volume_usable_space", fileStore.getUsableSpace());
+        } catch (IOException e) {
+            LOGGER.debug("failed to get package volume usage: {}", e.getMessage());
+        }
+        return stats;
+    }
+
+    /**
+     * Returns true if staging package is not needed anymore, package is only used until the application instance
+     * is instantiated.
+     */
+    private static boolean isPackageReleased(AppInstanceInfo appInstanceInfo) {
+        String status = appInstanceInfo.getOperationalStatus();
+        return Constants.OPER_STATUS_CREATE_FAILED.equals(status) || Constants.OPER_STATUS_INSTANTIATED.equals(status);
+    }
+
+    private List<StagingDir> listStagingDirs() throws IOException {
+        Path basePath = Paths.get(appPkgBasePath);
+        if (!Files.isDirectory(basePath)) {
+            return new ArrayList<>();
+        }
+        List<Path> dirs;
+        try (Stream<Path> paths = Files.list(basePath)) {
+            dirs = paths.filter(Files::isDirectory)
+                    .filter(path -> !ApplicationPackageStore.STORE_DIR.equals(path.getFileName().toString())
+                            && !ApplicationPackageStore.STORE_TMP_DIR.equals(path.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+        List<StagingDir> stagingDirList = new ArrayList<>();
+        for (Path dir : dirs) {
+            stagingDirList.add(new StagingDir(dir));
+        }
+        return stagingDirList;
+    }
+
+    private void remove(StagingDir dir) throws IOException {
+        LOGGER.info("removing package staging directory of {}", dir.appInstanceId);
+        packageStore.release(dir.appInstanceId);
+        FileSystemUtils.deleteRecursively(dir.path);
+    }
+
+    private static final class StagingDir {
+
+        private final Path path;
+        private final String appInstanceId;
+        private final long lastModified;
+        private final long size;
+        private boolean isEvictable;
+
+        StagingDir(Path path) throws IOException {
+            this.path = path;
+            this.appInstanceId = path.getFileName().toString();
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            long dirSize = 0;
+            try (Stream<Path> files = Files.walk(path)) {
+                for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                    modified = Math.max(modified, Files.getLastModifiedTime(file).toMillis());
+                    if (!isLinked(file)) {
+                        dirSize += Files.size(file);
+                    }
+                }
+            }
+            this.lastModified = modified;
+            this.size = dirSize;
+        }
+
+        /**
+         * Returns true if file is a hard link to a package of the package store, space is released only once the
+         * store evicts the package.
+         */
+        private static boolean isLinked(Path file) throws IOException {
+            try {
+                return (Integer) Files.getAttribute(file, "unix:nlink") > 1;
+            } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                // Packages are copied if file system does not support links
+                return false;
+            }
+        }
+    }
+}
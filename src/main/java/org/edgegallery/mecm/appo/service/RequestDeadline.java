@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+/**
+ * Deadline of the request being executed by current thread, remaining time is applied as timeout of outbound
+ * requests. Deadline is kept as absolute time, remaining time is computed at each check.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Sets deadline for outbound requests of current thread.
+     *
+     * @param deadline deadline in epoch milliseconds, null for no deadline
+     */
+    public static void setDeadline(Long deadline) {
+        if (deadline == null) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(deadline);
+        }
+    }
+
+    /**
+     * Returns deadline for outbound requests of current thread.
+     *
+     * @return deadline in epoch milliseconds, null for no deadline
+     */
+    public static Long getDeadline() {
+        return DEADLINE.get();
+    }
+
+    /**
+     * Returns time remaining until the deadline of current thread.
+     *
+     * @return remaining time in milliseconds, null for no deadline
+     */
+    public static Long getRemainingTime() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? null : deadline - System.currentTimeMillis();
+    }
+
+    /**
+     * Clears deadline of current thread.
+     */
+    public static void clear() {
+        DEADLINE.remove();
+    }
+}
@@ -27,6 +27,14 @@ import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
 import lombok.AllArgsConstructor;
@@ -34,14 +42,23 @@ import lombok.Getter;
 import lombok.Setter;
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.ServiceUnavailableRetryStrategy;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.HttpHostConnectException;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.DefaultServiceUnavailableRetryStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.ssl.SSLContexts;
 import org.edgegallery.mecm.appo.exception.AppoException;
@@ -54,13 +71,86 @@ import org.slf4j.LoggerFactory;
 public class RestClientHelper {
 
     public static final int MAX_RETRY = 3;
-    public static final int WAIT_PERIOD = 10;
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final long INITIAL_BACKOFF = 200;
+    private static final long MAX_BACKOFF = 2000;
+    private static final Set<Integer> RETRYABLE_STATUS = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList(HttpStatus.SC_BAD_GATEWAY, HttpStatus.SC_SERVICE_UNAVAILABLE,
+                    HttpStatus.SC_GATEWAY_TIMEOUT)));
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
     private static final Logger LOGGER = LoggerFactory.getLogger(RestClientHelper.class);
 
     private boolean isSslEnabled;
     private String trustStorePath;
     private String trustStorePasswd;
 
+    /**
+     * Returns whether a request may be retried. Requests with a body are retried only if they carry an
+     * idempotency key, remote entity then does not repeat the operation.
+     *
+     * @param request http request
+     * @return true if request can be sent again
+     */
+    private static boolean isIdempotent(HttpRequest request) {
+        return !(request instanceof HttpEntityEnclosingRequest) || request.containsHeader(IDEMPOTENCY_KEY);
+    }
+
+    /**
+     * Waits before retrying, exponential backoff bounded by MAX_BACKOFF with jitter. Retry is given up if the
+     * wait does not fit in the time remaining until the request deadline, timeouts of the retried request are
+     * bounded by the time remaining after the wait.
+     *
+     * @param retries retries done so far, starting with 1
+     * @param ctx     http context of the request
+     * @return true if request can be retried
+     */
+    private static boolean backoff(int retries, HttpContext ctx) {
+        long backoff = Math.min(MAX_BACKOFF, INITIAL_BACKOFF << Math.min(retries - 1, 16));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        Long remainingTime = RequestDeadline.getRemainingTime();
+        if (remainingTime != null && remainingTime <= delay) {
+            return false;
+        }
+        LOGGER.info("Retrying request in {} ms, retry {}", delay, retries);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        remainingTime = RequestDeadline.getRemainingTime();
+        if (remainingTime == null) {
+            return true;
+        }
+        if (remainingTime <= 0) {
+            return false;
+        }
+        HttpClientContext clientCtx = HttpClientContext.adapt(ctx);
+        clientCtx.setRequestConfig(capTimeouts(clientCtx.getRequestConfig(),
+                (int) Math.min(remainingTime, Integer.MAX_VALUE)));
+        return true;
+    }
+
+    /**
+     * Returns request config with timeouts bounded by given time.
+     *
+     * @param config  request config
+     * @param timeout upper bound of timeouts in milliseconds
+     * @return bounded request config
+     */
+    static RequestConfig capTimeouts(RequestConfig config, int timeout) {
+        return RequestConfig.copy(config)
+                .setConnectTimeout(capTimeout(config.getConnectTimeout(), timeout))
+                .setSocketTimeout(capTimeout(config.getSocketTimeout(), timeout))
+                .setConnectionRequestTimeout(capTimeout(config.getConnectionRequestTimeout(), timeout))
+                .build();
+    }
+
+    private static int capTimeout(int configured, int timeout) {
+        // Non positive timeout is infinite or system default
+        return configured <= 0 ? timeout : Math.min(configured, timeout);
+    }
+
     private Boolean isRetryAllowed(IOException exception, int retries, int maxRetry) {
         if (retries >= maxRetry) {
             return false;
@@ -78,14 +168,33 @@ public class RestClientHelper {
 
             HttpClientContext clientCtx = HttpClientContext.adapt(ctx);
             HttpRequest request = clientCtx.getRequest();
-            boolean idempotent = !(request instanceof HttpEntityEnclosingRequest);
-            if (idempotent) {
-                return Boolean.TRUE;
+            if (isIdempotent(request)) {
+                return backoff(retries, ctx);
             }
             return Boolean.FALSE;
         };
     }
 
+    private ServiceUnavailableRetryStrategy unavailableRetryMechanism(int maxRetry) {
+        return new ServiceUnavailableRetryStrategy() {
+            @Override
+            public boolean retryRequest(HttpResponse response, int executionCount, HttpContext ctx) {
+                if (executionCount > maxRetry
+                        || !RETRYABLE_STATUS.contains(response.getStatusLine().getStatusCode())) {
+                    return false;
+                }
+                HttpRequest request = HttpClientContext.adapt(ctx).getRequest();
+                return isIdempotent(request) && backoff(executionCount, ctx);
+            }
+
+            @Override
+            public long getRetryInterval() {
+                // Backoff is applied when deciding to retry
+                return 0;
+            }
+        };
+    }
+
     private KeyStore getKeyStore(String keyStorePath, String password) {
         KeyStore keystore;
         try (FileInputStream is = new FileInputStream(keyStorePath)) {
@@ -99,35 +208,79 @@ public class RestClientHelper {
     }
 
     /**
-     * Retrieve closeable http client.
+     * Retrieve pooled connection manager. Connections, and with them TLS sessions, are kept and reused
+     * across requests to the same route.
      *
-     * @return http client
+     * @param maxTotal    maximum connections in total
+     * @param maxPerRoute maximum connections per route
+     * @return connection manager
      */
-    public CloseableHttpClient buildHttpClient() {
-        LOGGER.info("Build Http client...");
-        CloseableHttpClient httpClient;
-        try {
-            if (isSslEnabled) {
+    public PoolingHttpClientConnectionManager buildConnectionManager(int maxTotal, int maxPerRoute) {
+        RegistryBuilder<ConnectionSocketFactory> registryBuilder = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory());
+        if (isSslEnabled) {
+            try {
                 KeyStore ks = getKeyStore(trustStorePath, trustStorePasswd);
                 SSLContext sslctx = SSLContexts.custom().loadTrustMaterial(ks, new TrustSelfSignedStrategy())
                         .setProtocol(TLS_VER).build();
-                SSLConnectionSocketFactory sslFactory =
-                        new SSLConnectionSocketFactory(sslctx, (s, sslSession) -> true);
-
-                httpClient = HttpClients.custom().setRetryHandler(retryMechanism(MAX_RETRY))
-                        .setServiceUnavailableRetryStrategy(
-                                new DefaultServiceUnavailableRetryStrategy(MAX_RETRY, WAIT_PERIOD))
-                        .setSSLSocketFactory(sslFactory).build();
-            } else {
-                httpClient = HttpClients.custom().setRetryHandler(retryMechanism(MAX_RETRY))
-                        .setServiceUnavailableRetryStrategy(
-                                new DefaultServiceUnavailableRetryStrategy(MAX_RETRY, WAIT_PERIOD))
-                        .build();
+                registryBuilder.register("https", new SSLConnectionSocketFactory(sslctx, (s, sslSession) -> true));
+            } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
+                LOGGER.info("Failed to build client...{}", e.getMessage());
+                throw new AppoException(e.getMessage());
             }
-        } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
-            LOGGER.info("Failed to build client...{}", e.getMessage());
-            throw new AppoException(e.getMessage());
+        } else {
+            registryBuilder.register("https", SSLConnectionSocketFactory.getSocketFactory());
         }
-        return httpClient;
+
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(registryBuilder.build());
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+        return connectionManager;
+    }
+
+    /**
+     * Retrieve pooled closeable http client.
+     *
+     * @param connectionManager connection manager
+     * @param requestConfig     request timeouts
+     * @param keepAliveMillis   keep alive duration, when not sent by server
+     * @param maxIdleMillis     idle duration after which connections are evicted
+     * @return http client
+     */
+    public CloseableHttpClient buildHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                               RequestConfig requestConfig, long keepAliveMillis,
+                                               long maxIdleMillis) {
+        LOGGER.info("Build pooled Http client...");
+        return HttpClients.custom().setRetryHandler(retryMechanism(MAX_RETRY))
+                .setServiceUnavailableRetryStrategy(unavailableRetryMechanism(MAX_RETRY))
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response,
+                            context);
+                    return keepAlive > 0 ? keepAlive : keepAliveMillis;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns connection pool statistics.
+     *
+     * @param connectionManager connection manager
+     * @return pool statistics
+     */
+    public static Map<String, Object> getPoolStats(PoolingHttpClientConnectionManager connectionManager) {
+        PoolStats totalStats = connectionManager.getTotalStats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("leased", totalStats.getLeased());
+        stats.put("available", totalStats.getAvailable());
+        stats.put("pending", totalStats.getPending());
+        stats.put("max", totalStats.getMax());
+        stats.put("routes", connectionManager.getRoutes().size());
+        return stats;
     }
 }
@@ -16,6 +16,7 @@
 
 package org.edgegallery.mecm.appo.service;
 
+import java.util.concurrent.CompletableFuture;
 import org.edgegallery.mecm.appo.apihandler.dto.SyncBaseDto;
 import org.edgegallery.mecm.appo.utils.AppoV2Response;
 import org.springframework.http.HttpMethod;
@@ -37,6 +38,18 @@ public interface RestService {
      */
     <T extends SyncBaseDto> ResponseEntity<T> syncRecords(String url, Class<T> responseClass, String token);
 
+    /**
+     * Synchronizes updated or inserted records without blocking the calling thread.
+     *
+     * @param url           url of MEPM component
+     * @param responseClass class to which response needs to be mapped
+     * @param token         access token
+     * @param <T>           type of body
+     * @return future completed with response entity with body of type T
+     */
+    <T extends SyncBaseDto> CompletableFuture<ResponseEntity<T>> syncRecordsAsync(String url, Class<T> responseClass,
+                                                                                 String token);
+
     /**
      * Send requests to desired end point.
      *
@@ -0,0 +1,302 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.edgegallery.mecm.appo.model.TenantQuotaCounter;
+import org.edgegallery.mecm.appo.repository.AppInstanceInfoRepository;
+import org.edgegallery.mecm.appo.repository.AppRuleTaskRepository;
+import org.edgegallery.mecm.appo.repository.AppoTenantRepository;
+import org.edgegallery.mecm.appo.repository.TenantQuotaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tenant quota counters. Number of tenants and number of application instances and application rule tasks per
+ * tenant are kept in counter rows of the database, created with count queries on first use. Reservation increments
+ * the counter row with a conditional update in the transaction of the insert, the row stays locked until commit so
+ * limits hold across instances and a rollback gives the reservation back. A reached limit is remembered in memory
+ * for the cache TTL to reject further reservations without a database round trip. Counter rows are periodically
+ * reconciled with count queries, correcting drift left by entries changed outside of a reservation.
+ */
+@Component
+public class TenantQuota {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantQuota.class);
+
+    private static final String TENANTS_KEY = "tenants";
+
+    private static final String APP_INSTANCES_KEY = "appinstances/";
+
+    private static final String APP_RULE_TASKS_KEY = "appruletasks/";
+
+    @Value("${appo.tenant-quota.max-tenants:20}")
+    private int maxTenants;
+
+    @Value("${appo.tenant-quota.max-entries-per-tenant:50}")
+    private int maxEntriesPerTenant;
+
+    @Value("${appo.tenant-quota.cache-ttl:60000}")
+    private long cacheTtl;
+
+    @Value("${appo.tenant-quota.reconcile-interval:600000}")
+    private long reconcileInterval;
+
+    private final TenantQuotaRepository tenantQuotaRepository;
+
+    private final AppInstanceInfoRepository appInstanceInfoRepository;
+
+    private final AppRuleTaskRepository appRuleTaskRepository;
+
+    private final AppoTenantRepository appoTenantRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Long> limitsReached = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor.
+     *
+     * @param tenantQuotaRepository     tenant quota counter repository
+     * @param appInstanceInfoRepository application instance repository
+     * @param appRuleTaskRepository     application rule task repository
+     * @param appoTenantRepository      tenant repository
+     * @param transactionManager        transaction manager
+     */
+    @Autowired
+    public TenantQuota(TenantQuotaRepository tenantQuotaRepository,
+                       AppInstanceInfoRepository appInstanceInfoRepository,
+                       AppRuleTaskRepository appRuleTaskRepository, AppoTenantRepository appoTenantRepository,
+                       PlatformTransactionManager transactionManager) {
+        this.tenantQuotaRepository = tenantQuotaRepository;
+        this.appInstanceInfoRepository = appInstanceInfoRepository;
+        this.appRuleTaskRepository = appRuleTaskRepository;
+        this.appoTenantRepository = appoTenantRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts periodic reconciliation of counter rows.
+     */
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-quota");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcile, reconcileInterval, reconcileInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops periodic reconciliation of counter rows.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Reserves a tenant entry.
+     *
+     * @return true if reserved, false if max tenant limit is reached
+     */
+    public boolean reserveTenant() {
+        return reserve(TENANTS_KEY, maxTenants, true);
+    }
+
+    /**
+     * Releases a tenant entry once deleted.
+     */
+    public void releaseTenant() {
+        release(TENANTS_KEY);
+    }
+
+    /**
+     * Reserves an application instance entry of a tenant.
+     *
+     * @param tenantId tenant ID
+     * @return true if reserved, false if max entry limit is reached
+     */
+    public boolean reserveAppInstance(String tenantId) {
+        return reserve(APP_INSTANCES_KEY + tenantId, maxEntriesPerTenant, true);
+    }
+
+    /**
+     * Releases an application instance entry of a tenant once deleted.
+     *
+     * @param tenantId tenant ID
+     */
+    public void releaseAppInstance(String tenantId) {
+        release(APP_INSTANCES_KEY + tenantId);
+    }
+
+    /**
+     * Reserves an application rule task entry of a tenant. Reached limit is always checked in the database, oldest
+     * entry is replaced when reached.
+     *
+     * @param tenantId tenant ID
+     * @return true if reserved, false if max entry limit is reached
+     */
+    public boolean reserveAppRuleTask(String tenantId) {
+        return reserve(APP_RULE_TASKS_KEY + tenantId, maxEntriesPerTenant, false);
+    }
+
+    /**
+     * Releases an application rule task entry of a tenant once deleted.
+     *
+     * @param tenantId tenant ID
+     */
+    public void releaseAppRuleTask(String tenantId) {
+        release(APP_RULE_TASKS_KEY + tenantId);
+    }
+
+    /**
+     * Returns max number of tenants.
+     *
+     * @return max tenants
+     */
+    public int getMaxTenants() {
+        return maxTenants;
+    }
+
+    /**
+     * Returns max number of entries per tenant.
+     *
+     * @return max entries per tenant
+     */
+    public int getMaxEntriesPerTenant() {
+        return maxEntriesPerTenant;
+    }
+
+    /**
+     * Reconciles counter rows with the number of entries.
+     */
+    public void reconcile() {
+        try {
+            for (TenantQuotaCounter counter : tenantQuotaRepository.findAll()) {
+                String quotaKey = counter.getQuotaKey();
+                LongSupplier loader = getLoader(quotaKey);
+                if (loader != null) {
+                    transactionTemplate.execute(status -> reconcile(quotaKey, loader));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Retried at next interval
+            LOGGER.error("failed to reconcile tenant quota counters: {}", e.getMessage());
+        }
+    }
+
+    private Long reconcile(String quotaKey, LongSupplier loader) {
+        // Counter row is locked first, reservations and releases holding it are committed and counted
+        Long entries = tenantQuotaRepository.lockEntries(quotaKey);
+        if (entries == null) {
+            return null;
+        }
+        long count = loader.getAsLong();
+        if (entries != count) {
+            LOGGER.warn("tenant quota counter {} reconciled from {} to {}", quotaKey, entries, count);
+            tenantQuotaRepository.setEntries(quotaKey, count);
+            afterCommit(() -> limitsReached.remove(quotaKey));
+        }
+        return count;
+    }
+
+    /**
+     * Reserves an entry, must be called in the transaction inserting the entry.
+     */
+    private boolean reserve(String quotaKey, int limit, boolean isCached) {
+        Long reachedAt = isCached ? limitsReached.get(quotaKey) : null;
+        if (reachedAt != null && System.currentTimeMillis() - reachedAt <= cacheTtl) {
+            return false;
+        }
+        if (!tenantQuotaRepository.existsById(quotaKey)) {
+            // Concurrent first reservations insert a single row, others keep the row inserted
+            tenantQuotaRepository.insertIfAbsent(quotaKey, getLoader(quotaKey).getAsLong());
+        }
+        if (tenantQuotaRepository.increment(quotaKey, limit) == 0) {
+            if (isCached) {
+                limitsReached.put(quotaKey, System.currentTimeMillis());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns count query of the entries of a counter row.
+     */
+    private LongSupplier getLoader(String quotaKey) {
+        if (TENANTS_KEY.equals(quotaKey)) {
+            return appoTenantRepository::count;
+        }
+        if (quotaKey.startsWith(APP_INSTANCES_KEY)) {
+            String tenantId = quotaKey.substring(APP_INSTANCES_KEY.length());
+            return () -> appInstanceInfoRepository.countByTenantId(tenantId);
+        }
+        if (quotaKey.startsWith(APP_RULE_TASKS_KEY)) {
+            String tenantId = quotaKey.substring(APP_RULE_TASKS_KEY.length());
+            return () -> appRuleTaskRepository.countByTenantId(tenantId);
+        }
+        return null;
+    }
+
+    /**
+     * Releases an entry, must be called in the transaction deleting the entry.
+     */
+    private void release(String quotaKey) {
+        tenantQuotaRepository.decrement(quotaKey);
+        afterCommit(() -> limitsReached.remove(quotaKey));
+    }
+
+    /**
+     * Runs action once current transaction is committed, or immediately when there is no transaction.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
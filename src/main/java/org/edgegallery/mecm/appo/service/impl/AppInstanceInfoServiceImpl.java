@@ -19,19 +19,18 @@ package org.edgegallery.mecm.appo.service.impl;
 
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Optional;
 import java.util.UUID;
 import javax.transaction.Transactional;
 import org.edgegallery.mecm.appo.exception.AppoException;
 import org.edgegallery.mecm.appo.model.AppInstanceDependency;
 import org.edgegallery.mecm.appo.model.AppInstanceInfo;
 import org.edgegallery.mecm.appo.model.AppRuleTask;
-import org.edgegallery.mecm.appo.model.AppoTenant;
 import org.edgegallery.mecm.appo.repository.AppInstanceDependencyRepository;
 import org.edgegallery.mecm.appo.repository.AppInstanceInfoRepository;
 import org.edgegallery.mecm.appo.repository.AppRuleTaskRepository;
 import org.edgegallery.mecm.appo.repository.AppoTenantRepository;
 import org.edgegallery.mecm.appo.service.AppInstanceInfoService;
+import org.edgegallery.mecm.appo.service.TenantQuota;
 import org.edgegallery.mecm.appo.utils.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +46,7 @@ public class AppInstanceInfoServiceImpl implements AppInstanceInfoService {
     private AppRuleTaskRepository appRuleTaskRepository;
     private AppoTenantRepository appoTenantRepository;
     private AppInstanceDependencyRepository appInstanceDependencyRepository;
+    private TenantQuota tenantQuota;
 
     /**
      * Constructor.
@@ -54,16 +54,19 @@ public class AppInstanceInfoServiceImpl implements AppInstanceInfoService {
      * @param appInstanceInfoRepository       appInstance information warehouse
      * @param appInstanceDependencyRepository dependentappInstance warehouse
      * @param appoTenantRepository            Tenant warehouse
+     * @param tenantQuota                     tenant quota counters
      */
     @Autowired
     public AppInstanceInfoServiceImpl(AppInstanceInfoRepository appInstanceInfoRepository,
                                       AppInstanceDependencyRepository appInstanceDependencyRepository,
                                       AppoTenantRepository appoTenantRepository,
-                                      AppRuleTaskRepository appRuleTaskRepository) {
+                                      AppRuleTaskRepository appRuleTaskRepository,
+                                      TenantQuota tenantQuota) {
         this.appInstanceInfoRepository = appInstanceInfoRepository;
         this.appInstanceDependencyRepository = appInstanceDependencyRepository;
         this.appoTenantRepository = appoTenantRepository;
         this.appRuleTaskRepository = appRuleTaskRepository;
+        this.tenantQuota = tenantQuota;
     }
 
     @Override
@@ -100,35 +103,19 @@ public class AppInstanceInfoServiceImpl implements AppInstanceInfoService {
     }
 
     @Override
+    @Transactional
     public void createAppInstanceInfo(String tenantId, AppInstanceInfo appInstanceInfo) {
 
         LOGGER.debug("Add application instance {}", appInstanceInfo);
-        boolean addTenant = false;
         appInstanceInfo.setTenant(tenantId);
 
-        Optional<AppoTenant> info = appoTenantRepository.findById(tenantId);
-        if (info.isPresent()) {
-            List<AppInstanceInfo> record = appInstanceInfoRepository.findByTenantId(tenantId);
-            if (record.size() == Constants.MAX_ENTRY_PER_TENANT_PER_MODEL) {
-                LOGGER.error("Max app instance's limit {} reached", Constants.MAX_ENTRY_PER_TENANT_PER_MODEL);
-                throw new AppoException(Constants.MAX_LIMIT_REACHED_ERROR);
-            }
-        } else {
-            if (appoTenantRepository.count() == Constants.MAX_TENANTS) {
-                LOGGER.error("Max tenant limit {} reached", Constants.MAX_TENANTS);
-                throw new AppoException(Constants.MAX_LIMIT_REACHED_ERROR);
-            }
-            addTenant = true;
+        addTenant(tenantId);
+        if (!tenantQuota.reserveAppInstance(tenantId)) {
+            LOGGER.error("Max app instance's limit {} reached", tenantQuota.getMaxEntriesPerTenant());
+            throw new AppoException(Constants.MAX_LIMIT_REACHED_ERROR);
         }
 
         appInstanceInfoRepository.save(appInstanceInfo);
-
-        if (addTenant) {
-            LOGGER.info("Add tenant {}", tenantId);
-            AppoTenant tenant = new AppoTenant();
-            tenant.setTenant(tenantId);
-            appoTenantRepository.save(tenant);
-        }
     }
 
     @Override
@@ -155,16 +142,15 @@ public class AppInstanceInfoServiceImpl implements AppInstanceInfoService {
         }
 
         appInstanceInfoRepository.deleteById(appInstanceId);
+        tenantQuota.releaseAppInstance(tenantId);
         List<AppInstanceDependency> dependencies = appInstanceDependencyRepository
                 .getByAppInstanceId(tenantId, appInstanceId);
         if (!dependencies.isEmpty()) {
             appInstanceDependencyRepository.deleteAll(dependencies);
         }
 
-        List<AppInstanceInfo> record = appInstanceInfoRepository.findByTenantId(tenantId);
-        if (record.isEmpty()) {
-            LOGGER.info("Delete tenant {}", tenantId);
-            appoTenantRepository.deleteById(tenantId);
+        if (appInstanceInfoRepository.countByTenantId(tenantId) == 0) {
+            deleteTenant(tenantId);
         }
     }
 
@@ -241,36 +227,27 @@ public class AppInstanceInfoServiceImpl implements AppInstanceInfoService {
     }
 
     @Override
+    @Transactional
     public void createAppRuleTaskInfo(String tenantId, AppRuleTask appRuleTaskInfo) {
 
         LOGGER.debug("Add application rule task info {}", appRuleTaskInfo);
-        boolean addTenant = false;
         appRuleTaskInfo.setTenant(tenantId);
 
-        Optional<AppoTenant> info = appoTenantRepository.findById(tenantId);
-        if (info.isPresent()) {
-            List<AppRuleTask> record = appRuleTaskRepository.findByTenantId(tenantId);
-            if (record.size() == Constants.MAX_ENTRY_PER_TENANT_PER_MODEL) {
-                LOGGER.error("Max app rule task's limit {} reached, delete old entry",
-                        Constants.MAX_ENTRY_PER_TENANT_PER_MODEL);
-                appRuleTaskRepository.deleteById(record.get(0).getAppRuleTaskId());
-            }
-        } else {
-            if (appoTenantRepository.count() == Constants.MAX_TENANTS) {
-                LOGGER.error("Max tenant limit {} reached", Constants.MAX_TENANTS);
-                throw new AppoException(Constants.MAX_LIMIT_REACHED_ERROR);
+        addTenant(tenantId);
+        if (!tenantQuota.reserveAppRuleTask(tenantId)) {
+            // Oldest entry is replaced, entry count is unchanged
+            LOGGER.error("Max app rule task's limit {} reached, delete old entry",
+                    tenantQuota.getMaxEntriesPerTenant());
+            String oldestAppRuleTaskId = appRuleTaskRepository.findOldestAppRuleTaskId(tenantId);
+            if (oldestAppRuleTaskId != null) {
+                appRuleTaskRepository.deleteById(oldestAppRuleTaskId);
+            } else {
+                // Counter drifted from the entries, corrected by reconciliation
+                LOGGER.warn("No app rule task of tenant {} to replace", tenantId);
             }
-            addTenant = true;
         }
 
         appRuleTaskRepository.save(appRuleTaskInfo);
-
-        if (addTenant) {
-            LOGGER.info("Add tenant {}", tenantId);
-            AppoTenant tenant = new AppoTenant();
-            tenant.setTenant(tenantId);
-            appoTenantRepository.save(tenant);
-        }
     }
 
     @Override
@@ -285,12 +262,11 @@ public class AppInstanceInfoServiceImpl implements AppInstanceInfoService {
         }
 
         appRuleTaskRepository.deleteById(appRuleTaskId);
+        tenantQuota.releaseAppRuleTask(tenantId);
 
-        List<AppRuleTask> appRuleTaskRec = appRuleTaskRepository.findByTenantId(tenantId);
-        List<AppInstanceInfo> appInstanceRec = appInstanceInfoRepository.findByTenantId(tenantId);
-        if (appRuleTaskRec.isEmpty() && appInstanceRec.isEmpty()) {
-            LOGGER.info("Delete tenant {}", tenantId);
-            appoTenantRepository.deleteById(tenantId);
+        if (appRuleTaskRepository.countByTenantId(tenantId) == 0
+                && appInstanceInfoRepository.countByTenantId(tenantId) == 0) {
+            deleteTenant(tenantId);
         }
     }
 
@@ -347,4 +323,29 @@ public class AppInstanceInfoServiceImpl implements AppInstanceInfoService {
         }
         return info;
     }
+
+    /**
+     * Adds tenant when it does not exist yet and reserves a tenant entry for it. Tenant row is inserted before the
+     * reservation, only the first of concurrent creates of a new tenant inserts it and reserves the entry.
+     *
+     * @param tenantId tenant ID
+     */
+    private void addTenant(String tenantId) {
+        if (appoTenantRepository.existsById(tenantId) || appoTenantRepository.insertIfAbsent(tenantId) == 0) {
+            return;
+        }
+        LOGGER.info("Add tenant {}", tenantId);
+        if (!tenantQuota.reserveTenant()) {
+            LOGGER.error("Max tenant limit {} reached", tenantQuota.getMaxTenants());
+            throw new AppoException(Constants.MAX_LIMIT_REACHED_ERROR);
+        }
+    }
+
+    private void deleteTenant(String tenantId) {
+        // Only the first of concurrent deletes removes the tenant row and releases its entry
+        if (appoTenantRepository.deleteByTenant(tenantId) > 0) {
+            LOGGER.info("Delete tenant {}", tenantId);
+            tenantQuota.releaseTenant();
+        }
+    }
 }
@@ -17,22 +17,33 @@
 package org.edgegallery.mecm.appo.service.impl;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import org.camunda.bpm.engine.HistoryService;
 import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.history.HistoricVariableInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.runtime.ProcessInstanceWithVariables;
+import org.camunda.bpm.engine.runtime.ProcessInstantiationBuilder;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.edgegallery.mecm.appo.bpmn.tasks.ProcessflowVariables;
 import org.edgegallery.mecm.appo.exception.AppoException;
 import org.edgegallery.mecm.appo.exception.AppoProcessflowException;
 import org.edgegallery.mecm.appo.service.AppoProcessEngineService;
 import org.edgegallery.mecm.appo.service.AppoProcessFlowResponse;
 import org.edgegallery.mecm.appo.service.AppoProcessflowService;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.edgegallery.mecm.appo.utils.TokenCipher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -44,6 +55,16 @@ import org.springframework.stereotype.Service;
 public class AppoProcessflowServiceImpl extends AppoProcessEngineService implements AppoProcessflowService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AppoProcessflowServiceImpl.class);
+    private static final String PROCESS_FLOW_VARIABLE_PREFIX = "Processflow";
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private TokenCipher tokenCipher;
+
+    @Value("${appo.deadline.default:600000}")
+    private long defaultDeadline;
 
     /**
      * Generate request ID.
@@ -91,9 +112,9 @@ public class AppoProcessflowServiceImpl extends AppoProcessEngineService impleme
         String processInstanceId = null;
         try {
 
-            ProcessInstance processInstance = executeProcessDefinition(requestInput, processKey);
+            ProcessInstance processInstance = createProcessInstance(requestInput, processKey).execute();
             processInstanceId = processInstance.getId();
-            LOGGER.debug("processInstanceId: {}", processInstanceId);
+            logProcessInstanceState(processKey, processInstance);
         } catch (Exception e) {
             AppoProcessFlowResponse appoProcessFlowResponse = new AppoProcessFlowResponse();
             appoProcessFlowResponse.setResponse("Error occurred while executing the process: " + e.getMessage());
@@ -118,8 +139,10 @@ public class AppoProcessflowServiceImpl extends AppoProcessEngineService impleme
         String processInstanceId = null;
         AppoProcessFlowResponse appoProcessFlowResponse = null;
         try {
-            ProcessInstance processInstance = executeProcessDefinition(requestInput, processKey);
+            ProcessInstanceWithVariables processInstance = createProcessInstance(requestInput, processKey)
+                    .executeWithVariablesInReturn();
             processInstanceId = processInstance.getId();
+            logProcessInstanceState(processKey, processInstance);
 
             appoProcessFlowResponse = getProcessInstanceData(processInstance);
             if (appoProcessFlowResponse != null) {
@@ -136,69 +159,110 @@ public class AppoProcessflowServiceImpl extends AppoProcessEngineService impleme
         return appoProcessFlowResponse;
     }
 
-    private ProcessInstance executeProcessDefinition(Map<String, String> requestInput, String processKey) {
-        String processInstanceId = null;
-
+    private ProcessInstantiationBuilder createProcessInstance(Map<String, String> requestInput, String processKey) {
         Map<String, Object> wfInputParmas;
         wfInputParmas = convertInputToObjectMap(requestInput);
 
         String requestID = getRequestID(wfInputParmas);
+        setDeadline(processKey, wfInputParmas);
 
         RuntimeService runtimeService = getEngineServices().getRuntimeService();
-        ProcessInstance processInstance = runtimeService
-                .startProcessInstanceByKey(processKey, requestID, wfInputParmas);
-        processInstanceId = processInstance.getId();
+        return runtimeService.createProcessInstanceByKey(processKey).businessKey(requestID)
+                .setVariables(ProcessflowVariables.toProcessVariables(wfInputParmas, tokenCipher));
+    }
+
+    @Override
+    public long getDeadline(String processKey) {
+        long timeout = environment.getProperty("appo.deadline." + processKey, Long.class, defaultDeadline);
+        return System.currentTimeMillis() + timeout;
+    }
+
+    /**
+     * Sets deadline of the request, all outbound requests of the process flow must complete before it. Deadline
+     * passed in the input is kept so that work started along with the process flow shares it.
+     *
+     * @param processKey process key
+     * @param variables  process variables
+     */
+    private void setDeadline(String processKey, Map<String, Object> variables) {
+        Object deadline = variables.get(Constants.DEADLINE);
+        if (deadline instanceof String) {
+            try {
+                variables.put(Constants.DEADLINE, Long.parseLong((String) deadline));
+                return;
+            } catch (NumberFormatException e) {
+                LOGGER.debug("invalid deadline {}, deadline computed", deadline);
+            }
+        }
+        variables.put(Constants.DEADLINE, getDeadline(processKey));
+    }
 
+    private void logProcessInstanceState(String processKey, ProcessInstance processInstance) {
         String processInstanceState = "RUNNING";
         if (processInstance.isEnded()) {
             processInstanceState = "ENDED";
         }
 
         LOGGER.debug("processKey: {}  processInstanceId: {} Status: {} ", processKey,
-                processInstanceId, processInstanceState);
-        return processInstance;
+                processInstance.getId(), processInstanceState);
     }
 
     /**
      * Retrieves process instance data for response processing.
      *
-     * @param processInstance process instance
+     * @param processInstance process instance with variables at the end of synchronous execution
      * @return processflow response
      */
-    private AppoProcessFlowResponse getProcessInstanceData(ProcessInstance processInstance) {
+    private AppoProcessFlowResponse getProcessInstanceData(ProcessInstanceWithVariables processInstance) {
 
-        // Retrieve response variables from history service.
-        String processInstanceId = processInstance.getId();
+        // Response variables are returned with the process instance, history is looked up only when process
+        // did not complete synchronously.
+        VariableMap variables = processInstance.getVariables();
+        if (variables != null && variables.containsKey(Constants.PROCESS_FLOW_RESP_CODE)) {
+            return getProcessflowData(variables::get);
+        }
+
+        Map<String, Object> historicVariables = getProcessInstanceVariables(processInstance.getId());
+        return getProcessflowData(historicVariables::get);
+    }
+
+    /**
+     * Builds process flow response from process flow response variables.
+     *
+     * @param variables process variable lookup
+     * @return processflow response
+     */
+    private AppoProcessFlowResponse getProcessflowData(Function<String, Object> variables) {
 
         // Retrieve process instance data. processflowResponse and processflowResponseCode
-        String responseCode = getProcessflowResponse(processInstanceId, "ProcessflowResponseCode");
+        String responseCode = getProcessflowResponse(variables, "ProcessflowResponseCode");
 
-        AppoProcessFlowResponse appoProcessFlowResponse = processflowResponse(processInstanceId, responseCode);
+        AppoProcessFlowResponse appoProcessFlowResponse = processflowResponse(variables, responseCode);
         if (appoProcessFlowResponse != null) {
             return appoProcessFlowResponse;
         }
 
-        AppoProcessFlowResponse appoProcessExceptionResponse = processflowException(processInstanceId, responseCode);
+        AppoProcessFlowResponse appoProcessExceptionResponse = processflowException(variables, responseCode);
         if (appoProcessExceptionResponse != null) {
             LOGGER.error("process flow exception: {}", appoProcessExceptionResponse);
             return appoProcessExceptionResponse;
         }
 
-        return processflowErrorResponse(processInstanceId, responseCode);
+        return processflowErrorResponse(variables, responseCode);
     }
 
     /**
-     * Retrieves process response from history service.
+     * Retrieves process response.
      *
-     * @param processInstanceId process instance ID
-     * @param responseCode      response code
+     * @param variables    process variable lookup
+     * @param responseCode response code
      * @return process flow response on success, null if response not available
      */
-    private AppoProcessFlowResponse processflowResponse(String processInstanceId,
+    private AppoProcessFlowResponse processflowResponse(Function<String, Object> variables,
                                                         String responseCode) {
         AppoProcessFlowResponse appoProcessFlowResponse = new AppoProcessFlowResponse();
 
-        String response = getProcessflowResponse(processInstanceId, "ProcessflowResponse");
+        String response = getProcessflowResponse(variables, "ProcessflowResponse");
         if (response != null) {
             appoProcessFlowResponse.setResponse(response);
             appoProcessFlowResponse.setResponseCode(Integer.parseInt(responseCode));
@@ -208,17 +272,17 @@ public class AppoProcessflowServiceImpl extends AppoProcessEngineService impleme
     }
 
     /**
-     * Retrieves process exception response from history service.
+     * Retrieves process exception response.
      *
-     * @param processInstanceId process instance ID
-     * @param responseCode      response code
+     * @param variables    process variable lookup
+     * @param responseCode response code
      * @return process flow response on success, null if response not available
      */
-    private AppoProcessFlowResponse processflowException(String processInstanceId,
+    private AppoProcessFlowResponse processflowException(Function<String, Object> variables,
                                                          String responseCode) {
         AppoProcessFlowResponse appoProcessFlowResponse = new AppoProcessFlowResponse();
 
-        Object exceptionObject = getWorkflowResponseObject(processInstanceId, "ProcessflowException");
+        Object exceptionObject = getWorkflowResponseObject(variables, "ProcessflowException");
         if (exceptionObject == null) {
             return null;
         }
@@ -241,18 +305,18 @@ public class AppoProcessflowServiceImpl extends AppoProcessEngineService impleme
     }
 
     /**
-     * Retrieves process error response from history service.
+     * Retrieves process error response.
      *
-     * @param processInstanceId process instance ID
-     * @param responseCode      response code
+     * @param variables    process variable lookup
+     * @param responseCode response code
      * @return process flow response on success, null if response not available
      */
-    private AppoProcessFlowResponse processflowErrorResponse(String processInstanceId,
+    private AppoProcessFlowResponse processflowErrorResponse(Function<String, Object> variables,
                                                              String responseCode) {
 
         AppoProcessFlowResponse appoProcessFlowResponse = new AppoProcessFlowResponse();
 
-        String errResponse = getProcessflowResponse(processInstanceId, "ProcessflowErrResponse");
+        String errResponse = getProcessflowResponse(variables, "ProcessflowErrResponse");
         if (errResponse != null) {
             appoProcessFlowResponse.setResponse(errResponse);
             appoProcessFlowResponse.setResponseCode(Integer.parseInt(responseCode));
@@ -267,68 +331,65 @@ public class AppoProcessflowServiceImpl extends AppoProcessEngineService impleme
     }
 
     /**
-     * Retrieve process instance variable from history.
+     * Retrieve process instance variable.
      *
-     * @param processInstanceId process instance ID
-     * @param variableName      variable name to obtain for process instance history
+     * @param variables    process variable lookup
+     * @param variableName variable name to obtain
      * @return variable value, null if not available
      */
-    private String getProcessflowResponse(String processInstanceId, String variableName) {
+    private String getProcessflowResponse(Function<String, Object> variables, String variableName) {
 
-        Object responseData = getProcessInstanceVariable(processInstanceId, variableName);
+        Object responseData = variables.apply(variableName);
         String response;
         if (responseData == null) {
             response = null;
         } else {
             response = String.valueOf(responseData);
         }
-        LOGGER.debug("processInstId: {} %p processInstanceData: %p           {} : {}",
-                processInstanceId, variableName, response);
+        LOGGER.debug("processInstanceData: {} : {}", variableName, response);
         return response;
     }
 
     /**
-     * Retrieve process instance variable object from history.
+     * Retrieve process instance variable object.
      *
-     * @param processInstanceId process instance ID
-     * @param variableName      variable name to obtain for process instance history
+     * @param variables    process variable lookup
+     * @param variableName variable name to obtain
      * @return variable value, null if not available
      */
-    private Object getWorkflowResponseObject(String processInstanceId, String variableName) {
+    private Object getWorkflowResponseObject(Function<String, Object> variables, String variableName) {
 
-        Object responseData = getProcessInstanceVariable(processInstanceId, variableName);
+        Object responseData = variables.apply(variableName);
         if (responseData != null) {
             String response = String.valueOf(responseData);
 
-            LOGGER.debug("processInstId: {} %p processInstanceData: %p           {} : {}",
-                    processInstanceId, variableName, response);
+            LOGGER.debug("processInstanceData: {} : {}", variableName, response);
         }
         return responseData;
     }
 
     /**
-     * Retrieve process instance variable from history service.
+     * Retrieve process flow response variables from history service in a single query.
      *
      * @param processInstanceId process instance ID
-     * @param variableName      variable name to retrieve
-     * @return variable object on success, null on error
+     * @return process flow response variables, empty on error
      */
-    private Object getProcessInstanceVariable(String processInstanceId, String variableName) {
+    private Map<String, Object> getProcessInstanceVariables(String processInstanceId) {
 
         HistoryService historyService = getEngineServices().getHistoryService();
 
+        Map<String, Object> variables = new HashMap<>();
         try {
-            HistoricVariableInstance v = historyService.createHistoricVariableInstanceQuery()
-                    .processInstanceId(processInstanceId).variableName(variableName).singleResult();
-            if (v != null) {
-                return v.getValue();
+            List<HistoricVariableInstance> historicVariables = historyService.createHistoricVariableInstanceQuery()
+                    .processInstanceId(processInstanceId).variableNameLike(PROCESS_FLOW_VARIABLE_PREFIX + "%").list();
+            for (HistoricVariableInstance v : historicVariables) {
+                variables.put(v.getName(), v.getValue());
             }
-            return null;
         } catch (Exception e) {
-            LOGGER.debug("Failed to retrieve variable {} from process instance {}: {}", variableName,
-                    processInstanceId, e.getMessage());
-            return null;
+            LOGGER.debug("Failed to retrieve variables from process instance {}: {}", processInstanceId,
+                    e.getMessage());
         }
+        return variables;
     }
 }
 
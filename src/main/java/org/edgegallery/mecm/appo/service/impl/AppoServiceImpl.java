@@ -29,6 +29,7 @@ import org.edgegallery.mecm.appo.apihandler.dto.BatchInstancesReqParam;
 import org.edgegallery.mecm.appo.apihandler.dto.BatchResponseDto;
 import org.edgegallery.mecm.appo.apihandler.dto.BatchTerminateReqParam;
 import org.edgegallery.mecm.appo.apihandler.dto.CreateParam;
+import org.edgegallery.mecm.appo.bpmn.tasks.PackagePrefetcher;
 import org.edgegallery.mecm.appo.exception.AppoException;
 import org.edgegallery.mecm.appo.model.AppInstanceDependency;
 import org.edgegallery.mecm.appo.model.AppInstanceInfo;
@@ -57,11 +58,14 @@ public class AppoServiceImpl implements AppoService {
     private static final String REQUEST_ACCEPTED = "Accepted";
     private AppoProcessflowService processflowService;
     private AppInstanceInfoService appInstanceInfoService;
+    private PackagePrefetcher packagePrefetcher;
 
     @Autowired
-    public AppoServiceImpl(AppoProcessflowService processflowService, AppInstanceInfoService appInstanceInfoService) {
+    public AppoServiceImpl(AppoProcessflowService processflowService, AppInstanceInfoService appInstanceInfoService,
+                           PackagePrefetcher packagePrefetcher) {
         this.processflowService = processflowService;
         this.appInstanceInfoService = appInstanceInfoService;
+        this.packagePrefetcher = packagePrefetcher;
     }
 
     @Override
@@ -117,6 +121,10 @@ public class AppoServiceImpl implements AppoService {
         appRuleTaskInfo.setConfigResult(APP_RULE_PROCESSING);
         appInstanceInfoService.createAppRuleTaskInfo(tenantId, appRuleTaskInfo);
 
+        // Package download overlaps inventory steps of the process flow and shares its deadline
+        long deadline = processflowService.getDeadline("createApplicationInstance");
+        requestBodyParam.put(Constants.DEADLINE, String.valueOf(deadline));
+        packagePrefetcher.prefetch(tenantId, createParam.getAppPackageId(), appInstanceID, accessToken, deadline);
         processflowService.executeProcessAsync("createApplicationInstance", requestBodyParam);
 
         Map<String, String> response = new HashMap<>();
@@ -199,6 +207,13 @@ public class AppoServiceImpl implements AppoService {
 
         batchCreateParam.put(Constants.ACCESS_TOKEN, accessToken);
 
+        // Instances share a single package download through the package store
+        long deadline = processflowService.getDeadline("batchCreateApplicationInstance");
+        batchCreateParam.put(Constants.DEADLINE, String.valueOf(deadline));
+        for (String appInstanceId : createAppInstanceIds) {
+            packagePrefetcher.prefetch(tenantId, createParam.getAppPackageId(), appInstanceId, accessToken,
+                    deadline);
+        }
         processflowService.executeProcessAsync("batchCreateApplicationInstance", batchCreateParam);
 
         return new ResponseEntity<>(new AppoResponse(response), HttpStatus.ACCEPTED);
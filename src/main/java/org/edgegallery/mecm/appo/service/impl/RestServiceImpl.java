@@ -16,12 +16,19 @@
 
 package org.edgegallery.mecm.appo.service.impl;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import org.edgegallery.mecm.appo.apihandler.dto.SyncBaseDto;
 import org.edgegallery.mecm.appo.exception.AppoException;
+import org.edgegallery.mecm.appo.service.AsyncRestClient;
 import org.edgegallery.mecm.appo.service.RestService;
 import org.edgegallery.mecm.appo.utils.AppoV2Response;
 import org.edgegallery.mecm.appo.utils.Constants;
@@ -49,13 +56,21 @@ public class RestServiceImpl implements RestService {
     private static final String ACCESS_TOKEN = "access_token";
     private static final String HTTPS_PROTO = "https://";
     private static final String HTTP_PROTO = "http://";
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private AsyncRestClient asyncRestClient;
+
     @Value("${server.ssl.enabled:false}")
     private String isSslEnabled;
 
+    @Value("${appo.async-client.enabled:true}")
+    private boolean isAsyncClientEnabled;
+
     @Override
     public <T extends SyncBaseDto> ResponseEntity<T> syncRecords(String uri, Class<T> responseClass, String token) {
         String protocol = HTTP_PROTO;
@@ -89,6 +104,42 @@ public class RestServiceImpl implements RestService {
         return responseEntity;
     }
 
+    @Override
+    public <T extends SyncBaseDto> CompletableFuture<ResponseEntity<T>> syncRecordsAsync(String uri,
+                                                                                        Class<T> responseClass,
+                                                                                        String token) {
+        if (!isAsyncClientEnabled) {
+            return completedOrFailed(() -> syncRecords(uri, responseClass, token));
+        }
+        String protocol = HTTP_PROTO;
+        if ("true".equals(isSslEnabled)) {
+            protocol = HTTPS_PROTO;
+        }
+        String url = protocol + uri;
+
+        LOGGER.info("GET: {}", url);
+        return asyncRestClient.exchange(url, HttpMethod.GET, getHttpHeader(token), null).handle((response, ex) -> {
+            if (ex != null) {
+                throw new AppoException("Failure during sync MEPM with error message: "
+                        + unwrap(ex).getLocalizedMessage());
+            }
+            LOGGER.info("Sync status code {}, value {} ", response.getStatusCodeValue(), response.getBody());
+
+            HttpStatus statusCode = response.getStatusCode();
+            if (!statusCode.is2xxSuccessful()) {
+                throw new AppoException("Failure while sync file to MEPM with not successful status code: "
+                        + statusCode);
+            }
+            try {
+                T body = response.getBody() == null || response.getBody().isEmpty() ? null
+                        : MAPPER.readValue(response.getBody(), responseClass);
+                return new ResponseEntity<>(body, response.getHeaders(), statusCode);
+            } catch (IOException e) {
+                throw new AppoException("Failure during sync MEPM, invalid response: " + e.getMessage());
+            }
+        });
+    }
+
     @Override
     public ResponseEntity<String> sendRequest(String uri, HttpMethod method, String token, String data) {
         String protocol = HTTP_PROTO;
@@ -132,6 +183,20 @@ public class RestServiceImpl implements RestService {
         return responseEntity;
     }
 
+    private static <T> CompletableFuture<T> completedOrFailed(Supplier<T> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(request.get());
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
     private HttpHeaders getHttpHeader(String token) {
         List<MediaType> list = new LinkedList<>();
         list.add(MediaType.ALL);
@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.utils;
+
+import com.google.gson.Gson;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.edgegallery.mecm.appo.model.AppRule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of application descriptors extracted from application packages, keyed by package ID and package digest.
+ * Descriptors are kept serialized, each lookup returns a new application rule the caller may modify.
+ */
+@Component
+public class ApplicationDescriptorCache {
+
+    // Cached for packages without application configuration
+    private static final String NO_DESCRIPTOR = "";
+
+    @Value("${appo.descriptor-cache.enabled:true}")
+    private boolean isEnabled;
+
+    @Value("${appo.descriptor-cache.max-entries:256}")
+    private int maxEntries;
+
+    private final Gson gson = new Gson();
+
+    // Access ordered, eldest entry is evicted first
+    private final Map<String, String> descriptors = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns application rule of the package, extracted from the package on cache miss. Packages without digest
+     * are not cached.
+     *
+     * @param appPackageId application package ID
+     * @param digest       application package digest
+     * @param extractor    application rule extractor
+     * @return application rule, null if package has no application configuration
+     */
+    public AppRule get(String appPackageId, String digest, Supplier<AppRule> extractor) {
+        if (!isEnabled || digest == null) {
+            return extractor.get();
+        }
+        String key = appPackageId + "/" + digest;
+        String descriptor;
+        synchronized (descriptors) {
+            descriptor = descriptors.get(key);
+        }
+        if (descriptor != null) {
+            hits.incrementAndGet();
+            return NO_DESCRIPTOR.equals(descriptor) ? null : gson.fromJson(descriptor, AppRule.class);
+        }
+
+        misses.incrementAndGet();
+        AppRule appRule = extractor.get();
+        descriptor = appRule == null ? NO_DESCRIPTOR : gson.toJson(appRule);
+        synchronized (descriptors) {
+            descriptors.put(key, descriptor);
+        }
+        return appRule;
+    }
+
+    /**
+     * Returns cache statistics.
+     *
+     * @return cache statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled);
+        synchronized (descriptors) {
+            stats.put("size", descriptors.size());
+        }
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+}
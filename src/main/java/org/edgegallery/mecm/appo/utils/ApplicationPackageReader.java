@@ -0,0 +1,227 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Reads main service template of an application package without extracting the package. Entries of the package
+ * are indexed once and read by random access, the nested main service template archive is streamed once, only
+ * the meta files and yaml files are kept. Main service template not named as a yaml file is read in a second pass.
+ */
+public final class ApplicationPackageReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationPackageReader.class);
+    private static final String TOSCA_META = "TOSCA.meta";
+    private static final String TOSCA_VNFD_META = "TOSCA_VNFD.meta";
+    private static final String FAILED_TO_LOAD_YAML = "failed to load the yaml file";
+    private static final String ENTRY_DEFINITIONS = "Entry-Definitions";
+    private static final String FAILED_TO_READ_METADATA = "failed to read metadata from app package";
+    private static final String MAIN_SERVICE_YAML_NOT_AVAILABLE = "failed, main service yaml not available in app "
+            + "package";
+    private static final String TOO_MANY_OR_TOO_BIG = "Package validation failed, Too many or too big files";
+    private static final int TOO_MANY = 1024;
+    private static final int TOO_BIG = 10485760;
+    private static final int BUFFER_SIZE = 8192;
+    private static final String[] CANDIDATE_EXTENSIONS = {".meta", ".yaml", ".yml"};
+
+    private ApplicationPackageReader() {
+    }
+
+    /**
+     * Reads main service template yaml of an application package.
+     *
+     * @param appPackagePath CSAR file path
+     * @return main service template
+     * @throws AppoException if main service template could not be read
+     */
+    public static Map<String, Object> readMainServiceTemplate(String appPackagePath) {
+        try (ZipFile zipFile = new ZipFile(appPackagePath)) {
+            ManifestIndex<ZipEntry> packageIndex = indexPackage(zipFile);
+            ZipEntry toscaMeta = getEntry(packageIndex.getByFileName(TOSCA_META));
+            String mainSvcTemplateZip = getEntryDefinition(readBytes(zipFile.getInputStream(toscaMeta)));
+            ZipEntry mainSvcTemplate = getEntry(packageIndex.get(mainSvcTemplateZip));
+
+            ManifestIndex<byte[]> mainSvcTemplateIndex;
+            try (ZipInputStream zipStream = new ZipInputStream(zipFile.getInputStream(mainSvcTemplate))) {
+                mainSvcTemplateIndex = indexNestedArchive(zipStream);
+            }
+            byte[] vnfdMeta = getEntry(mainSvcTemplateIndex.getByFileName(TOSCA_VNFD_META));
+            String mainSvcTemplateYaml = getEntryDefinition(vnfdMeta);
+            byte[] mainSvcTemplateContent = mainSvcTemplateIndex.get(mainSvcTemplateYaml);
+            if (mainSvcTemplateContent == null && !isCandidate(mainSvcTemplateYaml)) {
+                try (ZipInputStream zipStream = new ZipInputStream(zipFile.getInputStream(mainSvcTemplate))) {
+                    mainSvcTemplateContent = readNestedEntry(zipStream, mainSvcTemplateYaml);
+                }
+            }
+            return loadYaml(getEntry(mainSvcTemplateContent));
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.error(Constants.FAILED_TO_UNZIP_CSAR);
+            throw new AppoException(Constants.FAILED_TO_UNZIP_CSAR);
+        }
+    }
+
+    /**
+     * Indexes entries of the package from its central directory.
+     */
+    private static ManifestIndex<ZipEntry> indexPackage(ZipFile zipFile) {
+        ManifestIndex<ZipEntry> index = new ManifestIndex<>();
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        int entriesCount = 0;
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (++entriesCount > TOO_MANY) {
+                throw new AppoException(TOO_MANY_OR_TOO_BIG);
+            }
+            if (!entry.isDirectory()) {
+                index.add(entry.getName(), entry);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Indexes meta and yaml entries of the nested archive in a single pass, their contents are kept as the meta
+     * file may come after the yaml it refers to. Other entries are skipped without being read.
+     */
+    private static ManifestIndex<byte[]> indexNestedArchive(ZipInputStream zipStream) throws IOException {
+        ManifestIndex<byte[]> index = new ManifestIndex<>();
+        int entriesCount = 0;
+        long totalSize = 0;
+        ZipEntry entry;
+        while ((entry = zipStream.getNextEntry()) != null) {
+            if (++entriesCount > TOO_MANY) {
+                throw new AppoException(TOO_MANY_OR_TOO_BIG);
+            }
+            if (entry.isDirectory() || !isCandidate(entry.getName())) {
+                continue;
+            }
+            byte[] content = readBytes(zipStream);
+            totalSize += content.length;
+            if (totalSize > TOO_BIG) {
+                throw new AppoException(TOO_MANY_OR_TOO_BIG);
+            }
+            index.add(entry.getName(), content);
+        }
+        return index;
+    }
+
+    /**
+     * Reads an entry of the nested archive.
+     *
+     * @return entry content, null if not found
+     */
+    private static byte[] readNestedEntry(ZipInputStream zipStream, String name) throws IOException {
+        String entryName = StringUtils.removeStart(name, "/");
+        ZipEntry entry;
+        while ((entry = zipStream.getNextEntry()) != null) {
+            if (!entry.isDirectory() && entryName.equals(entry.getName())) {
+                return readBytes(zipStream);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isCandidate(String name) {
+        return StringUtils.endsWithAny(name.toLowerCase(Locale.ROOT), CANDIDATE_EXTENSIONS);
+    }
+
+    private static <T> T getEntry(T entry) {
+        if (entry == null) {
+            throw new AppoException(MAIN_SERVICE_YAML_NOT_AVAILABLE);
+        }
+        return entry;
+    }
+
+    private static String getEntryDefinition(byte[] metaFile) {
+        Object entryDefinition;
+        try {
+            Map<String, Object> metaData = new Yaml(new SafeConstructor()).load(new ByteArrayInputStream(metaFile));
+            entryDefinition = metaData == null ? null : metaData.get(ENTRY_DEFINITIONS);
+        } catch (YAMLException | ClassCastException e) {
+            throw new AppoException(FAILED_TO_READ_METADATA);
+        }
+        if (entryDefinition == null) {
+            throw new AppoException(FAILED_TO_READ_METADATA);
+        }
+        return entryDefinition.toString();
+    }
+
+    private static Map<String, Object> loadYaml(byte[] yamlFile) {
+        try {
+            return new Yaml(new SafeConstructor()).load(new ByteArrayInputStream(yamlFile));
+        } catch (YAMLException | ClassCastException e) {
+            LOGGER.error(FAILED_TO_LOAD_YAML);
+            throw new AppoException(FAILED_TO_LOAD_YAML);
+        }
+    }
+
+    /**
+     * Reads entry content, stream is not closed.
+     */
+    private static byte[] readBytes(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = inputStream.read(buffer)) != -1) {
+            if (bytes.size() + count > TOO_BIG) {
+                throw new AppoException(TOO_MANY_OR_TOO_BIG);
+            }
+            bytes.write(buffer, 0, count);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Index of archive entries by entry name and by file name, the first entry of a file name is kept.
+     */
+    private static final class ManifestIndex<T> {
+
+        private final Map<String, T> entries = new HashMap<>();
+        private final Map<String, T> fileNames = new HashMap<>();
+
+        void add(String name, T entry) {
+            entries.putIfAbsent(name, entry);
+            fileNames.putIfAbsent(StringUtils.substringAfterLast("/" + name, "/"), entry);
+        }
+
+        T get(String name) {
+            return entries.get(StringUtils.removeStart(name, "/"));
+        }
+
+        T getByFileName(String fileName) {
+            return fileNames.get(fileName);
+        }
+    }
+}
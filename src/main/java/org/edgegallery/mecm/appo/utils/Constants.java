@@ -45,10 +45,16 @@ public final class Constants {
     public static final String MEC_HOST = "mec_host";
     public static final String MEC_HOSTS = "mec_hosts";
     public static final String APP_REQ_CNT = "app_req_cnt";
+    public static final String BATCH_WINDOW_START = "batch_window_start";
+    public static final String BATCH_WINDOW_SIZE = "batch_window_size";
+    public static final String LOOP_COUNTER = "loopCounter";
     public static final String APP_INSTANCE_ID = "app_instance_id";
     public static final String APP_INSTANCE_IDS = "app_instance_ids";
     public static final String APP_ID = "app_id";
     public static final String ACCESS_TOKEN = "access_token";
+    public static final String SEALED_ACCESS_TOKEN = "sealed_access_token";
+    public static final String DEADLINE = "deadline";
+    public static final String REQUEST_ID = "request_id";
     public static final String INSTANTIATION_PARAMS = "instantiation_params";
     public static final String BATCH_INSTANTIATION_PARAMS = "batch_instantiation_params";
     public static final String MEC_HOST_IP = "host_ip";
@@ -68,6 +74,8 @@ public final class Constants {
     public static final String APM_DOWNLOAD_URI = "/apm/v1/tenants/{tenant_id}/packages/{app_package_id}/download";
     public static final String INVENTORY_MEC_HOST_URI = "/inventory/v1/tenants/{tenant_id}/mechosts/{mec_host}";
     public static final String INVENTORY_MEPM_URI = "/inventory/v1/mepms/{mepm_ip}";
+    public static final String INVENTORY_MEC_HOSTS_URI = "/inventory/v1/tenants/{tenant_id}/mechosts";
+    public static final String INVENTORY_MEPMS_URI = "/inventory/v1/mepms";
     public static final String INVENTORY_APPLICATIONS_URI = "/inventory/v1/tenants/{tenant_id}"
             + "/mechosts/{mec_host}/apps";
     public static final String INVENTORY_APPLICATION_URI = "/inventory/v1/tenants/{tenant_id}"
@@ -111,12 +119,11 @@ public final class Constants {
     public static final String SUCCESS = "success";
     public static final String INTERNAL_ERROR = "Internal error";
 
-    public static final int MAX_ENTRY_PER_TENANT_PER_MODEL = 50;
-    public static final int MAX_TENANTS = 20;
     public static final String MAX_LIMIT_REACHED_ERROR = "Max record limit exceeded";
 
     public static final String SLASH = "/";
     public static final String APP_PKG_EXT = ".csar";
+    public static final String APP_PACKAGE_DIGEST = "app_package_digest";
 
     public static final String CSAR_DOWNLOAD_FAILED = "failed to download app package for package {}";
     public static final String FAILED_TO_READ_INPUTSTREAM = "failed to read input stream from app store for package {}";
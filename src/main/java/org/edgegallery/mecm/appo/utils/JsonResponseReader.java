@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.utils;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import org.edgegallery.mecm.appo.exception.AppoException;
+
+/**
+ * Single pass readers for JSON responses of remote entities. Only the fields of interest are read, all other values
+ * are skipped without building a JSON tree.
+ */
+public final class JsonResponseReader {
+
+    private static final String DATA = "data";
+    private static final String MESSAGE = "message";
+
+    private JsonResponseReader() {
+    }
+
+    /**
+     * Reader of a JSON object field.
+     */
+    @FunctionalInterface
+    public interface FieldReader {
+
+        /**
+         * Reads or skips value of the field, reader is positioned at the value.
+         *
+         * @param name   field name
+         * @param reader json reader
+         * @throws IOException on read failure
+         */
+        void read(String name, JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Returns payload of a response envelope. When the response has a data field, payload is the data, or the
+     * message if data is null. Any other response is returned as is.
+     *
+     * @param body response body
+     * @return response payload
+     */
+    public static String readEnvelope(String body) {
+        if (body == null || body.isEmpty()) {
+            return body;
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(body))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return body;
+            }
+            boolean isEnvelope = false;
+            String data = null;
+            String message = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (DATA.equals(name)) {
+                    isEnvelope = true;
+                    data = nextString(reader);
+                } else if (MESSAGE.equals(name)) {
+                    message = nextString(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            if (!isEnvelope) {
+                return body;
+            }
+            if (data != null) {
+                return data;
+            }
+            return message != null ? message : body;
+        } catch (IOException | IllegalStateException e) {
+            // Not a JSON object, returned as is
+            return body;
+        }
+    }
+
+    /**
+     * Reads a top level field of a JSON object.
+     *
+     * @param json      json object
+     * @param fieldName field name
+     * @return field value as string, null if field is absent or null
+     * @throws AppoException if json is not a valid object
+     */
+    public static String readField(String json, String fieldName) {
+        String[] value = new String[1];
+        readObject(json, (name, reader) -> {
+            if (fieldName.equals(name)) {
+                value[0] = nextString(reader);
+            } else {
+                reader.skipValue();
+            }
+        });
+        return value[0];
+    }
+
+    /**
+     * Reads fields of a JSON object, field reader must read or skip each value.
+     *
+     * @param json        json object
+     * @param fieldReader field reader
+     * @throws AppoException if json is not a valid object
+     */
+    public static void readObject(String json, FieldReader fieldReader) {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            readObject(reader, fieldReader);
+        } catch (IOException | IllegalStateException e) {
+            throw new AppoException("invalid json response: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads fields of the JSON object at the reader position, field reader must read or skip each value.
+     *
+     * @param reader      json reader
+     * @param fieldReader field reader
+     * @throws IOException on read failure
+     */
+    public static void readObject(JsonReader reader, FieldReader fieldReader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            fieldReader.read(reader.nextName(), reader);
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads value at the reader position as string. Objects and arrays are returned as JSON text.
+     *
+     * @param reader json reader
+     * @return string value, null for JSON null
+     * @throws IOException on read failure
+     */
+    public static String nextString(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                return new JsonParser().parse(reader).toString();
+            default:
+                return reader.nextString();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.edgegallery.mecm.appo.exception.ResourceMgrException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of MEC host to MEPM endpoint resolutions, keyed by tenant and host. Hosts without MEPM are cached for a
+ * shorter duration, transient lookup failures are not cached. Concurrent lookups of the same host share a single
+ * inventory lookup.
+ */
+@Component
+public class MepmEndpointCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MepmEndpointCache.class);
+
+    @Value("${appo.mepm-cache.enabled:true}")
+    private boolean isEnabled;
+
+    @Value("${appo.mepm-cache.ttl:60000}")
+    private long ttl;
+
+    @Value("${appo.mepm-cache.negative-ttl:10000}")
+    private long negativeTtl;
+
+    @Value("${appo.mepm-cache.max-entries:1000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns MEPM endpoint of the host, looked up on cache miss.
+     *
+     * @param tenantId tenant ID
+     * @param hostIp   host ip
+     * @param lookup   inventory lookup
+     * @return MEPM endpoint ip:port
+     */
+    public String get(String tenantId, String hostIp, Supplier<String> lookup) {
+        if (!isEnabled) {
+            return lookup.get();
+        }
+        String key = getKey(tenantId, hostIp);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                hits.incrementAndGet();
+                return entry.join();
+            }
+
+            Entry newEntry = new Entry();
+            boolean isOwner = entry == null ? entries.putIfAbsent(key, newEntry) == null
+                    : entries.replace(key, entry, newEntry);
+            if (isOwner) {
+                misses.incrementAndGet();
+                evict();
+                return newEntry.load(key, lookup);
+            }
+        }
+    }
+
+    /**
+     * Invalidates cached MEPM endpoint of the host.
+     *
+     * @param tenantId tenant ID
+     * @param hostIp   host ip
+     */
+    public void invalidate(String tenantId, String hostIp) {
+        entries.remove(getKey(tenantId, hostIp));
+    }
+
+    /**
+     * Invalidates cached MEPM endpoints of all hosts of the tenant.
+     *
+     * @param tenantId tenant ID
+     */
+    public void invalidateTenant(String tenantId) {
+        String prefix = tenantId + "/";
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Invalidates all cached MEPM endpoints.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Returns cache statistics.
+     *
+     * @return cache statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled);
+        stats.put("size", entries.size());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private static String getKey(String tenantId, String hostIp) {
+        return tenantId + "/" + hostIp;
+    }
+
+    /**
+     * Keeps cache within max entries, expired entries are evicted first.
+     */
+    private void evict() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.values().removeIf(Entry::isExpired);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private final class Entry {
+
+        private final CompletableFuture<String> endpoint = new CompletableFuture<>();
+
+        private volatile long expiry = Long.MAX_VALUE;
+
+        String load(String key, Supplier<String> lookup) {
+            try {
+                String value = lookup.get();
+                expiry = System.currentTimeMillis() + ttl;
+                endpoint.complete(value);
+                return value;
+            } catch (ResourceMgrException | NoSuchElementException e) {
+                // Host without MEPM, cached to spare inventory repeated lookups
+                LOGGER.info("MEPM of {} not found: {}", key, e.getMessage());
+                expiry = System.currentTimeMillis() + negativeTtl;
+                endpoint.completeExceptionally(e);
+                throw e;
+            } catch (RuntimeException e) {
+                entries.remove(key, this);
+                endpoint.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiry;
+        }
+
+        String join() {
+            try {
+                return endpoint.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -18,9 +18,6 @@ package org.edgegallery.mecm.appo.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import org.edgegallery.mecm.appo.exception.ResourceMgrException;
 import org.edgegallery.mecm.appo.service.impl.RestServiceImpl;
 import org.slf4j.Logger;
@@ -45,14 +42,28 @@ public final class ResourceMgrServiceHelper {
     @Autowired
     private RestServiceImpl restService;
 
+    @Autowired
+    private MepmEndpointCache mepmEndpointCache;
+
     /**
-     * Gets MEPM configurations from inventory.
+     * Gets MEPM configurations, from cache or else from inventory.
      *
      * @param accessToken access token
      * @return returns mepm configurations
      * @throws ResourceMgrException exception if failed to get MEPm details
      */
     public String getInventoryMecHostsCfg(String accessToken, String tenantId, String hostIp) {
+        return mepmEndpointCache.get(tenantId, hostIp, () -> getMecHostMepmCfg(accessToken, tenantId, hostIp));
+    }
+
+    /**
+     * Gets MEPM configurations from inventory.
+     *
+     * @param accessToken access token
+     * @return returns mepm configurations
+     * @throws ResourceMgrException exception if failed to get MEPm details
+     */
+    private String getMecHostMepmCfg(String accessToken, String tenantId, String hostIp) {
 
         LOGGER.info("teanant id is :" + tenantId);
         String url = new StringBuilder(inventoryService).append(":")
@@ -62,13 +73,12 @@ public final class ResourceMgrServiceHelper {
         ResponseEntity<String> response = restService.sendRequest(url, HttpMethod.GET, accessToken, null);
 
         LOGGER.info("response: {}", response);
-        JsonObject jsonObject = new JsonParser().parse(response.getBody()).getAsJsonObject();
-        JsonElement mepmIp = jsonObject.get("mepmIp");
+        String mepmIp = JsonResponseReader.readField(response.getBody(), "mepmIp");
         if (mepmIp == null) {
             throw new ResourceMgrException("MEPM mepmIp is null for host " + hostIp);
         }
 
-        return getInventoryMepmCfg(mepmIp.getAsString(), accessToken);
+        return getInventoryMepmCfg(mepmIp, accessToken);
     }
 
     /**
@@ -88,13 +98,12 @@ public final class ResourceMgrServiceHelper {
 
         LOGGER.info("response: {}", response);
 
-        JsonObject jsonObject = new JsonParser().parse(response.getBody()).getAsJsonObject();
-        JsonElement mepmPort = jsonObject.get("mepmPort");
+        String mepmPort = JsonResponseReader.readField(response.getBody(), "mepmPort");
         if (mepmPort == null) {
             throw new ResourceMgrException("MEPM port is null for host " + hostIp);
         }
 
-        return hostIp + ":" + mepmPort.getAsString();
+        return hostIp + ":" + mepmPort;
     }
 
 
@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encrypts access tokens kept in process variables with AES-GCM. Sealed token is the base64 encoded IV followed
+ * by cipher text and authentication tag, any change of the sealed token or key fails decryption.
+ */
+public final class TokenCipher {
+
+    private static final String ALGORITHM = "AES";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+    private static final int KEY_LENGTH = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec key;
+
+    /**
+     * Constructor.
+     *
+     * @param key AES key, 16, 24 or 32 bytes
+     */
+    public TokenCipher(byte[] key) {
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("token encryption key must be 16, 24 or 32 bytes");
+        }
+        this.key = new SecretKeySpec(key, ALGORITHM);
+    }
+
+    /**
+     * Creates token cipher with a random key, sealed tokens can only be opened by this cipher.
+     *
+     * @return token cipher
+     */
+    public static TokenCipher withRandomKey() {
+        byte[] key = new byte[KEY_LENGTH];
+        RANDOM.nextBytes(key);
+        return new TokenCipher(key);
+    }
+
+    /**
+     * Encrypts token.
+     *
+     * @param token access token
+     * @return sealed token
+     */
+    public String seal(String token) {
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+            byte[] encrypted = cipher.doFinal(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(IV_LENGTH + encrypted.length)
+                    .put(iv).put(encrypted).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("failed to seal access token", e);
+        }
+    }
+
+    /**
+     * Decrypts sealed token.
+     *
+     * @param sealedToken sealed token
+     * @return access token
+     * @throws IllegalArgumentException if token is not sealed by this key
+     */
+    public String open(String sealedToken) {
+        try {
+            byte[] sealed = Base64.getDecoder().decode(sealedToken);
+            if (sealed.length <= IV_LENGTH) {
+                throw new IllegalArgumentException("invalid sealed access token");
+            }
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, sealed, 0, IV_LENGTH));
+            return new String(cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH),
+                    StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("invalid sealed access token", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+    create index if not exists idx_appinstanceinfo_tenant_mec_host on appinstanceinfo (tenant, mec_host);
+
+    create index if not exists idx_appinstanceinfo_mec_host on appinstanceinfo (mec_host);
+
+    create index if not exists idx_appinstanceinfo_tenant_package_app
+        on appinstanceinfo (tenant, app_package_id, app_id);
+
+    create index if not exists idx_appruletask_tenant_create_time on appruletask (tenant, create_time);
+
+    create index if not exists idx_appinstancedependency_tenant_dependency
+        on appinstancedependency (tenant, dependency_app_instance_id);
+
+    create index if not exists idx_appinstancedependency_tenant_instance
+        on appinstancedependency (tenant, app_instance_id);
@@ -0,0 +1,5 @@
+    create table if not exists tenantquota (
+        quota_key varchar(320) not null,
+        entries bigint not null,
+        primary key (quota_key)
+    );
@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.apihandler;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import org.edgegallery.mecm.appo.model.AppInstanceInfo;
+import org.edgegallery.mecm.appo.service.AppInstanceInfoService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Synchronizes records from MEPM over the async client, MEPM requests are sent concurrently on the async client
+ * workers by the shared rest template, hence expected in any order.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = AppoApplicationTest.class, properties = "appo.async-client.enabled=true")
+@AutoConfigureMockMvc
+public class AppoSyncHandlerAsyncClientTest {
+
+    private static final String TENANT_ID = "12db0288-3c67-4042-a708-a8e4a10c6b31";
+    private static final String APP_INSTANCE_ID = "8ec9ce6a-a9c9-4ab3-b5cd-d6c7e3c84a6a";
+    private static final String APP_PACKAGE_ID = "f50358433cf8eb4bc1f5a9e0ef5d6ebbf50358433cf8eb4bc1f5a9e0ef5d6ebb";
+    private static final String ACCESS_TOKEN = "access_token";
+    private static final String SAMPLE_TOKEN = "SampleToken";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private AppInstanceInfoService appInstanceInfoService;
+
+    private MockRestServiceServer server;
+
+    @Before
+    public void setUp() {
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        server.expect(ExpectedCount.once(),
+                requestTo("http://10.9.9.1:11111/inventory/v1/tenants/" + TENANT_ID + "/mechosts/"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("[{\"mechostIp\":\"127.0.0.1\",\"mepmIp\":\"127.0.0.1\"}]",
+                        MediaType.APPLICATION_JSON));
+        server.expect(ExpectedCount.once(), requestTo("http://10.9.9.1:11111/inventory/v1/mepms/127.0.0.1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"mepmIp\":\"127.0.0.1\",\"mepmPort\":\"10000\"}",
+                        MediaType.APPLICATION_JSON));
+
+        String appInstances = "http://127.0.0.1:10000/lcmcontroller/v2/tenants/" + TENANT_ID + "/app_instances";
+        server.expect(ExpectedCount.once(), requestTo(appInstances + "/sync_deleted"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(ACCESS_TOKEN, SAMPLE_TOKEN))
+                .andRespond(withSuccess("{\"appInstanceDeletedRecs\":[]}", MediaType.APPLICATION_JSON));
+        server.expect(ExpectedCount.once(), requestTo(appInstances + "/sync_updated"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(ACCESS_TOKEN, SAMPLE_TOKEN))
+                .andRespond(withSuccess("{\"appInstanceUpdatedRecs\":[{\"appInstanceId\":\"" + APP_INSTANCE_ID
+                        + "\",\"appPackageId\":\"" + APP_PACKAGE_ID + "\",\"appName\":\"sync_app\","
+                        + "\"appDescriptor\":\"sync\",\"mecHost\":\"127.0.0.1\"}]}", MediaType.APPLICATION_JSON));
+    }
+
+    @After
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Test
+    @WithMockUser(roles = "MECM_TENANT")
+    public void testSyncAppInstanceInfosWithAsyncClient() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.post("/appo/v1/tenants/" + TENANT_ID + "/app_instance_infos/sync")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON).with(csrf())
+                .header(ACCESS_TOKEN, SAMPLE_TOKEN))
+                .andExpect(MockMvcResultMatchers.status().isAccepted());
+
+        server.verify();
+
+        AppInstanceInfo synced = appInstanceInfoService.getAppInstanceInfo(TENANT_ID, APP_INSTANCE_ID);
+        try {
+            Assert.assertEquals("127.0.0.1", synced.getMepmHost());
+            Assert.assertEquals("Instantiated", synced.getOperationalStatus());
+        } finally {
+            appInstanceInfoService.deleteAppInstanceInfo(TENANT_ID, APP_INSTANCE_ID);
+        }
+    }
+}
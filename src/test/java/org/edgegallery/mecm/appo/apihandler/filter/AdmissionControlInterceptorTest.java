@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.apihandler.filter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.edgegallery.mecm.appo.config.ProcessflowJobExecutor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class AdmissionControlInterceptorTest {
+
+    private static final String URI = "/appo/v1/tenants/tenant/app_instances";
+
+    private final CountDownLatch jobStarted = new CountDownLatch(1);
+
+    private final CountDownLatch jobReleased = new CountDownLatch(1);
+
+    private ProcessflowJobExecutor jobExecutor;
+
+    private AdmissionControlInterceptor interceptor;
+
+    @Before
+    public void setUp() {
+        // Four pools with one thread and one queued job each, pending jobs read on every admission
+        jobExecutor = new ProcessflowJobExecutor();
+        ReflectionTestUtils.setField(jobExecutor, "defaultPoolSize", 1);
+        ReflectionTestUtils.setField(jobExecutor, "apmPoolSize", 1);
+        ReflectionTestUtils.setField(jobExecutor, "mepmPoolSize", 1);
+        ReflectionTestUtils.setField(jobExecutor, "inventoryPoolSize", 1);
+        ReflectionTestUtils.setField(jobExecutor, "queueCapacity", 1);
+        ReflectionTestUtils.setField(jobExecutor, "pendingJobsRefresh", 0L);
+        jobExecutor.init();
+        interceptor = new AdmissionControlInterceptor(jobExecutor);
+        ReflectionTestUtils.setField(interceptor, "retryAfterSeconds", 5);
+    }
+
+    @After
+    public void tearDown() {
+        jobReleased.countDown();
+        jobExecutor.destroy();
+    }
+
+    @Test
+    public void testRejectWhenPoolSaturated() throws Exception {
+        // One job executing on the APM pool, one more job fits in its queue
+        ThreadPoolTaskExecutor apmPool = getPools().get(ProcessflowJobExecutor.APM_POOL);
+        apmPool.execute(() -> {
+            jobStarted.countDown();
+            try {
+                jobReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        jobStarted.await();
+        Assert.assertEquals(1, jobExecutor.getBacklog(ProcessflowJobExecutor.APM_POOL));
+        Assert.assertEquals(2, jobExecutor.getCapacity(ProcessflowJobExecutor.APM_POOL));
+
+        MockHttpServletRequest first = new MockHttpServletRequest("POST", URI);
+        Assert.assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), null));
+
+        MockHttpServletRequest rejected = new MockHttpServletRequest("POST", URI);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Assert.assertFalse(interceptor.preHandle(rejected, response, null));
+        Assert.assertEquals(429, response.getStatus());
+        Assert.assertEquals("5", response.getHeader("Retry-After"));
+        Assert.assertEquals(1L, interceptor.getMetrics().get("rejected_requests"));
+
+        // Instantiate uses the MEPM pool, not blocked by a saturated APM pool
+        Assert.assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", URI + "/instance1"),
+                new MockHttpServletResponse(), null));
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        Assert.assertTrue(interceptor.preHandle(rejected, new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    public void testPendingJobsCountedAsBacklog() throws Exception {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Map<String, Object> row = new HashMap<>();
+        row.put("JOB_DEF_ID_", "terminateJobDefinition");
+        row.put("PENDING", 2L);
+        Mockito.when(jdbcTemplate.queryForList(ArgumentMatchers.anyString(), ArgumentMatchers.<Object>any(),
+                ArgumentMatchers.<Object>any())).thenReturn(Collections.singletonList(row));
+        ReflectionTestUtils.setField(jobExecutor, "jdbcTemplate", jdbcTemplate);
+        getJobDefinitionPools().put("terminateJobDefinition", ProcessflowJobExecutor.MEPM_POOL);
+
+        // Two terminate jobs waiting in the database fill the MEPM pool
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Assert.assertFalse(interceptor.preHandle(new MockHttpServletRequest("DELETE", URI + "/instance1"),
+                response, null));
+        Assert.assertEquals(429, response.getStatus());
+        Assert.assertEquals(2, jobExecutor.getPendingJobs(ProcessflowJobExecutor.MEPM_POOL));
+
+        Assert.assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", URI),
+                new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    public void testQueryNotAdmissionControlled() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", URI),
+                    new MockHttpServletResponse(), null));
+        }
+        Assert.assertEquals(Collections.emptyMap(), interceptor.getMetrics().get("admitted_requests"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ThreadPoolTaskExecutor> getPools() {
+        return (Map<String, ThreadPoolTaskExecutor>) ReflectionTestUtils.getField(jobExecutor, "pools");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> getJobDefinitionPools() {
+        return (Map<String, String>) ReflectionTestUtils.getField(jobExecutor, "jobDefinitionPools");
+    }
+}
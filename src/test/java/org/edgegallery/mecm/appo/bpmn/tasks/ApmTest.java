@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.bpmn.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.camunda.bpm.engine.impl.pvm.runtime.ExecutionImpl;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.edgegallery.mecm.appo.service.ApplicationPackageStore;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ApmTest {
+
+    private static final String TENANT_ID = "12db0288-3c67-4042-a708-a8e4a10c6b31";
+
+    private static final String DOWNLOAD_URL = "http://10.9.9.2:11112/apm/v1/tenants/" + TENANT_ID
+            + "/packages/f20358433cf8eb4719a62a49ed118c9b/download";
+
+    @Rule
+    public TemporaryFolder packages = new TemporaryFolder();
+
+    @Mock
+    ExecutionImpl execution;
+
+    private RestTemplate restTemplate;
+
+    private MockRestServiceServer server;
+
+    @Before
+    public void setUp() {
+        // Not read by tests receiving a package directly
+        Mockito.lenient().when(execution.getVariable(Constants.ACCESS_TOKEN)).thenReturn("SampleToken");
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.createServer(restTemplate);
+    }
+
+    @Test
+    public void testDownloadPackage() throws Exception {
+        byte[] csar = createPackage(3);
+        server.expect(requestTo(DOWNLOAD_URL)).andExpect(header(Constants.ACCESS_TOKEN, "SampleToken"))
+                .andRespond(withSuccess(csar, MediaType.APPLICATION_OCTET_STREAM));
+
+        String digest = createApm().downloadPackage(TENANT_ID, DOWNLOAD_URL, "pkg", "instance");
+
+        File appPackage = new File(packages.getRoot(), "instance/pkg.csar");
+        Assert.assertArrayEquals(csar, Files.readAllBytes(appPackage.toPath()));
+        Assert.assertEquals(sha256(csar), digest);
+        server.verify();
+    }
+
+    @Test
+    public void testDownloadPackageTooManyEntries() throws Exception {
+        server.expect(requestTo(DOWNLOAD_URL))
+                .andRespond(withSuccess(createPackage(Apm.TOO_MANY + 1), MediaType.APPLICATION_OCTET_STREAM));
+
+        Apm apm = createApm();
+        assertThrows(AppoException.class, () -> apm.downloadPackage(TENANT_ID, DOWNLOAD_URL, "pkg", "instance"));
+        Assert.assertFalse(new File(packages.getRoot(), "instance/pkg.csar").exists());
+    }
+
+    @Test
+    public void testDownloadPackageNotZip() {
+        server.expect(requestTo(DOWNLOAD_URL)).andRespond(withSuccess("not a package".getBytes(
+                StandardCharsets.UTF_8), MediaType.APPLICATION_OCTET_STREAM));
+
+        Apm apm = createApm();
+        assertThrows(AppoException.class, () -> apm.downloadPackage(TENANT_ID, DOWNLOAD_URL, "pkg", "instance"));
+        Assert.assertFalse(new File(packages.getRoot(), "instance/pkg.csar").exists());
+    }
+
+    @Test
+    public void testReceivePackageReplacesLeftoverFile() throws Exception {
+        byte[] csar = createPackage(1);
+        Path appPackage = packages.newFile("pkg.csar").toPath();
+        Files.write(appPackage, "leftover".getBytes(StandardCharsets.UTF_8));
+
+        String digest = ReflectionTestUtils.invokeMethod(createApm(), "receiveApplicationPackage", appPackage,
+                "pkg", new ByteArrayInputStream(csar));
+
+        Assert.assertArrayEquals(csar, Files.readAllBytes(appPackage));
+        Assert.assertEquals(sha256(csar), digest);
+        Assert.assertEquals(1, packages.getRoot().list().length);
+    }
+
+    @Test
+    public void testReceivePackageLocalStorageFailure() throws Exception {
+        byte[] csar = createPackage(1);
+        Path appPackage = packages.getRoot().toPath().resolve("missing").resolve("pkg.csar");
+
+        Apm apm = createApm();
+        AppoException e = assertThrows(Apm.PackageStorageException.class, () -> ReflectionTestUtils.invokeMethod(
+                apm, "receiveApplicationPackage", appPackage, "pkg", new ByteArrayInputStream(csar)));
+        Assert.assertEquals("Failed to store application package pkg locally", e.getMessage());
+    }
+
+    private Apm createApm() {
+        return new Apm(execution, false, packages.getRoot().getPath() + File.separator, "10.9.9.2:11112",
+                restTemplate, new ApplicationPackageStore());
+    }
+
+    private static byte[] createPackage(int entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < entries; i++) {
+                zip.putNextEntry(new ZipEntry("Definitions/file" + i + ".yaml"));
+                zip.write(("tosca_definitions_version: tosca_simple_yaml_1_2\n# " + i)
+                        .getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.bpmn.tasks;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.runtime.ProcessInstanceWithVariables;
+import org.edgegallery.mecm.appo.apihandler.AppoApplicationTest;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = AppoApplicationTest.class)
+public class BatchProcessParametersTest {
+
+    private static final String BATCH_TERMINATE = "batchTerminateApplicationInstance";
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @After
+    public void tearDown() {
+        managementService.activateJobDefinitionByProcessDefinitionKey(BATCH_TERMINATE);
+    }
+
+    @Test
+    public void testBatchWindowUsesMaxConcurrency() {
+        // Keeps the batch window jobs from running terminate flows
+        managementService.suspendJobDefinitionByProcessDefinitionKey(BATCH_TERMINATE);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put(Constants.TENANT_ID, "12db0288-3c67-4042-a708-a8e4a10c6b31");
+        variables.put(Constants.APP_INSTANCE_IDS, "id1,id2,id3,id4,id5,id6,id7");
+
+        ProcessInstanceWithVariables processInstance = runtimeService.createProcessInstanceByKey(BATCH_TERMINATE)
+                .setVariables(variables).executeWithVariablesInReturn();
+        try {
+            Assert.assertEquals(7, processInstance.getVariables().get(Constants.APP_REQ_CNT));
+            Assert.assertEquals(5, processInstance.getVariables().get(Constants.BATCH_WINDOW_SIZE));
+            Assert.assertEquals(2, processInstance.getVariables().get(Constants.BATCH_WINDOW_START));
+        } finally {
+            runtimeService.deleteProcessInstance(processInstance.getId(), "test");
+        }
+    }
+
+    @Test
+    public void testMultiHostBatchRunsEveryInstance() throws InterruptedException {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put(Constants.TENANT_ID, "12db0288-3c67-4042-a708-a8e4a10c6b31");
+        variables.put(Constants.APP_INSTANCE_IDS, "id1,id2,id3,id4,id5,id6,id7");
+        variables.put(Constants.MEC_HOSTS, "1.1.1.1,1.1.1.2,1.1.1.3,1.1.1.4,1.1.1.5,1.1.1.6,1.1.1.7");
+
+        // Terminate flows of unknown instances end with an error response without outbound requests
+        String processInstanceId = runtimeService.startProcessInstanceByKey(BATCH_TERMINATE, variables).getId();
+        HistoricProcessInstance processInstance = awaitEnd(processInstanceId);
+        Assert.assertEquals("COMPLETED", processInstance.getState());
+
+        List<String> children = historyService.createHistoricProcessInstanceQuery()
+                .superProcessInstanceId(processInstanceId).list().stream().map(HistoricProcessInstance::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(7, children.size());
+        Set<Object> appInstanceIds = new HashSet<>();
+        Set<Object> mecHosts = new HashSet<>();
+        for (String child : children) {
+            appInstanceIds.add(getVariable(child, Constants.APP_INSTANCE_ID));
+            mecHosts.add(getVariable(child, Constants.MEC_HOST));
+        }
+        Assert.assertEquals(new HashSet<>(Arrays.asList("id1", "id2", "id3", "id4", "id5", "id6", "id7")),
+                appInstanceIds);
+        Assert.assertEquals(7, mecHosts.size());
+
+        Assert.assertEquals(0, getVariable(processInstanceId, Constants.APP_REQ_CNT));
+    }
+
+    private HistoricProcessInstance awaitEnd(String processInstanceId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (System.currentTimeMillis() < deadline) {
+            HistoricProcessInstance processInstance = historyService.createHistoricProcessInstanceQuery()
+                    .processInstanceId(processInstanceId).singleResult();
+            if (processInstance.getEndTime() != null) {
+                return processInstance;
+            }
+            // Concurrent completion of window instances must not fail the batch jobs
+            Assert.assertEquals(0, managementService.createJobQuery().processInstanceId(processInstanceId)
+                    .withException().count());
+            Thread.sleep(100);
+        }
+        throw new AssertionError("batch process " + processInstanceId + " did not end");
+    }
+
+    private Object getVariable(String processInstanceId, String name) {
+        HistoricVariableInstance variable = historyService.createHistoricVariableInstanceQuery()
+                .processInstanceId(processInstanceId).variableName(name).singleResult();
+        return variable == null ? null : variable.getValue();
+    }
+}
@@ -30,6 +30,7 @@ import org.edgegallery.mecm.appo.common.AppoConstantsTest;
 import org.edgegallery.mecm.appo.model.AppInstanceInfo;
 import org.edgegallery.mecm.appo.service.AppInstanceInfoService;
 import org.edgegallery.mecm.appo.service.impl.AppInstanceInfoServiceImpl;
+import org.edgegallery.mecm.appo.utils.ApplicationDescriptorCache;
 import org.edgegallery.mecm.appo.utils.Constants;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,6 +39,7 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.client.RestTemplate;
@@ -57,6 +59,9 @@ public class DeComposeApplicationPackageTest {
     @Mock
     private AppInstanceInfoService appInfoService;
 
+    @Spy
+    private ApplicationDescriptorCache descriptorCache = new ApplicationDescriptorCache();
+
     @Autowired
     private RestTemplate restTemplate;
 
@@ -139,7 +144,8 @@ public class DeComposeApplicationPackageTest {
 
         Map<String,Object> map = new HashMap<>();
         map.put("1", execution);
-        DeComposeAppPkgTask deComposeAppPkgTask = new DeComposeAppPkgTask(execution, "", appInfoService);
+        DeComposeAppPkgTask deComposeAppPkgTask = new DeComposeAppPkgTask(execution, "", appInfoService,
+                descriptorCache);
         deComposeAppPkgTask.updateApplicationDescriptor(map);
     }
 
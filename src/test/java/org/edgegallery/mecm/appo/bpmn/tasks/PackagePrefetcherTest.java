@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.bpmn.tasks;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.camunda.bpm.engine.impl.pvm.runtime.ExecutionImpl;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.ServiceTask;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaExecutionListener;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.edgegallery.mecm.appo.service.ApplicationPackageStore;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PackagePrefetcherTest {
+
+    private static final String TENANT_ID = "12db0288-3c67-4042-a708-a8e4a10c6b31";
+
+    @Mock
+    ApplicationPackageStore packageStore;
+
+    @Mock
+    ExecutionImpl execution;
+
+    private PackagePrefetcher prefetcher;
+
+    @Before
+    public void setUp() {
+        prefetcher = new PackagePrefetcher();
+        ReflectionTestUtils.setField(prefetcher, "isEnabled", true);
+        ReflectionTestUtils.setField(prefetcher, "threads", 1);
+        ReflectionTestUtils.setField(prefetcher, "queueSize", 1);
+        ReflectionTestUtils.setField(prefetcher, "apmService", "10.9.9.2");
+        ReflectionTestUtils.setField(prefetcher, "apmServicePort", "11112");
+        ReflectionTestUtils.setField(prefetcher, "appPkgsBasePath", "/usr/app/packages/");
+        ReflectionTestUtils.setField(prefetcher, "isSslEnabled", "false");
+        ReflectionTestUtils.setField(prefetcher, "packageStore", packageStore);
+        prefetcher.init();
+    }
+
+    @After
+    public void tearDown() {
+        prefetcher.destroy();
+    }
+
+    @Test
+    public void testQueuedPrefetchCancelledAndFullQueueSkipped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch downloading = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            started.countDown();
+            downloading.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(packageStore).prefetch(ArgumentMatchers.eq(TENANT_ID), ArgumentMatchers.anyString(),
+                ArgumentMatchers.any());
+        Mockito.when(execution.getVariable(Constants.APP_INSTANCE_ID)).thenReturn("instance2");
+
+        prefetcher.prefetch(TENANT_ID, "pkg1", "instance1", "SampleToken", null);
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        // Queued behind the running prefetch, queue is then full
+        prefetcher.prefetch(TENANT_ID, "pkg2", "instance2", "SampleToken", null);
+        prefetcher.prefetch(TENANT_ID, "pkg3", "instance3", "SampleToken", null);
+        Assert.assertFalse(getPrefetches().containsKey("instance3"));
+
+        // Process flow of instance2 failed before the download step
+        prefetcher.notify(execution);
+        Assert.assertFalse(getPrefetches().containsKey("instance2"));
+
+        downloading.countDown();
+        awaitPrefetches();
+        Mockito.verify(packageStore).prefetch(ArgumentMatchers.eq(TENANT_ID), ArgumentMatchers.eq("pkg1"),
+                ArgumentMatchers.any());
+        Mockito.verifyNoMoreInteractions(packageStore);
+    }
+
+    @Test
+    public void testPrefetchFailureNotPropagated() throws Exception {
+        Mockito.doThrow(new AppoException("Failed to download application package"))
+                .when(packageStore).prefetch(ArgumentMatchers.eq(TENANT_ID), ArgumentMatchers.eq("pkg1"),
+                ArgumentMatchers.any());
+
+        prefetcher.prefetch(TENANT_ID, "pkg1", "instance1", "SampleToken", null);
+        awaitPrefetches();
+        Assert.assertTrue(getPrefetches().isEmpty());
+    }
+
+    @Test
+    public void testQueuedPrefetchCancelledPastDeadline() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch downloading = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            started.countDown();
+            downloading.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(packageStore).prefetch(ArgumentMatchers.eq(TENANT_ID), ArgumentMatchers.anyString(),
+                ArgumentMatchers.any());
+
+        prefetcher.prefetch(TENANT_ID, "pkg1", "instance1", "SampleToken", null);
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        // Queued behind the running prefetch, process flow deadline already passed
+        prefetcher.prefetch(TENANT_ID, "pkg2", "instance2", "SampleToken", System.currentTimeMillis() - 1);
+
+        prefetcher.cancelExpired();
+        Assert.assertEquals(1, prefetcher.getPendingAppInstanceIds().size());
+        Assert.assertTrue(prefetcher.getPendingAppInstanceIds().contains("instance1"));
+
+        downloading.countDown();
+        awaitPrefetches();
+        Mockito.verify(packageStore).prefetch(ArgumentMatchers.eq(TENANT_ID), ArgumentMatchers.eq("pkg1"),
+                ArgumentMatchers.any());
+        Mockito.verifyNoMoreInteractions(packageStore);
+    }
+
+    @Test
+    public void testPrefetchCancelledOnProcessflowFailure() throws Exception {
+        BpmnModelInstance model;
+        try (InputStream stream = getClass().getResourceAsStream("/bpmn/mainprocess/createApplicationInstance.bpmn")) {
+            model = Bpmn.readModelFromStream(stream);
+        }
+        for (String errorResponseId : new String[] {"ServiceTask_13urc99", "ServiceTask_1fd9t6z"}) {
+            ServiceTask errorResponse = model.getModelElementById(errorResponseId);
+            Collection<CamundaExecutionListener> listeners = errorResponse.getExtensionElements()
+                    .getElementsQuery().filterByType(CamundaExecutionListener.class).list();
+            Assert.assertTrue(errorResponseId, listeners.stream().anyMatch(
+                listener -> "${packagePrefetcher}".equals(listener.getCamundaDelegateExpression())
+                    && "start".equals(listener.getCamundaEvent())));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> getPrefetches() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(prefetcher, "prefetches");
+    }
+
+    private void awaitPrefetches() throws InterruptedException {
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(prefetcher, "executor");
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
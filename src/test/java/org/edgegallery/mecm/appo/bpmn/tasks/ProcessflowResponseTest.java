@@ -21,6 +21,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.camunda.bpm.engine.impl.pvm.runtime.ExecutionImpl;
 import org.edgegallery.mecm.appo.common.AppoConstantsTest;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -111,4 +113,16 @@ public class ProcessflowResponseTest {
         assertDoesNotThrow(() -> processflowAbstractTask.sendRequest(execution, restTemplate, null, entity, null));
     }
 
+    @Test
+    public void testSendRequestDeadlineExceeded() {
+        ProcessflowAbstractTask processflowAbstractTask = Mockito.mock(ProcessflowAbstractTask.class, Mockito.CALLS_REAL_METHODS);
+        RestTemplate template = Mockito.mock(RestTemplate.class);
+        Mockito.when(execution.getVariable(Constants.DEADLINE)).thenReturn(System.currentTimeMillis() - 1);
+        Assert.assertNull(processflowAbstractTask.sendRequest(execution, template, "http://1.1.1.1:10000/lcmcontroller",
+                HttpMethod.GET));
+        Mockito.verify(execution).setVariable(ProcessflowAbstractTask.RESPONSE_CODE, Constants.PROCESS_FLOW_ERROR);
+        Mockito.verify(template, Mockito.never()).exchange(Mockito.anyString(), Mockito.any(HttpMethod.class),
+                Mockito.<HttpEntity<String>>any(), Mockito.eq(String.class));
+    }
+
 }
@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.bpmn.tasks;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.history.HistoricVariableUpdate;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.engine.runtime.Execution;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.edgegallery.mecm.appo.apihandler.AppoApplicationTest;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.edgegallery.mecm.appo.utils.TokenCipher;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = AppoApplicationTest.class)
+public class ProcessflowVariablesTest {
+
+    private static final String PROCESS_KEY = "accessTokenResume";
+
+    private static volatile String resolvedToken;
+
+    private static volatile TokenCipher instanceCipher;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private TokenCipher tokenCipher;
+
+    @Value("${appo.token-encryption.key}")
+    private String tokenEncryptionKey;
+
+    private Deployment deployment;
+
+    @Before
+    public void setUp() {
+        BpmnModelInstance process = Bpmn.createExecutableProcess(PROCESS_KEY)
+                .camundaHistoryTimeToLive(1)
+                .startEvent()
+                .receiveTask("wait")
+                .serviceTask().camundaClass(TokenProbe.class.getName())
+                .endEvent()
+                .done();
+        deployment = repositoryService.createDeployment().addModelInstance(PROCESS_KEY + ".bpmn", process).deploy();
+        resolvedToken = null;
+        instanceCipher = tokenCipher;
+    }
+
+    @After
+    public void tearDown() {
+        repositoryService.deleteDeployment(deployment.getId(), true);
+    }
+
+    @Test
+    public void testAccessTokenAvailableAfterResumeOnAnotherInstance() {
+        Execution waiting = startAndWait();
+
+        // Another instance with the same key resumes the process, transient token is gone
+        instanceCipher = new TokenCipher(Base64.getDecoder().decode(tokenEncryptionKey));
+        runtimeService.signal(waiting.getId());
+
+        Assert.assertEquals("SampleToken", resolvedToken);
+    }
+
+    @Test
+    public void testAccessTokenNotPersistedInClearText() {
+        Execution waiting = startAndWait();
+
+        Assert.assertNull(runtimeService.getVariable(waiting.getId(), Constants.ACCESS_TOKEN));
+        Object sealedToken = runtimeService.getVariable(waiting.getId(), Constants.SEALED_ACCESS_TOKEN);
+        Assert.assertNotNull(sealedToken);
+        Assert.assertFalse(sealedToken.toString().contains("SampleToken"));
+
+        // Instance with another key cannot use the token
+        instanceCipher = TokenCipher.withRandomKey();
+        runtimeService.signal(waiting.getId());
+        Assert.assertNull(resolvedToken);
+    }
+
+    @Test
+    public void testSealedAccessTokenNotWrittenToHistory() {
+        Execution waiting = startAndWait();
+        runtimeService.signal(waiting.getId());
+
+        Assert.assertEquals("SampleToken", resolvedToken);
+        Assert.assertEquals(1, historyService.createHistoricVariableInstanceQuery()
+                .processInstanceId(waiting.getProcessInstanceId()).variableName(Constants.TENANT_ID).count());
+        Assert.assertEquals(0, historyService.createHistoricVariableInstanceQuery()
+                .processInstanceId(waiting.getProcessInstanceId()).variableName(Constants.SEALED_ACCESS_TOKEN)
+                .count());
+        Assert.assertEquals(0, historyService.createHistoricDetailQuery()
+                .processInstanceId(waiting.getProcessInstanceId()).variableUpdates().list().stream()
+                .filter(detail -> Constants.SEALED_ACCESS_TOKEN.equals(
+                    ((HistoricVariableUpdate) detail).getVariableName())).count());
+    }
+
+    private Execution startAndWait() {
+        Map<String, Object> inputs = new HashMap<>();
+        inputs.put(Constants.TENANT_ID, "12db0288-3c67-4042-a708-a8e4a10c6b31");
+        inputs.put(Constants.ACCESS_TOKEN, "SampleToken");
+        ProcessInstance processInstance = runtimeService.createProcessInstanceByKey(PROCESS_KEY)
+                .setVariables(ProcessflowVariables.toProcessVariables(inputs, tokenCipher)).execute();
+        return runtimeService.createExecutionQuery().processInstanceId(processInstance.getId())
+                .activityId("wait").singleResult();
+    }
+
+    public static class TokenProbe implements JavaDelegate {
+
+        @Override
+        public void execute(DelegateExecution execution) {
+            ProcessflowVariables.unsealAccessToken(execution, instanceCipher);
+            resolvedToken = ProcessflowVariables.getAccessToken(execution);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import org.edgegallery.mecm.appo.common.AppoConstantsTest;
+import org.edgegallery.mecm.appo.model.AppInstanceDependency;
+import org.edgegallery.mecm.appo.model.AppInstanceInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonVariableSerializerTest {
+
+    private final JsonVariableSerializer serializer = new JsonVariableSerializer();
+
+    @Test
+    public void testAppInstanceInfoRoundTrip() {
+        AppInstanceInfo appInstanceInfo = new AppInstanceInfo();
+        appInstanceInfo.setAppInstanceId(AppoConstantsTest.APP_INSTANCE_ID);
+        appInstanceInfo.setOperationalStatus(AppoConstantsTest.OPERATIONAL_STATUS);
+        appInstanceInfo.setCreateTime(LocalDateTime.of(2021, 1, 1, 10, 0));
+
+        Assert.assertTrue(serializer.canSerializeValue(appInstanceInfo));
+        String typeName = serializer.getTypeNameForDeserialized(appInstanceInfo);
+        AppInstanceInfo result = (AppInstanceInfo) serializer.deserializeFromByteArray(
+                serializer.serializeToByteArray(appInstanceInfo), typeName);
+
+        Assert.assertEquals(AppoConstantsTest.APP_INSTANCE_ID, result.getAppInstanceId());
+        Assert.assertEquals(AppoConstantsTest.OPERATIONAL_STATUS, result.getOperationalStatus());
+        Assert.assertEquals(appInstanceInfo.getCreateTime(), result.getCreateTime());
+    }
+
+    @Test
+    public void testDependencyListRoundTrip() {
+        AppInstanceDependency dependency = new AppInstanceDependency();
+        dependency.setAppInstanceId(AppoConstantsTest.APP_INSTANCE_ID);
+        List<AppInstanceDependency> dependencies = Collections.singletonList(dependency);
+
+        Assert.assertTrue(serializer.canSerializeValue(dependencies));
+        String typeName = serializer.getTypeNameForDeserialized(dependencies);
+        List<?> result = (List<?>) serializer.deserializeFromByteArray(
+                serializer.serializeToByteArray(dependencies), typeName);
+
+        Assert.assertEquals(AppoConstantsTest.APP_INSTANCE_ID,
+                ((AppInstanceDependency) result.get(0)).getAppInstanceId());
+    }
+
+    @Test
+    public void testUnsupportedValue() {
+        Assert.assertFalse(serializer.canSerializeValue("value"));
+        Assert.assertFalse(serializer.canSerializeValue(Collections.singletonList("value")));
+        Assert.assertFalse(serializer.canSerializeValue(Collections.emptyList()));
+    }
+}
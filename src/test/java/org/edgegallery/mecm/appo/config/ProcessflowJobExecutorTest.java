@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.ServiceTask;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaProperties;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaProperty;
+import org.edgegallery.mecm.appo.apihandler.AppoApplicationTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = AppoApplicationTest.class)
+public class ProcessflowJobExecutorTest {
+
+    private static final String PROCESS_KEY = "jobExecutorPools";
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private ProcessflowJobExecutor jobExecutor;
+
+    private Deployment deployment;
+
+    @Before
+    public void setUp() {
+        BpmnModelInstance process = Bpmn.createExecutableProcess(PROCESS_KEY)
+                .camundaHistoryTimeToLive(1)
+                .startEvent()
+                .parallelGateway("fork")
+                .serviceTask("mepmTask").camundaAsyncBefore().camundaExpression("${true}")
+                .endEvent()
+                .moveToNode("fork")
+                .serviceTask("plainTask").camundaAsyncBefore().camundaExpression("${true}")
+                .endEvent()
+                .done();
+        CamundaProperty property = process.newInstance(CamundaProperty.class);
+        property.setCamundaName(ProcessflowJobExecutor.POOL_PROPERTY);
+        property.setCamundaValue(ProcessflowJobExecutor.MEPM_POOL);
+        CamundaProperties properties = process.newInstance(CamundaProperties.class);
+        properties.getCamundaProperties().add(property);
+        process.<ServiceTask>getModelElementById("mepmTask").builder().addExtensionElement(properties);
+
+        deployment = repositoryService.createDeployment().addModelInstance(PROCESS_KEY + ".bpmn", process).deploy();
+        // Keeps the job executor from running the jobs
+        managementService.suspendJobDefinitionByProcessDefinitionKey(PROCESS_KEY);
+    }
+
+    @After
+    public void tearDown() {
+        repositoryService.deleteDeployment(deployment.getId(), true);
+    }
+
+    @Test
+    public void testJobsDispatchedToActivityPool() {
+        ProcessInstance processInstance = runtimeService.startProcessInstanceByKey(PROCESS_KEY);
+
+        Job mepmJob = managementService.createJobQuery().processInstanceId(processInstance.getId())
+                .activityId("mepmTask").singleResult();
+        Job plainJob = managementService.createJobQuery().processInstanceId(processInstance.getId())
+                .activityId("plainTask").singleResult();
+
+        Map<String, String> jobPools = jobExecutor.getPools(Arrays.asList(mepmJob.getId(), plainJob.getId()),
+                (ProcessEngineImpl) processEngine);
+        Assert.assertEquals(ProcessflowJobExecutor.MEPM_POOL, jobPools.get(mepmJob.getId()));
+        Assert.assertEquals(ProcessflowJobExecutor.DEFAULT_POOL, jobPools.get(plainJob.getId()));
+    }
+
+    @Test
+    public void testRemovedJobUsesDefaultPool() {
+        Map<String, String> jobPools = jobExecutor.getPools(Arrays.asList("mepm:1234", "1234"),
+                (ProcessEngineImpl) processEngine);
+        Assert.assertEquals(ProcessflowJobExecutor.DEFAULT_POOL, jobPools.get("mepm:1234"));
+        Assert.assertEquals(ProcessflowJobExecutor.DEFAULT_POOL, jobPools.get("1234"));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.edgegallery.mecm.appo.apihandler.AppoApplicationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = AppoApplicationTest.class)
+public class RestTemplateConfigTest {
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    private CloseableHttpClient httpClient;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Test
+    public void testConnectionPoolConfigured() {
+        Assert.assertEquals(20, connectionManager.getMaxTotal());
+        Assert.assertEquals(10, connectionManager.getDefaultMaxPerRoute());
+        Assert.assertEquals(2000, connectionManager.getValidateAfterInactivity());
+    }
+
+    @Test
+    public void testRestTemplateUsesSharedClient() {
+        HttpComponentsClientHttpRequestFactory requestFactory =
+                (HttpComponentsClientHttpRequestFactory) ReflectionTestUtils.getField(restTemplate, "requestFactory");
+        Assert.assertSame(httpClient, requestFactory.getHttpClient());
+        Assert.assertSame(connectionManager, ReflectionTestUtils.getField(httpClient, "connManager"));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.config;
+
+import org.edgegallery.mecm.appo.utils.TokenCipher;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class TokenCipherConfigTest {
+
+    private final TokenCipherConfig config = new TokenCipherConfig();
+
+    @Test
+    public void testConfiguredKey() {
+        ReflectionTestUtils.setField(config, "tokenEncryptionKey", "0tBCD8sbjDdW/adtrpxzqD5pgiQUS16H5EAtUDvhWZQ=");
+        TokenCipher tokenCipher = config.tokenCipher();
+
+        Assert.assertEquals("SampleToken", tokenCipher.open(tokenCipher.seal("SampleToken")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingKeyFailsStartup() {
+        ReflectionTestUtils.setField(config, "tokenEncryptionKey", "");
+        config.tokenCipher();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMalformedKeyFailsStartup() {
+        ReflectionTestUtils.setField(config, "tokenEncryptionKey", "not a base64 key");
+        config.tokenCipher();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testShortKeyFailsStartup() {
+        ReflectionTestUtils.setField(config, "tokenEncryptionKey", "c2hvcnRrZXk=");
+        config.tokenCipher();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.repository;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import org.edgegallery.mecm.appo.apihandler.AppoApplicationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Checks every native repository query is served by an index of the embedded database schema.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = AppoApplicationTest.class)
+public class RepositoryQueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testAppInstanceInfoQueriesUseIndex() {
+        assertQueriesUseIndex(AppInstanceInfoRepository.class);
+    }
+
+    @Test
+    public void testAppRuleTaskQueriesUseIndex() {
+        assertQueriesUseIndex(AppRuleTaskRepository.class);
+    }
+
+    @Test
+    public void testAppInstanceDependencyQueriesUseIndex() {
+        assertQueriesUseIndex(AppInstanceDependencyRepository.class);
+    }
+
+    private void assertQueriesUseIndex(Class<?> repository) {
+        int queries = 0;
+        for (Method method : repository.getDeclaredMethods()) {
+            Query query = method.getAnnotation(Query.class);
+            if (query == null) {
+                continue;
+            }
+            String sql = query.value().replaceAll(":\\w+", "'param'");
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+            Assert.assertFalse(repository.getSimpleName() + "." + method.getName() + " scans table: " + plan,
+                    plan.toLowerCase(Locale.ROOT).contains("tablescan"));
+            queries++;
+        }
+        Assert.assertTrue(queries > 0);
+    }
+}
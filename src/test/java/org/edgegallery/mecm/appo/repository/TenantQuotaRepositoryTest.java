@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.edgegallery.mecm.appo.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.edgegallery.mecm.appo.apihandler.AppoApplicationTest;
+import org.edgegallery.mecm.appo.model.AppInstanceInfo;
+import org.edgegallery.mecm.appo.service.AppInstanceInfoService;
+import org.edgegallery.mecm.appo.service.TenantQuota;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the native tenant quota queries against the embedded database.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = AppoApplicationTest.class)
+public class TenantQuotaRepositoryTest {
+
+    private static final String TENANT_ID = "5a1e4f5c-5ddd-4c8e-9bd5-6e1f3c7a2d90";
+    private static final String APP_INSTANCES_KEY = "appinstances/" + TENANT_ID;
+
+    @Autowired
+    private TenantQuotaRepository tenantQuotaRepository;
+
+    @Autowired
+    private AppoTenantRepository appoTenantRepository;
+
+    @Autowired
+    private AppInstanceInfoService appInstanceInfoService;
+
+    @Autowired
+    private TenantQuota tenantQuota;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @After
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM appinstanceinfo WHERE tenant=?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM appotenant WHERE tenant=?", TENANT_ID);
+        jdbcTemplate.update("DELETE FROM tenantquota WHERE quota_key=?", APP_INSTANCES_KEY);
+        tenantQuota.reconcile();
+    }
+
+    @Test
+    public void testCounterRowInsertedOnce() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Assert.assertEquals(Integer.valueOf(1),
+                transaction.execute(status -> tenantQuotaRepository.insertIfAbsent(APP_INSTANCES_KEY, 1L)));
+        Assert.assertEquals(Integer.valueOf(0),
+                transaction.execute(status -> tenantQuotaRepository.insertIfAbsent(APP_INSTANCES_KEY, 5L)));
+
+        Assert.assertEquals(Integer.valueOf(1),
+                transaction.execute(status -> tenantQuotaRepository.increment(APP_INSTANCES_KEY, 2L)));
+        Assert.assertEquals(Integer.valueOf(0),
+                transaction.execute(status -> tenantQuotaRepository.increment(APP_INSTANCES_KEY, 2L)));
+        Assert.assertEquals(Long.valueOf(2),
+                transaction.execute(status -> tenantQuotaRepository.lockEntries(APP_INSTANCES_KEY)));
+    }
+
+    @Test
+    public void testTenantInsertedAndDeletedOnce() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Assert.assertEquals(Integer.valueOf(1),
+                transaction.execute(status -> appoTenantRepository.insertIfAbsent(TENANT_ID)));
+        Assert.assertEquals(Integer.valueOf(0),
+                transaction.execute(status -> appoTenantRepository.insertIfAbsent(TENANT_ID)));
+
+        Assert.assertEquals(Integer.valueOf(1),
+                transaction.execute(status -> appoTenantRepository.deleteByTenant(TENANT_ID)));
+        Assert.assertEquals(Integer.valueOf(0),
+                transaction.execute(status -> appoTenantRepository.deleteByTenant(TENANT_ID)));
+    }
+
+    @Test
+    public void testConcurrentFirstCreatesOfTenantKeepCountersExact() throws Exception {
+        tenantQuota.reconcile();
+        int creates = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(creates);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < creates; i++) {
+                AppInstanceInfo appInstanceInfo = new AppInstanceInfo();
+                appInstanceInfo.setAppInstanceId("a2c7e1b0-77f4-4f0e-8a4d-3c1f5e9b7d0" + i);
+                appInstanceInfo.setAppPackageId("pkg");
+                appInstanceInfo.setAppName("app");
+                appInstanceInfo.setMecHost("1.1.1.1");
+                appInstanceInfo.setOperationalStatus("Creating");
+                results.add(executor.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    appInstanceInfoService.createAppInstanceInfo(TENANT_ID, appInstanceInfo);
+                    return null;
+                }));
+            }
+            start.countDown();
+            int created = 0;
+            for (Future<?> result : results) {
+                try {
+                    result.get(30, TimeUnit.SECONDS);
+                    created++;
+                } catch (ExecutionException e) {
+                    // Create conflicting on the tenant row is rolled back
+                }
+            }
+            Assert.assertTrue(created > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Counters match the committed rows, drifted counters would be corrected by reconciliation
+        long tenants = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appotenant", Long.class);
+        long appInstances = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appinstanceinfo WHERE tenant=?",
+                Long.class, TENANT_ID);
+        Assert.assertEquals(Long.valueOf(tenants), getEntries("tenants"));
+        Assert.assertEquals(Long.valueOf(appInstances), getEntries(APP_INSTANCES_KEY));
+    }
+
+    @Test
+    public void testReconcileCorrectsDriftedCounter() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.execute(status -> tenantQuotaRepository.insertIfAbsent(APP_INSTANCES_KEY, 7L));
+
+        tenantQuota.reconcile();
+        Assert.assertEquals(Long.valueOf(0), getEntries(APP_INSTANCES_KEY));
+    }
+
+    private Long getEntries(String quotaKey) {
+        return jdbcTemplate.queryForObject("SELECT entries FROM tenantquota WHERE quota_key=?", Long.class,
+                quotaKey);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ApplicationPackageStoreTest {
+
+    private static final String TENANT_ID = "12db0288-3c67-4042-a708-a8e4a10c6b31";
+
+    @Rule
+    public TemporaryFolder packages = new TemporaryFolder();
+
+    private ApplicationPackageStore store;
+
+    private ExecutorService executor;
+
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        store = createStore(1024);
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentAcquireDownloadsOnce() throws Exception {
+        CountDownLatch downloading = new CountDownLatch(1);
+        List<CompletableFuture<String>> digests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Path appPackage = packages.newFolder("instance" + i).toPath().resolve("pkg.csar");
+            String appInstanceId = "instance" + i;
+            digests.add(CompletableFuture.supplyAsync(() -> store.acquire(TENANT_ID, "pkg", appInstanceId,
+                appPackage, null, target -> {
+                    await(downloading);
+                    return write(target, "package");
+                }), executor));
+        }
+        downloading.countDown();
+
+        for (CompletableFuture<String> digest : digests) {
+            Assert.assertEquals("digest", digest.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, downloads.get());
+        for (int i = 0; i < 8; i++) {
+            Assert.assertEquals("package", new String(Files.readAllBytes(
+                    packages.getRoot().toPath().resolve("instance" + i + "/pkg.csar")), StandardCharsets.UTF_8));
+        }
+        Assert.assertEquals(8, store.getStats().get("references"));
+    }
+
+    @Test
+    public void testAcquireJoinsPrefetch() throws Exception {
+        CountDownLatch downloading = new CountDownLatch(1);
+        CompletableFuture<Void> prefetch = CompletableFuture.runAsync(() -> store.prefetch(TENANT_ID, "pkg",
+            target -> {
+                await(downloading);
+                return write(target, "package");
+            }), executor);
+
+        Path appPackage = packages.newFolder("instance1").toPath().resolve("pkg.csar");
+        CompletableFuture<String> digest = CompletableFuture.supplyAsync(() -> store.acquire(TENANT_ID, "pkg",
+            "instance1", appPackage, null, target -> write(target, "package")), executor);
+        downloading.countDown();
+
+        prefetch.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals("digest", digest.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, downloads.get());
+        Assert.assertTrue(Files.exists(appPackage));
+    }
+
+    @Test
+    public void testAcquireDownloadsAgainAfterFailedPrefetch() throws Exception {
+        CountDownLatch downloading = new CountDownLatch(1);
+        CompletableFuture<Void> prefetch = CompletableFuture.runAsync(() -> store.prefetch(TENANT_ID, "pkg",
+            target -> {
+                await(downloading);
+                throw new AppoException("Application package download failed");
+            }), executor);
+        awaitDownload();
+
+        Path appPackage = packages.newFolder("instance1").toPath().resolve("pkg.csar");
+        CompletableFuture<String> digest = CompletableFuture.supplyAsync(() -> store.acquire(TENANT_ID, "pkg",
+            "instance1", appPackage, null, target -> write(target, "package")), executor);
+        downloading.countDown();
+
+        assertThrows(ExecutionException.class, () -> prefetch.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals("digest", digest.get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(Files.exists(appPackage));
+    }
+
+    @Test
+    public void testWaitForDownloadBoundedByDeadline() throws Exception {
+        CountDownLatch downloading = new CountDownLatch(1);
+        CompletableFuture<Void> prefetch = CompletableFuture.runAsync(() -> store.prefetch(TENANT_ID, "pkg",
+            target -> {
+                await(downloading);
+                return write(target, "package");
+            }), executor);
+        awaitDownload();
+
+        Path appPackage = packages.newFolder("instance1").toPath().resolve("pkg.csar");
+        AppoException exception = assertThrows(AppoException.class, () -> store.acquire(TENANT_ID, "pkg",
+            "instance1", appPackage, System.currentTimeMillis() + 100, target -> write(target, "package")));
+        Assert.assertEquals("Request deadline exceeded before application package download", exception.getMessage());
+
+        downloading.countDown();
+        prefetch.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, downloads.get());
+    }
+
+    @Test
+    public void testFailedDownloadIsNotStored() throws Exception {
+        Path appPackage = packages.newFolder("instance1").toPath().resolve("pkg.csar");
+        assertThrows(AppoException.class, () -> store.acquire(TENANT_ID, "pkg", "instance1", appPackage, null,
+            target -> {
+                throw new AppoException("Downloaded package is not valid");
+            }));
+        Assert.assertEquals(0, store.getStats().get("packages"));
+
+        Assert.assertEquals("digest", store.acquire(TENANT_ID, "pkg", "instance1", appPackage, null,
+            target -> write(target, "package")));
+        Assert.assertTrue(Files.exists(appPackage));
+    }
+
+    @Test
+    public void testUnreferencedPackagesEvictedLeastRecentlyUsedFirst() throws Exception {
+        store = createStore(20);
+        acquire("pkg1", "instance1");
+        acquire("pkg2", "instance2");
+        store.release("instance1");
+        store.release("instance2");
+        acquire("pkg1", "instance3");
+        Assert.assertEquals(2, downloads.get());
+
+        // Quota exceeded, pkg2 is least recently used
+        acquire("pkg3", "instance4");
+        Assert.assertEquals(2, store.getStats().get("packages"));
+        acquire("pkg1", "instance5");
+        Assert.assertEquals(3, downloads.get());
+        acquire("pkg2", "instance6");
+        Assert.assertEquals(4, downloads.get());
+    }
+
+    @Test
+    public void testStoredPackagesLoadedOnRestart() throws Exception {
+        acquire("pkg1", "instance1");
+
+        store = createStore(1024);
+        acquire("pkg1", "instance2");
+        Assert.assertEquals(1, downloads.get());
+    }
+
+    @Test
+    public void testPackageNotSharedAcrossTenants() throws Exception {
+        acquire("pkg", "instance1");
+
+        Path appPackage = packages.newFolder("instance2").toPath().resolve("pkg.csar");
+        store.acquire("tenant2", "pkg", "instance2", appPackage, null, target -> write(target, "package"));
+        Assert.assertEquals(2, downloads.get());
+        Assert.assertEquals(2, store.getStats().get("packages"));
+    }
+
+    @Test
+    public void testTenantNamedTmpKeptOnRestart() throws Exception {
+        Path appPackage = packages.newFolder("instance1").toPath().resolve("pkg.csar");
+        store.acquire("tmp", "pkg", "instance1", appPackage, null, target -> write(target, "package"));
+
+        store = createStore(1024);
+        Assert.assertEquals(1, store.getStats().get("packages"));
+        Assert.assertEquals(1, store.getStats().get("references"));
+    }
+
+    @Test
+    public void testReferencesRestoredOnRestart() throws Exception {
+        store = createStore(10);
+        acquire("pkg1", "instance1");
+
+        // Referenced by instance1, not evicted once quota is exceeded
+        store = createStore(10);
+        Assert.assertEquals(1, store.getStats().get("references"));
+        acquire("pkg2", "instance2");
+        Assert.assertEquals(2, store.getStats().get("packages"));
+
+        store.release("instance1");
+        Assert.assertEquals(1, store.getStats().get("packages"));
+    }
+
+    private ApplicationPackageStore createStore(long maxSize) {
+        ApplicationPackageStore packageStore = new ApplicationPackageStore();
+        ReflectionTestUtils.setField(packageStore, "isEnabled", true);
+        ReflectionTestUtils.setField(packageStore, "maxSize", maxSize);
+        ReflectionTestUtils.setField(packageStore, "appPkgBasePath", packages.getRoot().getPath());
+        packageStore.init();
+        return packageStore;
+    }
+
+    private void acquire(String appPackageId, String appInstanceId) throws IOException {
+        Path appPackage = packages.newFolder(appInstanceId).toPath().resolve(appPackageId + ".csar");
+        store.acquire(TENANT_ID, appPackageId, appInstanceId, appPackage, null, target -> write(target, "package"));
+    }
+
+    private String write(Path target, String content) {
+        downloads.incrementAndGet();
+        try {
+            Files.write(target, content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return "digest";
+    }
+
+    private void awaitDownload() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (store.getStats().get("downloads").equals(0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
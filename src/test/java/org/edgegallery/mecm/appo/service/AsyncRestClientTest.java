@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.edgegallery.mecm.appo.service;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+public class AsyncRestClientTest {
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+
+    private CircuitBreakerRegistry circuitBreakers;
+
+    private AsyncRestClient client;
+
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/mepm", exchange -> {
+            byte[] body = ("{\"data\":\"" + exchange.getRequestHeaders().getFirst("access_token") + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.createContext("/unavailable", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        circuitBreakers = new CircuitBreakerRegistry();
+        ReflectionTestUtils.setField(circuitBreakers, "isEnabled", true);
+        ReflectionTestUtils.setField(circuitBreakers, "failureThreshold", 1);
+        ReflectionTestUtils.setField(circuitBreakers, "openDuration", 30000L);
+        ReflectionTestUtils.setField(circuitBreakers, "halfOpenMaxCalls", 1);
+        ClientHttpRequestInterceptor deadlineProbe = (request, body, execution) -> {
+            Long deadline = RequestDeadline.getDeadline();
+            if (deadline != null) {
+                deadlines.put(request.getURI().getPath(), deadline);
+            }
+            return execution.execute(request, body);
+        };
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(Arrays.asList(new CircuitBreakerInterceptor(circuitBreakers, 5000, 60000),
+                deadlineProbe));
+
+        client = new AsyncRestClient();
+        ReflectionTestUtils.setField(client, "threads", 1);
+        ReflectionTestUtils.setField(client, "queueCapacity", 1);
+        ReflectionTestUtils.setField(client, "restTemplate", restTemplate);
+        client.init();
+    }
+
+    @After
+    public void tearDown() {
+        released.countDown();
+        RequestDeadline.clear();
+        client.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    public void testRequestsCompletedWithDeadlineOfCaller() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("access_token", "SampleToken");
+        long deadline = System.currentTimeMillis() + 60000L;
+        RequestDeadline.setDeadline(deadline);
+
+        CompletableFuture<ResponseEntity<String>> response =
+                client.exchange(baseUrl + "/mepm", HttpMethod.GET, headers, null);
+        Assert.assertEquals(HttpStatus.OK, response.join().getStatusCode());
+        Assert.assertEquals("{\"data\":\"SampleToken\"}", response.join().getBody());
+        Assert.assertEquals(Long.valueOf(deadline), deadlines.get("/mepm"));
+    }
+
+    @Test
+    public void testClientErrorResponse() {
+        CompletableFuture<ResponseEntity<String>> response =
+                client.exchange(baseUrl + "/missing", HttpMethod.DELETE, new HttpHeaders(), null);
+        try {
+            response.join();
+            Assert.fail("client error expected");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof HttpClientErrorException);
+            Assert.assertEquals(404, ((HttpClientErrorException) e.getCause()).getRawStatusCode());
+        }
+        Assert.assertEquals("CLOSED", circuitBreakers.getStates().values().iterator().next());
+    }
+
+    @Test
+    public void testServerErrorCountedByCircuitBreaker() {
+        CompletableFuture<ResponseEntity<String>> response =
+                client.exchange(baseUrl + "/unavailable", HttpMethod.GET, new HttpHeaders(), null);
+        try {
+            response.join();
+            Assert.fail("server error expected");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof HttpServerErrorException);
+        }
+        Assert.assertEquals("OPEN", circuitBreakers.getStates().values().iterator().next());
+    }
+
+    @Test
+    public void testRequestRejectedWhenQueueFull() {
+        List<CompletableFuture<ResponseEntity<String>>> responses = new ArrayList<>();
+        // First request occupies the only worker, second one fills the queue
+        responses.add(client.exchange(baseUrl + "/slow", HttpMethod.GET, new HttpHeaders(), null));
+        responses.add(client.exchange(baseUrl + "/slow", HttpMethod.GET, new HttpHeaders(), null));
+
+        CompletableFuture<ResponseEntity<String>> rejected =
+                client.exchange(baseUrl + "/slow", HttpMethod.GET, new HttpHeaders(), null);
+        try {
+            rejected.join();
+            Assert.fail("rejection expected");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof ResourceAccessException);
+        }
+
+        released.countDown();
+        for (CompletableFuture<ResponseEntity<String>> response : responses) {
+            Assert.assertEquals(HttpStatus.NO_CONTENT, response.join().getStatusCode());
+        }
+        Assert.assertEquals("CLOSED", circuitBreakers.getStates().values().iterator().next());
+    }
+}
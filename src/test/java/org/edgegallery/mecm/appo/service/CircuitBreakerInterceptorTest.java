@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class CircuitBreakerInterceptorTest {
+
+    private static final String MEPM = "1.1.1.1:10000";
+
+    private final MockClientHttpRequest request =
+            new MockClientHttpRequest(HttpMethod.GET, URI.create("http://" + MEPM + "/lcmcontroller"));
+
+    private final ClientHttpRequestExecution readTimeout = (request, body) -> {
+        throw new SocketTimeoutException("Read timed out");
+    };
+
+    private CircuitBreakerRegistry circuitBreakers;
+
+    private CircuitBreakerInterceptor interceptor;
+
+    @Before
+    public void setUp() {
+        circuitBreakers = new CircuitBreakerRegistry();
+        ReflectionTestUtils.setField(circuitBreakers, "isEnabled", true);
+        ReflectionTestUtils.setField(circuitBreakers, "failureThreshold", 1);
+        ReflectionTestUtils.setField(circuitBreakers, "openDuration", 30000L);
+        ReflectionTestUtils.setField(circuitBreakers, "halfOpenMaxCalls", 1);
+        interceptor = new CircuitBreakerInterceptor(circuitBreakers, 5000, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    public void testTimeoutShortenedByDeadlineNotCounted() {
+        RequestDeadline.setDeadline(System.currentTimeMillis() + 1000L);
+        intercept(readTimeout);
+        Assert.assertEquals("CLOSED", circuitBreakers.getStates().get(MEPM));
+    }
+
+    @Test
+    public void testTimeoutWithinDeadlineCounted() {
+        RequestDeadline.setDeadline(System.currentTimeMillis() + 120000L);
+        intercept(readTimeout);
+        Assert.assertEquals("OPEN", circuitBreakers.getStates().get(MEPM));
+    }
+
+    @Test
+    public void testTimeoutWithoutDeadlineCounted() {
+        intercept(readTimeout);
+        Assert.assertEquals("OPEN", circuitBreakers.getStates().get(MEPM));
+    }
+
+    @Test
+    public void testServerErrorCounted() throws IOException {
+        interceptor.intercept(request, new byte[0],
+            (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.SERVICE_UNAVAILABLE));
+        Assert.assertEquals("OPEN", circuitBreakers.getStates().get(MEPM));
+    }
+
+    @Test
+    public void testClientErrorNotCounted() throws IOException {
+        interceptor.intercept(request, new byte[0],
+            (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.NOT_FOUND));
+        Assert.assertEquals("CLOSED", circuitBreakers.getStates().get(MEPM));
+    }
+
+    private void intercept(ClientHttpRequestExecution execution) {
+        try {
+            interceptor.intercept(request, new byte[0], execution);
+            Assert.fail("timeout expected");
+        } catch (IOException e) {
+            Assert.assertTrue(e instanceof SocketTimeoutException);
+        }
+    }
+}
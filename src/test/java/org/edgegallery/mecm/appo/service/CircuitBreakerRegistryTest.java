@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import java.net.URI;
+import org.edgegallery.mecm.appo.exception.CircuitBreakerOpenException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class CircuitBreakerRegistryTest {
+
+    private static final String MEPM = "1.1.1.1:10000";
+
+    private CircuitBreakerRegistry circuitBreakers;
+
+    @Before
+    public void setUp() {
+        circuitBreakers = new CircuitBreakerRegistry();
+        ReflectionTestUtils.setField(circuitBreakers, "isEnabled", true);
+        ReflectionTestUtils.setField(circuitBreakers, "failureThreshold", 2);
+        ReflectionTestUtils.setField(circuitBreakers, "openDuration", 100L);
+        ReflectionTestUtils.setField(circuitBreakers, "halfOpenMaxCalls", 1);
+    }
+
+    @Test
+    public void testGetKey() {
+        Assert.assertEquals(MEPM, CircuitBreakerRegistry.getKey(URI.create("http://1.1.1.1:10000/lcmcontroller")));
+        Assert.assertEquals("1.1.1.1:443", CircuitBreakerRegistry.getKey(URI.create("https://1.1.1.1/mepm")));
+    }
+
+    @Test
+    public void testOpenHalfOpenClose() throws Exception {
+        circuitBreakers.acquirePermission(MEPM);
+        circuitBreakers.onFailure(MEPM);
+        circuitBreakers.acquirePermission(MEPM);
+        circuitBreakers.onFailure(MEPM);
+        Assert.assertEquals("OPEN", circuitBreakers.getStates().get(MEPM));
+
+        try {
+            circuitBreakers.acquirePermission(MEPM);
+            Assert.fail("circuit breaker open expected");
+        } catch (CircuitBreakerOpenException e) {
+            Assert.assertTrue(e.getMessage().contains(MEPM));
+        }
+
+        Thread.sleep(150);
+        circuitBreakers.acquirePermission(MEPM);
+        Assert.assertEquals("HALF_OPEN", circuitBreakers.getStates().get(MEPM));
+        circuitBreakers.onSuccess(MEPM);
+        Assert.assertEquals("CLOSED", circuitBreakers.getStates().get(MEPM));
+    }
+
+    @Test
+    public void testHalfOpenFailureReopens() throws Exception {
+        circuitBreakers.acquirePermission(MEPM);
+        circuitBreakers.onFailure(MEPM);
+        circuitBreakers.onFailure(MEPM);
+
+        Thread.sleep(150);
+        circuitBreakers.acquirePermission(MEPM);
+        circuitBreakers.onFailure(MEPM);
+        Assert.assertEquals("OPEN", circuitBreakers.getStates().get(MEPM));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+public class IdempotentRetryTest {
+
+    private static final String INSTANTIATE_URI = "/lcmcontroller/v2/tenants/t1/app_instances/i1/instantiate";
+
+    private HttpServer mepm;
+
+    private CloseableHttpClient httpClient;
+
+    private RestTemplate restTemplate;
+
+    private String baseUrl;
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    private final AtomicInteger instances = new AtomicInteger();
+
+    private final Map<String, String> operations = new ConcurrentHashMap<>();
+
+    /**
+     * MEPM stand-in, first response of every instantiation is lost on the way back as 503 from a gateway. Operation
+     * with an already received idempotency key is not repeated.
+     */
+    @Before
+    public void setUp() throws IOException {
+        mepm = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        mepm.createContext(INSTANTIATE_URI, exchange -> {
+            drain(exchange);
+            int attempt = attempts.incrementAndGet();
+            String key = exchange.getRequestHeaders().getFirst(RestClientHelper.IDEMPOTENCY_KEY);
+            String instance = key != null ? operations.get(key) : null;
+            if (instance == null) {
+                instance = "{\"data\":\"instance-" + instances.incrementAndGet() + "\"}";
+                if (key != null) {
+                    operations.put(key, instance);
+                }
+            }
+            if (attempt == 1) {
+                respond(exchange, 503, "service unavailable");
+            } else {
+                respond(exchange, 200, instance);
+            }
+        });
+        mepm.start();
+        baseUrl = "http://127.0.0.1:" + mepm.getAddress().getPort();
+
+        RestClientHelper helper = new RestClientHelper(false, "", "");
+        PoolingHttpClientConnectionManager connectionManager = helper.buildConnectionManager(4, 4);
+        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(5000).setSocketTimeout(5000)
+                .setConnectionRequestTimeout(5000).build();
+        httpClient = helper.buildHttpClient(connectionManager, requestConfig, 1000, 1000);
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        httpClient.close();
+        mepm.stop(0);
+    }
+
+    @Test
+    public void testInstantiateRetriedWithoutDuplicate() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(RestClientHelper.IDEMPOTENCY_KEY, "request-1:i1:instantiate");
+
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + INSTANTIATE_URI, HttpMethod.POST,
+                new HttpEntity<>("{\"hostIp\":\"1.1.1.1\"}", headers), String.class);
+
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assert.assertEquals("{\"data\":\"instance-1\"}", response.getBody());
+        Assert.assertEquals(2, attempts.get());
+        Assert.assertEquals(1, instances.get());
+    }
+
+    @Test
+    public void testPostWithoutIdempotencyKeyNotRetried() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            restTemplate.exchange(baseUrl + INSTANTIATE_URI, HttpMethod.POST,
+                    new HttpEntity<>("{\"hostIp\":\"1.1.1.1\"}", headers), String.class);
+            Assert.fail("server error expected");
+        } catch (HttpServerErrorException e) {
+            Assert.assertEquals(503, e.getRawStatusCode());
+        }
+        Assert.assertEquals(1, attempts.get());
+        Assert.assertEquals(1, instances.get());
+    }
+
+    private static void drain(HttpExchange exchange) throws IOException {
+        try (InputStream is = exchange.getRequestBody()) {
+            byte[] buffer = new byte[1024];
+            while (is.read(buffer) != -1) {
+                // Request body is not needed by the stand-in
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
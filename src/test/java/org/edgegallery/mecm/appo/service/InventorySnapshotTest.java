@@ -0,0 +1,200 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.edgegallery.mecm.appo.service.InventorySnapshot.MecHost;
+import org.edgegallery.mecm.appo.service.impl.RestServiceImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InventorySnapshotTest {
+
+    private static final String TENANT_ID = "12db0288-3c67-4042-a708-a8e4a10c6b31";
+    private static final String HOSTS_URL = "10.9.9.1:11111/inventory/v1/tenants/" + TENANT_ID + "/mechosts";
+    private static final String MEPMS_URL = "10.9.9.1:11111/inventory/v1/mepms";
+    private static final String HOSTS = "[{\"mechostIp\":\"1.1.1.1\",\"mepmIp\":\"2.2.2.2\","
+            + "\"hwcapabilities\":[{\"hwType\":\"GPU\"},{\"hwType\":\"NPU\"}]},"
+            + "{\"mechostIp\":\"3.3.3.3\",\"mepmIp\":\"2.2.2.2\",\"city\":\"TestCity\"}]";
+    private static final String MEPMS = "[{\"mepmIp\":\"2.2.2.2\",\"mepmPort\":\"10000\",\"userName\":\"Test\"}]";
+
+    @Mock
+    private RestServiceImpl restService;
+
+    @InjectMocks
+    private InventorySnapshot inventorySnapshot;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(inventorySnapshot, "isEnabled", true);
+        ReflectionTestUtils.setField(inventorySnapshot, "refreshInterval", 60000L);
+        ReflectionTestUtils.setField(inventorySnapshot, "idleTimeout", 60000L);
+        ReflectionTestUtils.setField(inventorySnapshot, "failureBackoff", 60000L);
+        ReflectionTestUtils.setField(inventorySnapshot, "inventoryService", "10.9.9.1");
+        ReflectionTestUtils.setField(inventorySnapshot, "inventoryServicePort", "11111");
+        inventorySnapshot.init();
+        RequestDeadline.setDeadline(System.currentTimeMillis() + 10000L);
+    }
+
+    @After
+    public void tearDown() {
+        RequestDeadline.clear();
+        inventorySnapshot.destroy();
+    }
+
+    @Test
+    public void testLookupsServedFromSnapshot() {
+        mockInventory(HOSTS, MEPMS);
+
+        MecHost host = inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken");
+        Assert.assertEquals("2.2.2.2", host.getMepmIp());
+        Assert.assertEquals(Arrays.asList("GPU", "NPU"), host.getHwTypes());
+        Assert.assertNull(inventorySnapshot.getMecHost(TENANT_ID, "3.3.3.3", "SampleToken").getHwTypes());
+        Assert.assertEquals("10000", inventorySnapshot.getMepmPort(TENANT_ID, "2.2.2.2", "SampleToken"));
+        Assert.assertNull(inventorySnapshot.getMecHost(TENANT_ID, "4.4.4.4", "SampleToken"));
+
+        inventorySnapshot.putMecHost(TENANT_ID, new MecHost("4.4.4.4", "2.2.2.2", null));
+        Assert.assertNotNull(inventorySnapshot.getMecHost(TENANT_ID, "4.4.4.4", "SampleToken"));
+
+        verify(restService, times(1)).sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), eq("SampleToken"), any());
+        verify(restService, times(1)).sendRequest(eq(MEPMS_URL), eq(HttpMethod.GET), eq("SampleToken"), any());
+    }
+
+    @Test
+    public void testRefreshAppliesChanges() {
+        mockInventory(HOSTS, MEPMS);
+        Assert.assertNotNull(inventorySnapshot.getMecHost(TENANT_ID, "3.3.3.3", "SampleToken"));
+
+        mockInventory("[{\"mechostIp\":\"1.1.1.1\",\"mepmIp\":\"5.5.5.5\"}]",
+                "[{\"mepmIp\":\"5.5.5.5\",\"mepmPort\":\"10001\"}]");
+        ReflectionTestUtils.setField(inventorySnapshot, "refreshInterval", 0L);
+
+        // Refreshed on the snapshot thread
+        Assert.assertNotNull(inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "OtherToken"));
+        awaitSnapshotThread();
+        verify(restService, times(1)).sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), eq("OtherToken"), any());
+        Assert.assertEquals("5.5.5.5", inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken")
+                .getMepmIp());
+        Assert.assertNull(inventorySnapshot.getMecHost(TENANT_ID, "3.3.3.3", "SampleToken"));
+        Assert.assertNull(inventorySnapshot.getMepmPort(TENANT_ID, "2.2.2.2", "SampleToken"));
+        Assert.assertEquals("10001", inventorySnapshot.getMepmPort(TENANT_ID, "5.5.5.5", "SampleToken"));
+    }
+
+    @Test
+    public void testLoadFailureFallsBack() {
+        when(restService.sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), any(), any()))
+                .thenThrow(new AppoException("Failure while sending request"));
+
+        Assert.assertNull(inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken"));
+        Assert.assertNull(inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken"));
+        verify(restService, times(1)).sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), any(), any());
+
+        ReflectionTestUtils.setField(inventorySnapshot, "failureBackoff", 0L);
+        Assert.assertNull(inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken"));
+        verify(restService, times(2)).sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), any(), any());
+    }
+
+    @Test
+    public void testRefreshFailureKeepsStaleSnapshot() {
+        mockInventory(HOSTS, MEPMS);
+        Assert.assertNotNull(inventorySnapshot.getMecHost(TENANT_ID, "3.3.3.3", "SampleToken"));
+
+        when(restService.sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), any(), any()))
+                .thenThrow(new AppoException("Failure while sending request"));
+        ReflectionTestUtils.setField(inventorySnapshot, "refreshInterval", 0L);
+        Assert.assertNotNull(inventorySnapshot.getMecHost(TENANT_ID, "3.3.3.3", "SampleToken"));
+        awaitSnapshotThread();
+
+        // Refresh is not retried within the failure backoff
+        Assert.assertEquals("2.2.2.2", inventorySnapshot.getMecHost(TENANT_ID, "3.3.3.3", "SampleToken")
+                .getMepmIp());
+        Assert.assertEquals("10000", inventorySnapshot.getMepmPort(TENANT_ID, "2.2.2.2", "SampleToken"));
+        awaitSnapshotThread();
+        verify(restService, times(2)).sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), any(), any());
+    }
+
+    @Test
+    public void testLoadWaitBoundedByDeadline() throws Exception {
+        CountDownLatch released = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            released.await(10, TimeUnit.SECONDS);
+            return new ResponseEntity<>(HOSTS, HttpStatus.OK);
+        }).when(restService).sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), any(), any());
+        when(restService.sendRequest(eq(MEPMS_URL), eq(HttpMethod.GET), any(), any()))
+                .thenReturn(new ResponseEntity<>(MEPMS, HttpStatus.OK));
+
+        RequestDeadline.setDeadline(System.currentTimeMillis() + 100L);
+        Assert.assertNull(inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken"));
+        // Without deadline the snapshot is not waited for
+        RequestDeadline.clear();
+        Assert.assertNull(inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken"));
+
+        released.countDown();
+        awaitSnapshotThread();
+        Assert.assertEquals("2.2.2.2", inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken")
+                .getMepmIp());
+        verify(restService, times(1)).sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), any(), any());
+    }
+
+    @Test
+    public void testInvalidateDropsSnapshot() {
+        mockInventory(HOSTS, MEPMS);
+        Assert.assertNotNull(inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken"));
+
+        inventorySnapshot.invalidate(TENANT_ID);
+        Assert.assertNotNull(inventorySnapshot.getMecHost(TENANT_ID, "1.1.1.1", "SampleToken"));
+        verify(restService, times(2)).sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), any(), any());
+    }
+
+    private void awaitSnapshotThread() {
+        ExecutorService scheduler = (ExecutorService) ReflectionTestUtils.getField(inventorySnapshot, "scheduler");
+        try {
+            scheduler.submit(() -> { }).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            Assert.fail("snapshot thread not idle: " + e.getMessage());
+        }
+    }
+
+    private void mockInventory(String hosts, String mepms) {
+        when(restService.sendRequest(eq(HOSTS_URL), eq(HttpMethod.GET), any(), any()))
+                .thenReturn(new ResponseEntity<>(hosts, HttpStatus.OK));
+        when(restService.sendRequest(eq(MEPMS_URL), eq(HttpMethod.GET), any(), any()))
+                .thenReturn(new ResponseEntity<>(mepms, HttpStatus.OK));
+    }
+}
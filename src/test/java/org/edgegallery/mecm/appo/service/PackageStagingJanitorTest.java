@@ -0,0 +1,174 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import org.edgegallery.mecm.appo.bpmn.tasks.PackagePrefetcher;
+import org.edgegallery.mecm.appo.model.AppInstanceInfo;
+import org.edgegallery.mecm.appo.repository.AppInstanceInfoRepository;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class PackageStagingJanitorTest {
+
+    private static final long HOUR = 3600000L;
+
+    @Rule
+    public TemporaryFolder packages = new TemporaryFolder();
+
+    private PackageStagingJanitor janitor;
+
+    private AppInstanceInfoRepository repository;
+
+    private PackagePrefetcher packagePrefetcher;
+
+    @Before
+    public void setUp() {
+        repository = mock(AppInstanceInfoRepository.class);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        janitor = new PackageStagingJanitor();
+        ReflectionTestUtils.setField(janitor, "minAge", HOUR);
+        ReflectionTestUtils.setField(janitor, "maxSize", 1024L);
+        ReflectionTestUtils.setField(janitor, "creatingMaxAge", 24 * HOUR);
+        ReflectionTestUtils.setField(janitor, "appPkgBasePath", packages.getRoot().getPath());
+        ReflectionTestUtils.setField(janitor, "appInstanceInfoRepository", repository);
+        ReflectionTestUtils.setField(janitor, "packageStore", new ApplicationPackageStore());
+        packagePrefetcher = mock(PackagePrefetcher.class);
+        ReflectionTestUtils.setField(janitor, "packagePrefetcher", packagePrefetcher);
+    }
+
+    @Test
+    public void testStagingDirsReconciledWithInstanceStatus() throws IOException {
+        File creating = stagingDir("creating", Constants.OPER_STATUS_CREATING, 10, 2 * HOUR);
+        File created = stagingDir("created", Constants.OPER_STATUS_CREATED, 10, 2 * HOUR);
+        File createFailed = stagingDir("createFailed", Constants.OPER_STATUS_CREATE_FAILED, 10, 2 * HOUR);
+        File instantiated = stagingDir("instantiated", Constants.OPER_STATUS_INSTANTIATED, 10, 2 * HOUR);
+        File deleted = stagingDir("deleted", null, 10, 2 * HOUR);
+        File recent = stagingDir("recent", null, 10, 0);
+        File store = packages.newFolder("store");
+
+        janitor.cleanUp();
+
+        Assert.assertTrue(creating.exists());
+        Assert.assertTrue(created.exists());
+        Assert.assertFalse(createFailed.exists());
+        Assert.assertFalse(instantiated.exists());
+        Assert.assertFalse(deleted.exists());
+        Assert.assertTrue(recent.exists());
+        Assert.assertTrue(store.exists());
+        Assert.assertEquals(3L, janitor.getStats().get("removed_dirs"));
+        Assert.assertEquals(3L, janitor.getStats().get("staging_dirs"));
+    }
+
+    @Test
+    public void testOldestStagingDirsEvictedOverQuota() throws IOException {
+        File oldest = stagingDir("oldest", Constants.OPER_STATUS_CREATED, 500, 4 * HOUR);
+        File creating = stagingDir("creating", Constants.OPER_STATUS_CREATING, 500, 3 * HOUR);
+        File older = stagingDir("older", Constants.OPER_STATUS_CREATED, 500, 2 * HOUR);
+        File newest = stagingDir("newest", Constants.OPER_STATUS_CREATED, 500, 0);
+
+        janitor.cleanUp();
+
+        Assert.assertFalse(oldest.exists());
+        Assert.assertTrue(creating.exists());
+        Assert.assertFalse(older.exists());
+        Assert.assertTrue(newest.exists());
+        Assert.assertEquals(2L, janitor.getStats().get("evicted_dirs"));
+        Assert.assertEquals(1000L, janitor.getStats().get("staging_size"));
+    }
+
+    @Test
+    public void testStuckCreatingStagingDirEvictedOverQuota() throws IOException {
+        File stuck = stagingDir("stuck", Constants.OPER_STATUS_CREATING, 800, 25 * HOUR);
+        File creating = stagingDir("creating", Constants.OPER_STATUS_CREATING, 800, 2 * HOUR);
+
+        janitor.cleanUp();
+
+        Assert.assertFalse(stuck.exists());
+        Assert.assertTrue(creating.exists());
+        Assert.assertEquals(1L, janitor.getStats().get("evicted_dirs"));
+    }
+
+    @Test
+    public void testStoreLinksNotCountedInStagingSize() throws IOException {
+        File linked = stagingDir("linked", Constants.OPER_STATUS_CREATED, 800, 2 * HOUR);
+        File created = stagingDir("created", Constants.OPER_STATUS_CREATED, 500, HOUR);
+        File storedPackage = new File(packages.newFolder("store"), "digest" + Constants.APP_PKG_EXT);
+        try {
+            Files.createLink(storedPackage.toPath(), new File(linked, "linked" + Constants.APP_PKG_EXT).toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            Assume.assumeNoException(e);
+        }
+
+        janitor.cleanUp();
+
+        Assert.assertTrue(linked.exists());
+        Assert.assertTrue(created.exists());
+        Assert.assertEquals(0L, janitor.getStats().get("evicted_dirs"));
+        Assert.assertEquals(500L, janitor.getStats().get("staging_size"));
+    }
+
+    @Test
+    public void testPrefetchesOfEndedInstancesCancelled() {
+        AppInstanceInfo creating = new AppInstanceInfo();
+        creating.setOperationalStatus(Constants.OPER_STATUS_CREATING);
+        AppInstanceInfo createFailed = new AppInstanceInfo();
+        createFailed.setOperationalStatus(Constants.OPER_STATUS_CREATE_FAILED);
+        when(repository.findById("creating")).thenReturn(Optional.of(creating));
+        when(repository.findById("createFailed")).thenReturn(Optional.of(createFailed));
+        when(packagePrefetcher.getPendingAppInstanceIds())
+                .thenReturn(new HashSet<>(Arrays.asList("creating", "createFailed", "deleted")));
+
+        janitor.cleanUp();
+
+        verify(packagePrefetcher).cancelExpired();
+        verify(packagePrefetcher).cancel("createFailed");
+        verify(packagePrefetcher).cancel("deleted");
+        verify(packagePrefetcher, never()).cancel("creating");
+    }
+
+    private File stagingDir(String appInstanceId, String status, int size, long age) throws IOException {
+        File dir = packages.newFolder(appInstanceId);
+        File appPackage = new File(dir, appInstanceId + Constants.APP_PKG_EXT);
+        Files.write(appPackage.toPath(), new byte[size]);
+        long modified = System.currentTimeMillis() - age;
+        Assert.assertTrue(appPackage.setLastModified(modified) && dir.setLastModified(modified));
+        if (status != null) {
+            AppInstanceInfo appInstanceInfo = new AppInstanceInfo();
+            appInstanceInfo.setOperationalStatus(status);
+            when(repository.findById(appInstanceId)).thenReturn(Optional.of(appInstanceInfo));
+        }
+        return dir;
+    }
+}
@@ -1,12 +1,15 @@
 package org.edgegallery.mecm.appo.service;
 
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.edgegallery.mecm.appo.apihandler.AppoSyncHandler;
 import org.edgegallery.mecm.appo.apihandler.dto.AppInstanceDeletedDto;
 import org.edgegallery.mecm.appo.apihandler.dto.AppInstanceInfoDto;
 import org.edgegallery.mecm.appo.exception.AppoException;
 import org.edgegallery.mecm.appo.model.AppInstanceInfo;
 import org.edgegallery.mecm.appo.service.impl.AppoProcessflowServiceImpl;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -18,6 +21,7 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -42,14 +46,18 @@ public class RestClientHelperTest {
     @Test
     public void buildHttpClient() {
         restClientHelper = new RestClientHelper(true, "path", "trust");
-        assertThrows(AppoException.class, () -> restClientHelper.buildHttpClient());
+        assertThrows(AppoException.class, () -> restClientHelper.buildConnectionManager(20, 10));
         restClientHelper.setTrustStorePasswd("truststore");
         restClientHelper.setSslEnabled(false);
         restClientHelper.setTrustStorePath("text");
         RestClientHelper restClientHelper2 = new RestClientHelper(restClientHelper.isSslEnabled(),
                 restClientHelper.getTrustStorePath(),
                 restClientHelper.getTrustStorePasswd());
-        CloseableHttpClient httpClient = restClientHelper2.buildHttpClient();
+        PoolingHttpClientConnectionManager connectionManager = restClientHelper2.buildConnectionManager(20, 10);
+        Assert.assertEquals(20, connectionManager.getMaxTotal());
+        Assert.assertEquals(10, connectionManager.getDefaultMaxPerRoute());
+        CloseableHttpClient httpClient = restClientHelper2.buildHttpClient(connectionManager,
+                RequestConfig.custom().build(), 1000, 1000);
         assertNotNull(httpClient);
 
     }
@@ -57,8 +65,9 @@ public class RestClientHelperTest {
     @Test(expected = InvocationTargetException.class)
     public void testProcessflowErrorResponse() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         AppoProcessflowServiceImpl appoProcessflowService = new AppoProcessflowServiceImpl();
-        Object[] obj1 = {"processInstanceId", "OK"};
-        Method method1 = AppoProcessflowServiceImpl.class.getDeclaredMethod("processflowErrorResponse", String.class, String.class);
+        Function<String, Object> variables = variableName -> null;
+        Object[] obj1 = {variables, "OK"};
+        Method method1 = AppoProcessflowServiceImpl.class.getDeclaredMethod("processflowErrorResponse", Function.class, String.class);
         method1.setAccessible(true);
         method1.invoke(appoProcessflowService, obj1);
     }
@@ -67,8 +76,9 @@ public class RestClientHelperTest {
     @Test(expected = InvocationTargetException.class)
     public void testProcessflowException() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         AppoProcessflowServiceImpl appoProcessflowService = new AppoProcessflowServiceImpl();
-        Object[] obj1 = {"processInstanceId", "OK"};
-        Method method1 = AppoProcessflowServiceImpl.class.getDeclaredMethod("processflowException", String.class, String.class);
+        Function<String, Object> variables = variableName -> "processflowException";
+        Object[] obj1 = {variables, "OK"};
+        Method method1 = AppoProcessflowServiceImpl.class.getDeclaredMethod("processflowException", Function.class, String.class);
         method1.setAccessible(true);
         method1.invoke(appoProcessflowService, obj1);
     }
@@ -97,4 +107,27 @@ public class RestClientHelperTest {
         method1.setAccessible(true);
         method1.invoke(handler, obj1);
     }
+
+    @Test
+    public void testRemainingTimeComputedFromDeadline() throws InterruptedException {
+        try {
+            RequestDeadline.setDeadline(System.currentTimeMillis() + 1000L);
+            long remainingTime = RequestDeadline.getRemainingTime();
+            Thread.sleep(50);
+            Assert.assertTrue(RequestDeadline.getRemainingTime() < remainingTime);
+        } finally {
+            RequestDeadline.clear();
+        }
+        Assert.assertNull(RequestDeadline.getRemainingTime());
+    }
+
+    @Test
+    public void testCapTimeouts() {
+        RequestConfig config = RequestConfig.custom().setConnectTimeout(5000).setSocketTimeout(500)
+                .setConnectionRequestTimeout(-1).build();
+        RequestConfig capped = RestClientHelper.capTimeouts(config, 1000);
+        Assert.assertEquals(1000, capped.getConnectTimeout());
+        Assert.assertEquals(500, capped.getSocketTimeout());
+        Assert.assertEquals(1000, capped.getConnectionRequestTimeout());
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import org.edgegallery.mecm.appo.model.TenantQuotaCounter;
+import org.edgegallery.mecm.appo.repository.AppInstanceInfoRepository;
+import org.edgegallery.mecm.appo.repository.AppRuleTaskRepository;
+import org.edgegallery.mecm.appo.repository.AppoTenantRepository;
+import org.edgegallery.mecm.appo.repository.TenantQuotaRepository;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TenantQuotaTest {
+
+    private static final String APP_INSTANCES_KEY = "appinstances/tenant1";
+
+    private TenantQuotaRepository tenantQuotaRepository;
+
+    private AppInstanceInfoRepository appInstanceInfoRepository;
+
+    private TenantQuota tenantQuota;
+
+    @Before
+    public void setUp() {
+        tenantQuotaRepository = mock(TenantQuotaRepository.class);
+        appInstanceInfoRepository = mock(AppInstanceInfoRepository.class);
+        AppoTenantRepository appoTenantRepository = mock(AppoTenantRepository.class);
+        when(appoTenantRepository.count()).thenReturn(1L);
+        when(appInstanceInfoRepository.countByTenantId("tenant1")).thenReturn(1L);
+        tenantQuota = new TenantQuota(tenantQuotaRepository, appInstanceInfoRepository,
+                mock(AppRuleTaskRepository.class), appoTenantRepository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(tenantQuota, "maxTenants", 2);
+        ReflectionTestUtils.setField(tenantQuota, "maxEntriesPerTenant", 2);
+        ReflectionTestUtils.setField(tenantQuota, "cacheTtl", 60000L);
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testCounterRowCreatedWithCountQuery() {
+        when(tenantQuotaRepository.existsById(anyString())).thenReturn(false);
+        when(tenantQuotaRepository.increment(anyString(), anyLong())).thenReturn(1);
+
+        Assert.assertTrue(tenantQuota.reserveAppInstance("tenant1"));
+        verify(tenantQuotaRepository).insertIfAbsent(APP_INSTANCES_KEY, 1L);
+        verify(tenantQuotaRepository).increment(APP_INSTANCES_KEY, 2L);
+
+        Assert.assertTrue(tenantQuota.reserveTenant());
+        verify(tenantQuotaRepository).insertIfAbsent("tenants", 1L);
+    }
+
+    @Test
+    public void testReservationCheckedByConditionalUpdate() {
+        when(tenantQuotaRepository.existsById(APP_INSTANCES_KEY)).thenReturn(true);
+        when(tenantQuotaRepository.increment(APP_INSTANCES_KEY, 2L)).thenReturn(1, 0);
+
+        Assert.assertTrue(tenantQuota.reserveAppInstance("tenant1"));
+        Assert.assertFalse(tenantQuota.reserveAppInstance("tenant1"));
+        verify(tenantQuotaRepository, never()).insertIfAbsent(anyString(), anyLong());
+        verify(appInstanceInfoRepository, never()).countByTenantId("tenant1");
+    }
+
+    @Test
+    public void testReachedLimitRejectedInMemoryUntilReleaseCommitted() {
+        when(tenantQuotaRepository.existsById(APP_INSTANCES_KEY)).thenReturn(true);
+        when(tenantQuotaRepository.increment(APP_INSTANCES_KEY, 2L)).thenReturn(0, 1);
+
+        Assert.assertFalse(tenantQuota.reserveAppInstance("tenant1"));
+        Assert.assertFalse(tenantQuota.reserveAppInstance("tenant1"));
+        verify(tenantQuotaRepository, times(1)).increment(APP_INSTANCES_KEY, 2L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        tenantQuota.releaseAppInstance("tenant1");
+        verify(tenantQuotaRepository).decrement(APP_INSTANCES_KEY);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        Assert.assertFalse(tenantQuota.reserveAppInstance("tenant1"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        tenantQuota.releaseAppInstance("tenant1");
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        Assert.assertTrue(tenantQuota.reserveAppInstance("tenant1"));
+        verify(tenantQuotaRepository, times(2)).increment(APP_INSTANCES_KEY, 2L);
+    }
+
+    @Test
+    public void testReachedLimitCheckedAgainAfterCacheTtl() {
+        ReflectionTestUtils.setField(tenantQuota, "cacheTtl", -1L);
+        when(tenantQuotaRepository.existsById(APP_INSTANCES_KEY)).thenReturn(true);
+        when(tenantQuotaRepository.increment(APP_INSTANCES_KEY, 2L)).thenReturn(0, 1);
+
+        Assert.assertFalse(tenantQuota.reserveAppInstance("tenant1"));
+        Assert.assertTrue(tenantQuota.reserveAppInstance("tenant1"));
+    }
+
+    @Test
+    public void testAppRuleTaskLimitAlwaysCheckedInDatabase() {
+        when(tenantQuotaRepository.existsById("appruletasks/tenant1")).thenReturn(true);
+        when(tenantQuotaRepository.increment("appruletasks/tenant1", 2L)).thenReturn(0, 1);
+
+        Assert.assertFalse(tenantQuota.reserveAppRuleTask("tenant1"));
+        Assert.assertTrue(tenantQuota.reserveAppRuleTask("tenant1"));
+        verify(tenantQuotaRepository, times(2)).increment("appruletasks/tenant1", 2L);
+    }
+
+    @Test
+    public void testReconcileCorrectsDriftedCounters() {
+        when(tenantQuotaRepository.findAll()).thenReturn(Arrays.asList(new TenantQuotaCounter("tenants", 3L),
+                new TenantQuotaCounter(APP_INSTANCES_KEY, 1L), new TenantQuotaCounter("unknown", 1L)));
+        when(tenantQuotaRepository.lockEntries("tenants")).thenReturn(3L);
+        when(tenantQuotaRepository.lockEntries(APP_INSTANCES_KEY)).thenReturn(1L);
+
+        tenantQuota.reconcile();
+        verify(tenantQuotaRepository).setEntries("tenants", 1L);
+        verify(tenantQuotaRepository, never()).setEntries(APP_INSTANCES_KEY, 1L);
+        verify(tenantQuotaRepository, never()).lockEntries("unknown");
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.service.impl;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngineServices;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.runtime.ProcessInstanceWithVariables;
+import org.camunda.bpm.engine.variable.Variables;
+import org.edgegallery.mecm.appo.apihandler.AppoApplicationTest;
+import org.edgegallery.mecm.appo.service.AppoProcessFlowResponse;
+import org.edgegallery.mecm.appo.service.AppoProcessflowService;
+import org.edgegallery.mecm.appo.utils.Constants;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = AppoApplicationTest.class)
+public class AppoProcessflowServiceImplTest {
+
+    private static final String TENANT_ID = "12db0288-3c67-4042-a708-a8e4a10c6b31";
+    private static final String KPI_URL = "http://3.3.3.3:10000/lcmcontroller/v2/tenants/" + TENANT_ID
+            + "/hosts/3.3.3.3/kpi";
+
+    @Autowired
+    private AppoProcessflowService processflowService;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private HistoryService engineHistoryService;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private MockRestServiceServer server;
+
+    @Before
+    public void setUp() {
+        server = MockRestServiceServer.createServer(restTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        server.reset();
+    }
+
+    @Test
+    public void testQueryKpiSuccess() {
+        String kpi = "{\"data\":{\"cpu\":\"10\"},\"retCode\":0,\"message\":\"Query KPI success\"}";
+        AppoProcessFlowResponse response = queryKpi(HttpStatus.OK, kpi);
+
+        Assert.assertEquals(HttpStatus.OK.value(), response.getResponseCode());
+        Assert.assertNotNull(response.getResponse());
+        Assert.assertNotNull(response.getProcessInstanceID());
+        Assert.assertEquals(0, runtimeService.createProcessInstanceQuery().processDefinitionKey("queryKpi").count());
+    }
+
+    @Test
+    public void testQueryKpiFailure() {
+        String error = "{\"data\":null,\"retCode\":1,\"message\":\"host not reachable\"}";
+        AppoProcessFlowResponse response = queryKpi(HttpStatus.BAD_REQUEST, error);
+
+        Assert.assertNotEquals(HttpStatus.OK.value(), response.getResponseCode());
+        Assert.assertEquals(0, runtimeService.createProcessInstanceQuery().processDefinitionKey("queryKpi").count());
+    }
+
+    @Test
+    public void testQueryKpiWithoutHistory() {
+        String kpi = "{\"data\":{\"cpu\":\"10\"},\"retCode\":0,\"message\":\"Query KPI success\"}";
+        AppoProcessFlowResponse response = queryKpi(HttpStatus.OK, kpi);
+
+        // queryKpi is a no-history process, response is built from the returned variables only
+        Assert.assertEquals(HttpStatus.OK.value(), response.getResponseCode());
+        Assert.assertNotNull(response.getResponse());
+        Assert.assertEquals(0, engineHistoryService.createHistoricProcessInstanceQuery()
+                .processInstanceId(response.getProcessInstanceID()).count());
+        Assert.assertEquals(0, engineHistoryService.createHistoricVariableInstanceQuery()
+                .processInstanceId(response.getProcessInstanceID()).count());
+    }
+
+    @Test
+    public void testResponseFromReturnedVariables() {
+        HistoryService historyService = Mockito.mock(HistoryService.class);
+        AppoProcessflowServiceImpl service = createService(historyService);
+        ProcessInstanceWithVariables processInstance = Mockito.mock(ProcessInstanceWithVariables.class);
+        Mockito.when(processInstance.getVariables()).thenReturn(Variables.createVariables()
+                .putValue(Constants.PROCESS_FLOW_RESP_CODE, "200").putValue(Constants.PROCESS_FLOW_RESP, "ok"));
+
+        AppoProcessFlowResponse response = ReflectionTestUtils.invokeMethod(service, "getProcessInstanceData",
+                processInstance);
+        Assert.assertEquals(HttpStatus.OK.value(), response.getResponseCode());
+        Assert.assertEquals("ok", response.getResponse());
+        Mockito.verify(historyService, Mockito.never()).createHistoricVariableInstanceQuery();
+    }
+
+    @Test
+    public void testResponseFromHistoryWhenNotReturned() {
+        HistoryService historyService = Mockito.mock(HistoryService.class, Mockito.RETURNS_DEEP_STUBS);
+        HistoricVariableInstance responseCode = historicVariable(Constants.PROCESS_FLOW_RESP_CODE, "400");
+        HistoricVariableInstance errorResponse = historicVariable(Constants.PROCESS_FLOW_ERR_RESP, "failed");
+        Mockito.when(historyService.createHistoricVariableInstanceQuery().processInstanceId("instance")
+                .variableNameLike("Processflow%").list()).thenReturn(Arrays.asList(responseCode,
+                errorResponse));
+        AppoProcessflowServiceImpl service = createService(historyService);
+
+        // Process instance waiting in an async continuation returns no response variables
+        ProcessInstanceWithVariables processInstance = Mockito.mock(ProcessInstanceWithVariables.class);
+        Mockito.when(processInstance.getId()).thenReturn("instance");
+        Mockito.when(processInstance.getVariables()).thenReturn(Variables.createVariables());
+
+        AppoProcessFlowResponse response = ReflectionTestUtils.invokeMethod(service, "getProcessInstanceData",
+                processInstance);
+        Assert.assertEquals(HttpStatus.BAD_REQUEST.value(), response.getResponseCode());
+        Assert.assertEquals("failed", response.getResponse());
+    }
+
+    @Test
+    public void testNoResponseWhenHistoryAbsent() {
+        HistoryService historyService = Mockito.mock(HistoryService.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(historyService.createHistoricVariableInstanceQuery().processInstanceId("instance")
+                .variableNameLike("Processflow%").list()).thenReturn(Collections.emptyList());
+        AppoProcessflowServiceImpl service = createService(historyService);
+        ProcessInstanceWithVariables processInstance = Mockito.mock(ProcessInstanceWithVariables.class);
+        Mockito.when(processInstance.getId()).thenReturn("instance");
+
+        Assert.assertNull(ReflectionTestUtils.invokeMethod(service, "getProcessInstanceData", processInstance));
+    }
+
+    private static AppoProcessflowServiceImpl createService(HistoryService historyService) {
+        ProcessEngineServices engineServices = Mockito.mock(ProcessEngineServices.class);
+        Mockito.when(engineServices.getHistoryService()).thenReturn(historyService);
+        AppoProcessflowServiceImpl service = Mockito.spy(new AppoProcessflowServiceImpl());
+        Mockito.doReturn(engineServices).when(service).getEngineServices();
+        return service;
+    }
+
+    private static HistoricVariableInstance historicVariable(String name, Object value) {
+        HistoricVariableInstance variable = Mockito.mock(HistoricVariableInstance.class);
+        Mockito.when(variable.getName()).thenReturn(name);
+        Mockito.when(variable.getValue()).thenReturn(value);
+        return variable;
+    }
+
+    private AppoProcessFlowResponse queryKpi(HttpStatus status, String kpi) {
+        server.reset();
+        server.expect(requestTo("http://10.9.9.1:11111/inventory/v1/tenants/" + TENANT_ID + "/mechosts/3.3.3.3"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"mechostIp\":\"3.3.3.3\",\"mechostName\":\"TestHost\","
+                        + "\"zipCode\":null,\"city\":\"TestCity\",\"address\":\"Test Address\","
+                        + "\"affinity\":\"part1,part2\",\"userName\":null,\"edgerepoName\":null,"
+                        + "\"edgerepoIp\":\"3.3.3.3\",\"edgerepoPort\":\"10000\",\"edgerepoUsername\":null,"
+                        + "\"mepmIp\":\"3.3.3.3\"}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://10.9.9.1:11111/inventory/v1/mepms/3.3.3.3"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"mepmIp\":\"3.3.3.3\",\"mepmPort\":\"10000\",\"userName\":\"Test\"}",
+                        MediaType.APPLICATION_JSON));
+        server.expect(requestTo(KPI_URL))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(status).contentType(MediaType.APPLICATION_JSON).body(kpi));
+
+        Map<String, String> requestInput = new HashMap<>();
+        requestInput.put(Constants.TENANT_ID, TENANT_ID);
+        requestInput.put(Constants.MEC_HOST, "3.3.3.3");
+        requestInput.put(Constants.ACCESS_TOKEN, "SampleToken");
+        AppoProcessFlowResponse response = processflowService.executeProcessSync("queryKpi", requestInput);
+        server.verify();
+        return response;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.utils;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.edgegallery.mecm.appo.model.AppRule;
+import org.edgegallery.mecm.appo.model.AppServiceRequired;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ApplicationDescriptorCacheTest {
+
+    private ApplicationDescriptorCache cache;
+
+    private final AtomicInteger extractions = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        cache = new ApplicationDescriptorCache();
+        ReflectionTestUtils.setField(cache, "isEnabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+    }
+
+    @Test
+    public void testCachedDescriptorIsCopied() {
+        AppRule appRule = cache.get("pkg", "digest", this::extract);
+        appRule.setAppServiceRequired(null);
+        appRule.setAppName("instance");
+
+        AppRule cached = cache.get("pkg", "digest", this::extract);
+        Assert.assertEquals(1, extractions.get());
+        Assert.assertEquals(1, cached.getAppServiceRequired().size());
+        Assert.assertNull(cached.getAppName());
+        Assert.assertEquals(1L, cache.getStats().get("hits"));
+        Assert.assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    public void testPackageWithoutDescriptorCached() {
+        Assert.assertNull(cache.get("pkg", "digest", () -> {
+            extractions.incrementAndGet();
+            return null;
+        }));
+        Assert.assertNull(cache.get("pkg", "digest", this::extract));
+        Assert.assertEquals(1, extractions.get());
+    }
+
+    @Test
+    public void testPackageWithoutDigestNotCached() {
+        cache.get("pkg", null, this::extract);
+        cache.get("pkg", null, this::extract);
+        Assert.assertEquals(2, extractions.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        cache.get("pkg1", "digest", this::extract);
+        cache.get("pkg2", "digest", this::extract);
+        cache.get("pkg1", "digest", this::extract);
+        cache.get("pkg3", "digest", this::extract);
+        Assert.assertEquals(3, extractions.get());
+
+        cache.get("pkg1", "digest", this::extract);
+        Assert.assertEquals(3, extractions.get());
+        cache.get("pkg2", "digest", this::extract);
+        Assert.assertEquals(4, extractions.get());
+    }
+
+    private AppRule extract() {
+        extractions.incrementAndGet();
+        AppServiceRequired required = new AppServiceRequired();
+        required.setSerName("service");
+        AppRule appRule = new AppRule();
+        appRule.setAppServiceRequired(Collections.singleton(required));
+        return appRule;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.utils;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ApplicationPackageReaderTest {
+
+    private static final String APP_PACKAGE = "src/test/resources/22406fba-fd5d-4f55-b3fa-89a45fee913a.csar";
+
+    @Rule
+    public TemporaryFolder packages = new TemporaryFolder();
+
+    @Test
+    public void testReadMainServiceTemplate() {
+        Map<String, Object> mainTemplate = ApplicationPackageReader.readMainServiceTemplate(APP_PACKAGE);
+
+        Assert.assertEquals("tosca_simple_profile_yaml_1_2", mainTemplate.get("tosca_definitions_version"));
+        Assert.assertTrue(mainTemplate.containsKey("topology_template"));
+        Assert.assertFalse(new File("src/test/resources/22406fba-fd5d-4f55-b3fa-89a45fee913a").exists());
+    }
+
+    @Test
+    public void testMissingMainServiceTemplate() throws IOException {
+        File appPackage = packages.newFile("pkg.csar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(appPackage))) {
+            putEntry(zip, "TOSCA-Metadata/TOSCA.meta", "Entry-Definitions: APPD/MainServiceTemplate.zip\n");
+        }
+
+        AppoException exception = assertThrows(AppoException.class,
+            () -> ApplicationPackageReader.readMainServiceTemplate(appPackage.getPath()));
+        Assert.assertEquals("failed, main service yaml not available in app package", exception.getMessage());
+    }
+
+    @Test
+    public void testReadPackageWithManyArtifacts() throws IOException {
+        ByteArrayOutputStream mainSvcTemplate = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(mainSvcTemplate)) {
+            putEntry(zip, "Definitions/TOSCA_VNFD.meta", "Entry-Definitions: Definitions/Main.yaml\n");
+            putEntry(zip, "Definitions/Other.yaml", "tosca_definitions_version: other\n");
+            putEntry(zip, "Definitions/Main.yaml", "tosca_definitions_version: main\n");
+        }
+
+        File appPackage = packages.newFile("pkg.csar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(appPackage))) {
+            for (int i = 0; i < 1000; i++) {
+                putEntry(zip, "Artifacts/Images/image" + i + ".json", "{}");
+            }
+            zip.putNextEntry(new ZipEntry("APPD/MainServiceTemplate.zip"));
+            zip.write(mainSvcTemplate.toByteArray());
+            zip.closeEntry();
+            putEntry(zip, "TOSCA-Metadata/TOSCA.meta", "Entry-Definitions: /APPD/MainServiceTemplate.zip\n");
+        }
+
+        Map<String, Object> mainTemplate = ApplicationPackageReader.readMainServiceTemplate(appPackage.getPath());
+        Assert.assertEquals("main", mainTemplate.get("tosca_definitions_version"));
+    }
+
+    @Test
+    public void testLargeArtifactsNotBuffered() throws IOException {
+        ByteArrayOutputStream mainSvcTemplate = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(mainSvcTemplate)) {
+            putEntry(zip, "Definitions/Main.yaml", "tosca_definitions_version: main\n");
+            for (int i = 0; i < 2; i++) {
+                zip.putNextEntry(new ZipEntry("Artifacts/image" + i + ".qcow2"));
+                zip.write(new byte[6 * 1024 * 1024]);
+                zip.closeEntry();
+            }
+            putEntry(zip, "TOSCA-Metadata/TOSCA_VNFD.meta", "Entry-Definitions: Definitions/Main.yaml\n");
+        }
+
+        Map<String, Object> mainTemplate = ApplicationPackageReader.readMainServiceTemplate(
+                createPackage(mainSvcTemplate.toByteArray()).getPath());
+        Assert.assertEquals("main", mainTemplate.get("tosca_definitions_version"));
+    }
+
+    @Test
+    public void testMainServiceTemplateReadInSecondPass() throws IOException {
+        ByteArrayOutputStream mainSvcTemplate = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(mainSvcTemplate)) {
+            putEntry(zip, "Definitions/Main.tosca", "tosca_definitions_version: main\n");
+            putEntry(zip, "TOSCA-Metadata/TOSCA_VNFD.meta", "Entry-Definitions: Definitions/Main.tosca\n");
+        }
+
+        Map<String, Object> mainTemplate = ApplicationPackageReader.readMainServiceTemplate(
+                createPackage(mainSvcTemplate.toByteArray()).getPath());
+        Assert.assertEquals("main", mainTemplate.get("tosca_definitions_version"));
+    }
+
+    @Test
+    public void testNotPackage() throws IOException {
+        File appPackage = packages.newFile("pkg.csar");
+
+        assertThrows(AppoException.class,
+            () -> ApplicationPackageReader.readMainServiceTemplate(appPackage.getPath()));
+    }
+
+    private File createPackage(byte[] mainSvcTemplate) throws IOException {
+        File appPackage = packages.newFile("pkg.csar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(appPackage))) {
+            zip.putNextEntry(new ZipEntry("APPD/MainServiceTemplate.zip"));
+            zip.write(mainSvcTemplate);
+            zip.closeEntry();
+            putEntry(zip, "TOSCA-Metadata/TOSCA.meta", "Entry-Definitions: APPD/MainServiceTemplate.zip\n");
+        }
+        return appPackage;
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
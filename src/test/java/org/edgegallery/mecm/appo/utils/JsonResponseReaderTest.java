@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.utils;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonResponseReaderTest {
+
+    @Test
+    public void testReadEnvelope() {
+        Assert.assertEquals("{\"appInstanceId\":\"1\"}",
+                JsonResponseReader.readEnvelope("{\"message\":\"ok\",\"data\":\"{\\\"appInstanceId\\\":\\\"1\\\"}\"}"));
+        Assert.assertEquals("not found",
+                JsonResponseReader.readEnvelope("{\"data\":null,\"retCode\":1,\"message\":\"not found\"}"));
+        Assert.assertEquals("[{\"a\":1}]", JsonResponseReader.readEnvelope("{\"data\":[{\"a\":1}]}"));
+    }
+
+    @Test
+    public void testReadEnvelopeNotEnvelope() {
+        String host = "{\"mechostIp\":\"1.1.1.1\",\"metadata\":\"data\",\"message\":\"m\"}";
+        Assert.assertEquals(host, JsonResponseReader.readEnvelope(host));
+        Assert.assertEquals("[1,2]", JsonResponseReader.readEnvelope("[1,2]"));
+        Assert.assertEquals("success", JsonResponseReader.readEnvelope("success"));
+        Assert.assertEquals("", JsonResponseReader.readEnvelope(""));
+    }
+
+    @Test
+    public void testReadField() {
+        String mepm = "{\"mepmIp\":\"1.1.1.1\",\"hwcapabilities\":[{\"hwType\":\"GPU\"}],\"mepmPort\":10000}";
+        Assert.assertEquals("10000", JsonResponseReader.readField(mepm, "mepmPort"));
+        Assert.assertEquals("1.1.1.1", JsonResponseReader.readField(mepm, "mepmIp"));
+        Assert.assertNull(JsonResponseReader.readField(mepm, "userName"));
+        assertThrows(AppoException.class, () -> JsonResponseReader.readField("[]", "mepmIp"));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2020-2021 Huawei Technologies Co., Ltd.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.edgegallery.mecm.appo.utils;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.edgegallery.mecm.appo.exception.AppoException;
+import org.edgegallery.mecm.appo.exception.ResourceMgrException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class MepmEndpointCacheTest {
+
+    private static final String TENANT_ID = "12db0288-3c67-4042-a708-a8e4a10c6b31";
+
+    private MepmEndpointCache cache;
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        cache = new MepmEndpointCache();
+        ReflectionTestUtils.setField(cache, "isEnabled", true);
+        ReflectionTestUtils.setField(cache, "ttl", 60000L);
+        ReflectionTestUtils.setField(cache, "negativeTtl", 60000L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+    }
+
+    @Test
+    public void testCachedAndInvalidated() {
+        Assert.assertEquals("3.3.3.3:10000", cache.get(TENANT_ID, "3.3.3.3", this::lookup));
+        Assert.assertEquals("3.3.3.3:10000", cache.get(TENANT_ID, "3.3.3.3", this::lookup));
+        Assert.assertEquals(1, lookups.get());
+
+        cache.invalidate(TENANT_ID, "3.3.3.3");
+        cache.get(TENANT_ID, "3.3.3.3", this::lookup);
+        Assert.assertEquals(2, lookups.get());
+
+        cache.invalidateTenant(TENANT_ID);
+        cache.get(TENANT_ID, "3.3.3.3", this::lookup);
+        Assert.assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void testNegativeCaching() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceMgrException.class, () -> cache.get(TENANT_ID, "4.4.4.4", () -> {
+                lookups.incrementAndGet();
+                throw new ResourceMgrException("MEPM mepmIp is null for host 4.4.4.4");
+            }));
+        }
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testTransientFailureNotCached() {
+        assertThrows(AppoException.class, () -> cache.get(TENANT_ID, "3.3.3.3", () -> {
+            throw new AppoException("Failure while sending request");
+        }));
+        Assert.assertEquals("3.3.3.3:10000", cache.get(TENANT_ID, "3.3.3.3", this::lookup));
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testSizeBounded() {
+        cache.get(TENANT_ID, "1.1.1.1", this::lookup);
+        cache.get(TENANT_ID, "2.2.2.2", this::lookup);
+        cache.get(TENANT_ID, "3.3.3.3", this::lookup);
+        Assert.assertEquals(2, cache.getStats().get("size"));
+    }
+
+    @Test
+    public void testConcurrentMissesCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(TENANT_ID, "3.3.3.3", () -> {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return lookup();
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                Assert.assertEquals("3.3.3.3:10000", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, lookups.get());
+    }
+
+    private String lookup() {
+        lookups.incrementAndGet();
+        return "3.3.3.3:10000";
+    }
+}